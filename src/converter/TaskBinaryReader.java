@@ -0,0 +1,193 @@
+package converter;
+
+import model.Epic;
+import model.Status;
+import model.SubTask;
+import model.Task;
+import model.TaskType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Reads tasks written by {@link TaskBinaryWriter} from an in-memory snapshot.
+ * Every length and ordinal is checked against the snapshot, so a malformed record fails with an IOException.
+ */
+public class TaskBinaryReader {
+
+    private static final int FOOTER_LENGTH = 20;
+    private static final int V1_FOOTER_LENGTH = 12;
+    private static final int MAX_VARLONG_LENGTH = 10;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private final byte[] data;
+    private final int end;
+    private final long records;
+    private final long journalSequence;
+    private long read;
+    private int position;
+
+    public TaskBinaryReader(byte[] data) throws IOException {
+        if (!isBinary(data)) {
+            throw new IOException("Not a binary snapshot");
+        }
+        if (data.length <= TaskBinaryWriter.MAGIC.length) {
+            throw new IOException("Binary snapshot is truncated");
+        }
+        int version = data[TaskBinaryWriter.MAGIC.length];
+        if (version != 1 && version != TaskBinaryWriter.VERSION) {
+            throw new IOException("Unsupported binary snapshot version: " + version);
+        }
+        int footerLength = version == 1 ? V1_FOOTER_LENGTH : FOOTER_LENGTH;
+        if (data.length < TaskBinaryWriter.MAGIC.length + 1 + footerLength) {
+            throw new IOException("Binary snapshot is truncated");
+        }
+        this.data = data;
+        this.end = data.length - footerLength;
+
+        CRC32 checksum = new CRC32();
+        checksum.update(data, 0, data.length - 4);
+        if ((int) checksum.getValue() != readInt(data.length - 4)) {
+            throw new IOException("Binary snapshot checksum does not match its content");
+        }
+        this.records = readLong(data.length - V1_FOOTER_LENGTH);
+        this.journalSequence = version == 1 ? 0 : readLong(end);
+        this.position = TaskBinaryWriter.MAGIC.length + 1;
+    }
+
+    public static boolean isBinary(byte[] head) {
+        return head.length >= TaskBinaryWriter.MAGIC.length
+                && Arrays.equals(head, 0, TaskBinaryWriter.MAGIC.length,
+                TaskBinaryWriter.MAGIC, 0, TaskBinaryWriter.MAGIC.length);
+    }
+
+    /**
+     * The sequence number of the last journal record included in the snapshot, 0 if none.
+     */
+    public long getJournalSequence() {
+        return journalSequence;
+    }
+
+    public boolean hasNext() throws IOException {
+        if (position < end) {
+            return true;
+        }
+        if (read != records) {
+            throw new IOException("Binary snapshot holds " + read + " records instead of " + records);
+        }
+        return false;
+    }
+
+    public Task next() throws IOException {
+        int recordStart = position;
+        int typeOrdinal = readByte();
+        if (typeOrdinal < 0 || typeOrdinal >= TYPES.length) {
+            throw new IOException("Unknown task type " + typeOrdinal + " at offset " + recordStart);
+        }
+        TaskType type = TYPES[typeOrdinal];
+        int id = readVarInt();
+        String name = readString();
+        int status = readByte();
+        if (status < 0 || status > STATUSES.length) {
+            throw new IOException("Unknown task status " + status + " at offset " + recordStart);
+        }
+        String description = readString();
+        Integer epicId = type == TaskType.SUBTASK ? readVarInt() : null;
+
+        int flags = readByte();
+        LocalDateTime start = null;
+        Duration duration = null;
+        try {
+            if ((flags & TaskBinaryWriter.HAS_START) != 0) {
+                long seconds = readSignedVarLong();
+                int nanos = (flags & TaskBinaryWriter.HAS_START_NANOS) != 0 ? readVarInt() : 0;
+                start = LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+            }
+            if ((flags & TaskBinaryWriter.HAS_DURATION) != 0) {
+                long seconds = readSignedVarLong();
+                int nanos = (flags & TaskBinaryWriter.HAS_DURATION_NANOS) != 0 ? readVarInt() : 0;
+                duration = Duration.ofSeconds(seconds, nanos);
+            }
+        } catch (DateTimeException | ArithmeticException exp) {
+            throw new IOException("Invalid time at offset " + recordStart, exp);
+        }
+        read++;
+
+        Status taskStatus = status == 0 ? null : STATUSES[status - 1];
+        switch (type) {
+            case EPIC:
+                return new Epic(id, name, taskStatus, description, start, duration);
+            case SUBTASK:
+                return new SubTask(id, name, taskStatus, description, epicId, start, duration);
+            default:
+                return new Task(id, name, taskStatus, description, start, duration);
+        }
+    }
+
+    private String readString() throws IOException {
+        int length = readVarInt() - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (length > end - position) {
+            throw new IOException("String of " + length + " bytes at offset " + position
+                    + " runs past the end of the records");
+        }
+        String value = new String(data, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    private long readSignedVarLong() throws IOException {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private int readVarInt() throws IOException {
+        int offset = position;
+        long value = readVarLong();
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IOException("Value " + value + " at offset " + offset + " is out of range");
+        }
+        return (int) value;
+    }
+
+    private long readVarLong() throws IOException {
+        int offset = position;
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift == 7 * MAX_VARLONG_LENGTH) {
+                throw new IOException("Malformed number at offset " + offset);
+            }
+            b = (byte) readByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private int readByte() throws IOException {
+        if (position >= end) {
+            throw new IOException("Record at offset " + position + " runs past the end of the records");
+        }
+        return data[position++];
+    }
+
+    private long readLong(int offset) {
+        return ((long) readInt(offset) << 32) | (readInt(offset + 4) & 0xFFFFFFFFL);
+    }
+
+    private int readInt(int offset) {
+        return (data[offset] & 0xFF) << 24 | (data[offset + 1] & 0xFF) << 16
+                | (data[offset + 2] & 0xFF) << 8 | (data[offset + 3] & 0xFF);
+    }
+}
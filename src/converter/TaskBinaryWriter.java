@@ -0,0 +1,172 @@
+package converter;
+
+import model.Status;
+import model.SubTask;
+import model.Task;
+import model.TaskType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32;
+
+/**
+ * Writes tasks in the binary snapshot format read by {@link TaskBinaryReader}.
+ * <p>
+ * Layout: magic "KNBN", version byte, records, then the journal sequence (8 bytes), the record count
+ * (8 bytes) and a CRC32 of everything before it (4 bytes). Version 1 had no journal sequence. A record is the type ordinal, varint id, name, status, description,
+ * the epic id for subtasks, a flags byte and the optional start (epoch seconds, UTC) and duration
+ * (seconds), each followed by a varint nano part when it is not zero. Strings are varint length + 1
+ * (0 for null) followed by UTF-8 bytes, statuses are ordinal + 1 (0 for null), signed numbers are
+ * zigzag varints.
+ */
+public class TaskBinaryWriter implements Closeable {
+
+    static final byte[] MAGIC = {'K', 'N', 'B', 'N'};
+    static final int VERSION = 2;
+
+    static final int HAS_START = 1;
+    static final int HAS_START_NANOS = 1 << 1;
+    static final int HAS_DURATION = 1 << 2;
+    static final int HAS_DURATION_NANOS = 1 << 3;
+
+    private final OutputStream out;
+    private final CRC32 checksum = new CRC32();
+    private final byte[] buffer = new byte[64 * 1024];
+    private int position;
+    private long records;
+
+    public TaskBinaryWriter(OutputStream out) throws IOException {
+        this.out = out;
+        for (byte b : MAGIC) {
+            writeByte(b);
+        }
+        writeByte(VERSION);
+    }
+
+    public void write(Task task) throws IOException {
+        writeByte(task.getType().ordinal());
+        writeVarLong(task.getId());
+        writeString(task.getName());
+        Status status = task.getStatus();
+        writeByte(status == null ? 0 : status.ordinal() + 1);
+        writeString(task.getDescription());
+        if (task.getType() == TaskType.SUBTASK) {
+            writeVarLong(((SubTask) task).getEpicId());
+        }
+
+        LocalDateTime start = task.getStartDateTime();
+        Duration duration = task.getDuration();
+        int flags = 0;
+        if (start != null) {
+            flags |= HAS_START;
+            if (start.getNano() != 0) {
+                flags |= HAS_START_NANOS;
+            }
+        }
+        if (duration != null) {
+            flags |= HAS_DURATION;
+            if (duration.getNano() != 0) {
+                flags |= HAS_DURATION_NANOS;
+            }
+        }
+        writeByte(flags);
+        if (start != null) {
+            writeSignedVarLong(start.toEpochSecond(ZoneOffset.UTC));
+            if (start.getNano() != 0) {
+                writeVarLong(start.getNano());
+            }
+        }
+        if (duration != null) {
+            writeSignedVarLong(duration.getSeconds());
+            if (duration.getNano() != 0) {
+                writeVarLong(duration.getNano());
+            }
+        }
+        records++;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * Writes the footer and flushes, leaving the underlying stream open.
+     */
+    public void finish() throws IOException {
+        finish(0);
+    }
+
+    /**
+     * Writes the footer with the sequence number of the last journal record the snapshot includes.
+     */
+    public void finish(long journalSequence) throws IOException {
+        writeLong(journalSequence);
+        writeLong(records);
+        flushBuffer();
+        long crc = checksum.getValue();
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            out.write((int) (crc >>> shift));
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeLong(long value) throws IOException {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            writeByte((int) (value >>> shift));
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            writeByte(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length + 1L);
+        if (bytes.length > buffer.length - position) {
+            flushBuffer();
+        }
+        if (bytes.length > buffer.length) {
+            checksum.update(bytes);
+            out.write(bytes);
+        } else {
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+    }
+
+    private void writeSignedVarLong(long value) throws IOException {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        writeByte((int) value);
+    }
+
+    private void writeByte(int value) throws IOException {
+        if (position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void flushBuffer() throws IOException {
+        checksum.update(buffer, 0, position);
+        out.write(buffer, 0, position);
+        position = 0;
+    }
+}
@@ -2,68 +2,22 @@ package converter;
 
 import model.*;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
-
+/**
+ * Converts single rows with a codec per thread, so journal records reuse its buffers.
+ */
 public class TaskConverter {
 
+    private static final ThreadLocal<TaskCsvCodec> CODEC = ThreadLocal.withInitial(TaskCsvCodec::new);
+
     public static String toString(Task task) {
-        return task.getId() + "," + task.getType() + "," + task.getName() + "," + task.getStatus() + "," +
-                task.getDescription() + "," + null + "," + task.getStartDateTime() + "," + task.getDuration();
+        return CODEC.get().encode(task);
     }
 
     public static String toString(SubTask subTask) {
-
-        return subTask.getId() + "," + subTask.getType() + "," + subTask.getName() + "," +
-                subTask.getStatus() + "," + subTask.getDescription() + "," + subTask.getEpicId() +
-                "," + subTask.getStartDateTime() + "," + subTask.getDuration();
+        return CODEC.get().encode(subTask);
     }
 
-
     public static Task fromString(String line) {
-
-        Task task = null;
-
-        String[] fields = line.split(",");
-
-        int id = Integer.parseInt(fields[0]);
-        TaskType type = TaskType.valueOf(fields[1]);
-        String name = fields[2];
-        Status status = Status.valueOf(fields[3]);
-        String description = fields[4];
-
-
-        String startDateTime = fields[6];
-        LocalDateTime start;
-        if (startDateTime.equals("null")) {
-            start = null;
-        } else {
-            start = LocalDateTime.parse(startDateTime);
-        }
-
-        String durationString = fields[7];
-        Duration duration;
-        if (durationString.equals("null")) {
-            duration = null;
-        } else {
-            duration = Duration.parse(fields[7]);
-        }
-
-
-        switch (type) {
-            case TASK:
-                task = new Task(id, name, status, description, start, duration);
-                break;
-
-            case EPIC:
-                task = new Epic(id, name, status, description, start, duration);
-                break;
-
-            case SUBTASK:
-                Integer epicId = Integer.parseInt(fields[5]);
-                task = new SubTask(id, name, status, description, epicId, start, duration);
-                break;
-        }
-        return task;
+        return CODEC.get().decode(line);
     }
 }
@@ -0,0 +1,468 @@
+package converter;
+
+import model.Epic;
+import model.Status;
+import model.SubTask;
+import model.Task;
+import model.TaskType;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Reads and writes task rows of the CSV snapshot without splitting lines or building rows by concatenation.
+ * Fields are parsed in place from any {@link CharSequence} range, and rows are written into a reusable buffer.
+ * Names and descriptions that contain separators, quotes, backslashes or line breaks, or that are literally
+ * "null", are quoted, and inside the quotes a backslash escapes quotes ({@code \"}), backslashes ({@code \\})
+ * and line breaks ({@code \n}, {@code \r}), so that every record stays on one physical line. This is not
+ * RFC 4180, which doubles quotes and keeps line breaks; a doubled quote is still read as a quote for rows
+ * written by earlier versions. An unquoted {@code null} stands for a missing value, and a row must have
+ * exactly the eight fields of the header.
+ * A codec keeps its buffers between calls and must not be shared between threads.
+ */
+public class TaskCsvCodec {
+
+    private static final String NULL = "null";
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+    private static final int NANOS_PER_SECOND = 1_000_000_000;
+
+    private final StringBuilder row = new StringBuilder(128);
+    private final StringBuilder text = new StringBuilder(64);
+    private char[] chars = new char[128];
+    private int position;
+    private int rowStart;
+
+    public String encode(Task task) {
+        row.setLength(0);
+        encode(task, row);
+        return row.toString();
+    }
+
+    /**
+     * Writes the row of the task followed by a line feed.
+     */
+    public void write(Task task, Writer writer) throws IOException {
+        row.setLength(0);
+        encode(task, row);
+        row.append('\n');
+        int length = row.length();
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+        row.getChars(0, length, chars, 0);
+        writer.write(chars, 0, length);
+    }
+
+    public void encode(Task task, StringBuilder out) {
+        out.append(task.getId().intValue()).append(',')
+                .append(task.getType().name()).append(',');
+        appendText(out, task.getName());
+        out.append(',').append(task.getStatus() == null ? NULL : task.getStatus().name()).append(',');
+        appendText(out, task.getDescription());
+        out.append(',');
+        if (task instanceof SubTask subTask && subTask.getEpicId() != null) {
+            out.append(subTask.getEpicId().intValue());
+        } else {
+            out.append(NULL);
+        }
+        out.append(',');
+        appendDateTime(out, task.getStartDateTime());
+        out.append(',');
+        appendDuration(out, task.getDuration());
+    }
+
+    public Task decode(CharSequence source) {
+        return decode(source, 0, source.length());
+    }
+
+    public Task decode(CharSequence source, int start, int end) {
+        position = start;
+        rowStart = start;
+
+        int id = parseInt(source, fieldEnd(source, end), end);
+        int typeEnd = fieldEnd(source, end);
+        TaskType type = TYPES[parseEnum(source, typeEnd, TYPES)];
+        String name = parseText(source, end);
+        int statusEnd = fieldEnd(source, end);
+        Status status = isNull(source, position, statusEnd)
+                ? skip(statusEnd, end, null)
+                : STATUSES[parseEnum(source, statusEnd, STATUSES)];
+        String description = parseText(source, end);
+        int epicIdEnd = fieldEnd(source, end);
+        Integer epicId = isNull(source, position, epicIdEnd) ? skip(epicIdEnd, end, null)
+                : Integer.valueOf(parseInt(source, epicIdEnd, end));
+        LocalDateTime startDateTime = parseDateTime(source, fieldEnd(source, end), end);
+        Duration duration = parseDuration(source, fieldEnd(source, end), end);
+        if (position <= end) {
+            throw new IllegalArgumentException("Unexpected field in: " + source.subSequence(start, end));
+        }
+
+        switch (type) {
+            case EPIC:
+                return new Epic(id, name, status, description, startDateTime, duration);
+            case SUBTASK:
+                if (epicId == null) {
+                    throw new IllegalArgumentException("Subtask without epic id: " + id);
+                }
+                return new SubTask(id, name, status, description, epicId, startDateTime, duration);
+            default:
+                return new Task(id, name, status, description, startDateTime, duration);
+        }
+    }
+
+    private void appendText(StringBuilder out, String value) {
+        if (value == null) {
+            out.append(NULL);
+            return;
+        }
+        if (!needsQuoting(value)) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                default:
+                    out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    private static boolean needsQuoting(String value) {
+        if (value.equals(NULL)) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\\' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void appendDateTime(StringBuilder out, LocalDateTime dateTime) {
+        if (dateTime == null) {
+            out.append(NULL);
+            return;
+        }
+        int year = dateTime.getYear();
+        if (year < 0 || year > 9999) {
+            out.append(dateTime);
+            return;
+        }
+        appendDigits(out, year, 4);
+        out.append('-');
+        appendDigits(out, dateTime.getMonthValue(), 2);
+        out.append('-');
+        appendDigits(out, dateTime.getDayOfMonth(), 2);
+        out.append('T');
+        appendDigits(out, dateTime.getHour(), 2);
+        out.append(':');
+        appendDigits(out, dateTime.getMinute(), 2);
+        int second = dateTime.getSecond();
+        int nano = dateTime.getNano();
+        if (second > 0 || nano > 0) {
+            out.append(':');
+            appendDigits(out, second, 2);
+            if (nano > 0) {
+                out.append('.');
+                if (nano % 1_000_000 == 0) {
+                    appendDigits(out, nano / 1_000_000, 3);
+                } else if (nano % 1000 == 0) {
+                    appendDigits(out, nano / 1000, 6);
+                } else {
+                    appendDigits(out, nano, 9);
+                }
+            }
+        }
+    }
+
+    private static void appendDigits(StringBuilder out, int value, int width) {
+        for (int divisor = pow10(width - 1); divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    private static int pow10(int exponent) {
+        int value = 1;
+        for (int i = 0; i < exponent; i++) {
+            value *= 10;
+        }
+        return value;
+    }
+
+    /**
+     * Same text as {@link Duration#toString()}.
+     */
+    private static void appendDuration(StringBuilder out, Duration duration) {
+        if (duration == null) {
+            out.append(NULL);
+            return;
+        }
+        if (duration.isZero()) {
+            out.append("PT0S");
+            return;
+        }
+        long seconds = duration.getSeconds();
+        int nanos = duration.getNano();
+        long hours = seconds / 3600;
+        int minutes = (int) (seconds % 3600 / 60);
+        int secs = (int) (seconds % 60);
+        int start = out.length();
+        out.append("PT");
+        if (hours != 0) {
+            out.append(hours).append('H');
+        }
+        if (minutes != 0) {
+            out.append(minutes).append('M');
+        }
+        if (secs == 0 && nanos == 0 && out.length() - start > 2) {
+            return;
+        }
+        if (secs < 0 && nanos > 0) {
+            if (secs == -1) {
+                out.append("-0");
+            } else {
+                out.append(secs + 1);
+            }
+        } else {
+            out.append(secs);
+        }
+        if (nanos > 0) {
+            int point = out.length();
+            if (secs < 0) {
+                out.append(2L * NANOS_PER_SECOND - nanos);
+            } else {
+                out.append(nanos + (long) NANOS_PER_SECOND);
+            }
+            while (out.charAt(out.length() - 1) == '0') {
+                out.setLength(out.length() - 1);
+            }
+            out.setCharAt(point, '.');
+        }
+        out.append('S');
+    }
+
+    /**
+     * Returns the end of the unquoted field at the current position.
+     */
+    private int fieldEnd(CharSequence source, int end) {
+        if (position > end) {
+            throw new IllegalArgumentException("Missing field in: " + source.subSequence(rowStart, end));
+        }
+        int i = position;
+        while (i < end && source.charAt(i) != ',') {
+            i++;
+        }
+        return i;
+    }
+
+    private <T> T skip(int fieldEnd, int end, T value) {
+        position = fieldEnd + 1;
+        return value;
+    }
+
+    private int parseInt(CharSequence source, int fieldEnd, int end) {
+        int i = position;
+        boolean negative = i < fieldEnd && source.charAt(i) == '-';
+        if (negative) {
+            i++;
+        }
+        if (i == fieldEnd) {
+            throw new NumberFormatException("Empty number field");
+        }
+        int value = 0;
+        for (; i < fieldEnd; i++) {
+            int digit = source.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Not a number: " + source.subSequence(position, fieldEnd));
+            }
+            value = Math.addExact(Math.multiplyExact(value, 10), digit);
+        }
+        position = fieldEnd + 1;
+        return negative ? -value : value;
+    }
+
+    private <E extends Enum<E>> int parseEnum(CharSequence source, int fieldEnd, E[] values) {
+        for (E value : values) {
+            if (regionEquals(source, position, fieldEnd, value.name())) {
+                position = fieldEnd + 1;
+                return value.ordinal();
+            }
+        }
+        throw new IllegalArgumentException("Unknown constant: " + source.subSequence(position, fieldEnd));
+    }
+
+    private String parseText(CharSequence source, int end) {
+        if (position < end && source.charAt(position) == '"') {
+            return parseQuoted(source, end);
+        }
+        int fieldEnd = fieldEnd(source, end);
+        String value = isNull(source, position, fieldEnd) ? null
+                : text.delete(0, text.length()).append(source, position, fieldEnd).toString();
+        position = fieldEnd + 1;
+        return value;
+    }
+
+    private String parseQuoted(CharSequence source, int end) {
+        text.setLength(0);
+        int i = position + 1;
+        while (true) {
+            if (i >= end) {
+                throw new IllegalArgumentException("Unterminated quoted field");
+            }
+            char c = source.charAt(i);
+            if (c == '"') {
+                if (i + 1 < end && source.charAt(i + 1) == '"') {
+                    text.append('"');
+                    i += 2;
+                    continue;
+                }
+                i++;
+                break;
+            }
+            if (c == '\\' && i + 1 < end) {
+                char escaped = source.charAt(i + 1);
+                text.append(escaped == 'n' ? '\n' : escaped == 'r' ? '\r' : escaped);
+                i += 2;
+                continue;
+            }
+            text.append(c);
+            i++;
+        }
+        if (i < end && source.charAt(i) != ',') {
+            throw new IllegalArgumentException("Unexpected character after quoted field");
+        }
+        position = i + 1;
+        return text.toString();
+    }
+
+    private LocalDateTime parseDateTime(CharSequence source, int fieldEnd, int end) {
+        int start = position;
+        position = fieldEnd + 1;
+        if (isNull(source, start, fieldEnd)) {
+            return null;
+        }
+        int length = fieldEnd - start;
+        if (length < 16 || source.charAt(start + 4) != '-' || source.charAt(start + 7) != '-'
+                || source.charAt(start + 10) != 'T' || source.charAt(start + 13) != ':') {
+            return LocalDateTime.parse(source.subSequence(start, fieldEnd));
+        }
+        int second = 0;
+        int nano = 0;
+        if (length > 16) {
+            if (length < 19 || source.charAt(start + 16) != ':') {
+                return LocalDateTime.parse(source.subSequence(start, fieldEnd));
+            }
+            second = digits(source, start + 17, start + 19);
+            if (length > 19) {
+                if (source.charAt(start + 19) != '.' || length > 29) {
+                    return LocalDateTime.parse(source.subSequence(start, fieldEnd));
+                }
+                nano = digits(source, start + 20, fieldEnd) * pow10(29 - length);
+            }
+        }
+        return LocalDateTime.of(digits(source, start, start + 4), digits(source, start + 5, start + 7),
+                digits(source, start + 8, start + 10), digits(source, start + 11, start + 13),
+                digits(source, start + 14, start + 16), second, nano);
+    }
+
+    private Duration parseDuration(CharSequence source, int fieldEnd, int end) {
+        int start = position;
+        position = fieldEnd + 1;
+        if (isNull(source, start, fieldEnd)) {
+            return null;
+        }
+        if (fieldEnd - start < 4 || source.charAt(start) != 'P' || source.charAt(start + 1) != 'T') {
+            return Duration.parse(source.subSequence(start, fieldEnd));
+        }
+        long seconds = 0;
+        long nanos = 0;
+        int i = start + 2;
+        while (i < fieldEnd) {
+            boolean negative = source.charAt(i) == '-';
+            if (negative) {
+                i++;
+            }
+            int digitsStart = i;
+            long whole = 0;
+            while (i < fieldEnd && Character.isDigit(source.charAt(i))) {
+                whole = Math.addExact(Math.multiplyExact(whole, 10), source.charAt(i) - '0');
+                i++;
+            }
+            long fraction = 0;
+            if (i < fieldEnd && source.charAt(i) == '.') {
+                int fractionStart = ++i;
+                while (i < fieldEnd && Character.isDigit(source.charAt(i))) {
+                    i++;
+                }
+                if (i - fractionStart > 9) {
+                    return Duration.parse(source.subSequence(start, fieldEnd));
+                }
+                fraction = i == fractionStart ? 0 : digits(source, fractionStart, i) * pow10(9 - (i - fractionStart));
+            }
+            if (i == digitsStart || i >= fieldEnd) {
+                return Duration.parse(source.subSequence(start, fieldEnd));
+            }
+            char unit = source.charAt(i++);
+            long sign = negative ? -1 : 1;
+            if (unit == 'H' && fraction == 0) {
+                seconds = Math.addExact(seconds, Math.multiplyExact(sign * whole, 3600));
+            } else if (unit == 'M' && fraction == 0) {
+                seconds = Math.addExact(seconds, Math.multiplyExact(sign * whole, 60));
+            } else if (unit == 'S' && i == fieldEnd) {
+                seconds = Math.addExact(seconds, sign * whole);
+                nanos = sign * fraction;
+            } else {
+                return Duration.parse(source.subSequence(start, fieldEnd));
+            }
+        }
+        return Duration.ofSeconds(seconds, nanos);
+    }
+
+    private static int digits(CharSequence source, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = source.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Not a number: " + source.subSequence(start, end));
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static boolean isNull(CharSequence source, int start, int end) {
+        return regionEquals(source, start, end, NULL);
+    }
+
+    private static boolean regionEquals(CharSequence source, int start, int end, String value) {
+        if (end - start != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (source.charAt(start + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,7 +1,7 @@
 package manager;
 
 import manager.history.HistoryManager;
-import manager.history.InMemoryHistoryManager;
+import manager.history.ConcurrentHistoryManager;
 import manager.task.FileBackedTaskManager;
 import manager.task.TaskManager;
 
@@ -10,9 +10,14 @@ import java.io.File;
 public class Managers {
 
     private static final File defaultFile = new File("resources/", "task.csv");
+    private static final int DEFAULT_HISTORY_CAPACITY = 10_000;
 
     public static HistoryManager getDefaultHistory() {
-        return new InMemoryHistoryManager();
+        return getDefaultHistory(DEFAULT_HISTORY_CAPACITY);
+    }
+
+    public static HistoryManager getDefaultHistory(int capacity) {
+        return new ConcurrentHistoryManager(capacity);
     }
 
     public static TaskManager getDefaults() {
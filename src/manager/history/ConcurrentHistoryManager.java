@@ -0,0 +1,104 @@
+package manager.history;
+
+import model.Task;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * History for concurrent access without a global lock.
+ * Every view gets the next sequence number: the entry of a task is replaced in a concurrent map keyed by id,
+ * and its position moves to the tail of a skip list ordered by sequence. Views of different tasks do not
+ * block each other; views of the same task are serialized by the map entry.
+ * When the capacity is exceeded, the head of the skip list, the least recently viewed task, is evicted.
+ */
+public class ConcurrentHistoryManager implements HistoryManager {
+
+    private static class Entry {
+        final long sequence;
+        final Task task;
+
+        Entry(long sequence, Task task) {
+            this.sequence = sequence;
+            this.task = task;
+        }
+    }
+
+    private final ConcurrentHashMap<Integer, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, Task> order = new ConcurrentSkipListMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int capacity;
+
+    public ConcurrentHistoryManager() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public ConcurrentHistoryManager(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("History capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void addTaskInHistory(Task task) {
+        entries.compute(task.getId(), (id, previous) -> {
+            if (previous != null) {
+                order.remove(previous.sequence);
+            } else {
+                size.incrementAndGet();
+            }
+            Entry entry = new Entry(sequence.incrementAndGet(), task);
+            order.put(entry.sequence, task);
+            return entry;
+        });
+        while (size.get() > capacity) {
+            evictOldest();
+        }
+    }
+
+    private void evictOldest() {
+        Map.Entry<Long, Task> oldest = order.firstEntry();
+        if (oldest == null) {
+            return;
+        }
+        entries.computeIfPresent(oldest.getValue().getId(), (id, entry) -> {
+            if (entry.sequence != oldest.getKey()) {
+                return entry;
+            }
+            order.remove(entry.sequence);
+            size.decrementAndGet();
+            return null;
+        });
+    }
+
+    /**
+     * Returns a weakly consistent snapshot; a task moved while the snapshot is taken appears once,
+     * at its latest position.
+     */
+    @Override
+    public List<Task> getHistory() {
+        LinkedHashMap<Integer, Task> latest = new LinkedHashMap<>();
+        for (Task task : order.values()) {
+            latest.remove(task.getId());
+            latest.put(task.getId(), task);
+        }
+        return new ArrayList<>(latest.values());
+    }
+
+    @Override
+    public void remove(int id) {
+        entries.computeIfPresent(id, (key, previous) -> {
+            order.remove(previous.sequence);
+            size.decrementAndGet();
+            return null;
+        });
+    }
+}
@@ -21,22 +21,39 @@ public class InMemoryHistoryManager implements HistoryManager {
     }
 
     private final HashMap<Integer, Node> history = new HashMap<>();
+    private final int capacity;
     private Node first;
     private Node last;
 
+    public InMemoryHistoryManager() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Keeps at most {@code capacity} tasks, evicting the least recently viewed one.
+     */
+    public InMemoryHistoryManager(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("History capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+    }
 
     @Override
-    public void addTaskInHistory(Task task) {
+    public synchronized void addTaskInHistory(Task task) {
         Node node = history.get(task.getId());
         if (node != null) {
             removeNode(node);
         }
         linkLast(task);
         history.put(task.getId(), last);
+        if (history.size() > capacity) {
+            removeNode(first);
+        }
     }
 
     @Override
-    public List<Task> getHistory() {
+    public synchronized List<Task> getHistory() {
         List<Task> historyList = new ArrayList<>();
         Node current = first;
         while (current != null) {
@@ -47,7 +64,7 @@ public class InMemoryHistoryManager implements HistoryManager {
     }
 
     @Override
-    public void remove(int id) {
+    public synchronized void remove(int id) {
         Node node = history.get(id);
         if (node != null) {
             removeNode(node);
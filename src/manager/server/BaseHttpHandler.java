@@ -1,25 +1,169 @@
 package manager.server;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
 import com.sun.net.httpserver.HttpExchange;
+import manager.history.HistoryManager;
+import manager.task.Page;
 import manager.task.TaskManager;
+import model.Epic;
+import model.Status;
+import model.SubTask;
+import model.Task;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 public class BaseHttpHandler {
 
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+    private static final int STREAM_BUFFER_SIZE = 8192;
+    private static final String PRETTY_INDENT = "  ";
+
     protected final TaskManager manager;
     protected final Gson gson = HttpTaskServer.getGson();
+    private final HistorySessions sessions;
+    private final ServerSettings settings;
 
     protected BaseHttpHandler(TaskManager manager) {
+        this(manager, null, new ServerSettings());
+    }
+
+    BaseHttpHandler(TaskManager manager, HistorySessions sessions, ServerSettings settings) {
         this.manager = manager;
+        this.sessions = sessions;
+        this.settings = settings;
+    }
+
+    protected HistoryManager getSessionHistory(HttpExchange exchange) {
+        return sessions == null ? null : sessions.find(exchange);
+    }
+
+    protected Task getTaskById(HttpExchange exchange, Integer id) {
+        HistoryManager history = getSessionHistory(exchange);
+        return history == null ? manager.getTaskById(id) : manager.getTaskById(id, history);
     }
 
-    protected String readRequestBody(HttpExchange exchange) throws IOException {
-        InputStream inputStream = exchange.getRequestBody();
-        return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+    protected SubTask getSubTaskById(HttpExchange exchange, Integer id) {
+        HistoryManager history = getSessionHistory(exchange);
+        return history == null ? manager.getSubTaskById(id) : manager.getSubTaskById(id, history);
+    }
+
+    protected Epic getEpicById(HttpExchange exchange, Integer id) {
+        HistoryManager history = getSessionHistory(exchange);
+        return history == null ? manager.getEpicById(id) : manager.getEpicById(id, history);
+    }
+
+    protected Map<String, String> getQueryParameters(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    /**
+     * Parses an ISO-8601 query value; an absent or empty value is null.
+     */
+    protected static LocalDateTime parseDateTime(String value) {
+        return value == null || value.isEmpty() ? null : LocalDateTime.parse(value);
+    }
+
+    /**
+     * Start of a free-slot search: the from parameter, or the current minute when it is absent.
+     */
+    protected static LocalDateTime getSearchStart(Map<String, String> query) {
+        LocalDateTime from = parseDateTime(query.get("from"));
+        return from == null ? LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES) : from;
+    }
+
+    /**
+     * A create with ?autoPlace=true is moved to the earliest free slot in [from, to) instead of failing on conflicts.
+     */
+    protected boolean isAutoPlaceRequested(HttpExchange exchange) {
+        return Boolean.parseBoolean(getQueryParameters(exchange).get("autoPlace"));
+    }
+
+    /**
+     * Pages of a listing restricted to a status, or unrestricted when the status is null.
+     */
+    protected interface PageSource {
+        Page<? extends Task> page(Status status, Integer cursor, int limit);
+    }
+
+    /**
+     * Writes the whole list, or a single page when the request has a limit or cursor parameter.
+     * A status parameter restricts either to tasks with that status.
+     */
+    protected void writeList(HttpExchange exchange, Function<Status, List<? extends Task>> all, PageSource pages)
+            throws IOException {
+        Map<String, String> query = getQueryParameters(exchange);
+        Status status = null;
+        String statusValue = query.get("status");
+        if (statusValue != null && !statusValue.isEmpty()) {
+            try {
+                status = Status.valueOf(statusValue.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                writeResponse(exchange, gson.toJson("Unknown status: " + statusValue), 400);
+                return;
+            }
+        }
+        if (!query.containsKey("limit") && !query.containsKey("cursor")) {
+            writeJsonStream(exchange, all.apply(status), 200);
+            return;
+        }
+
+        Integer cursor;
+        int limit;
+        try {
+            String cursorValue = query.get("cursor");
+            cursor = cursorValue == null || cursorValue.isEmpty() ? null : Integer.parseInt(cursorValue);
+            limit = query.containsKey("limit") ? Integer.parseInt(query.get("limit")) : DEFAULT_PAGE_SIZE;
+        } catch (NumberFormatException e) {
+            writeResponse(exchange, gson.toJson("Invalid cursor or limit"), 400);
+            return;
+        }
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            writeResponse(exchange, gson.toJson("Limit must be between 1 and " + MAX_PAGE_SIZE), 400);
+            return;
+        }
+        writeJsonStream(exchange, pages.page(status, cursor, limit), 200);
+    }
+
+    /**
+     * Parses the request body into the given type; returns null for an empty body. A body the model rejects, such as
+     * an epic listing a subtask id twice, is reported as a JsonParseException like malformed JSON.
+     */
+    protected <T> T readEntity(HttpExchange exchange, Class<T> type) throws IOException {
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        try {
+            return gson.fromJson(new String(body, StandardCharsets.UTF_8), type);
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException(e.getMessage(), e);
+        }
     }
 
     protected void writeResponse(HttpExchange h, String responseBody, int responseCode) throws IOException {
@@ -27,11 +171,80 @@ public class BaseHttpHandler {
             if (responseCode == 204) {
                 h.sendResponseHeaders(responseCode, -1);
             } else {
+                if (isPrettyRequested(h)) {
+                    responseBody = prettyPrint(responseBody);
+                }
                 byte[] resp = responseBody.getBytes(StandardCharsets.UTF_8);
                 h.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
-                h.sendResponseHeaders(responseCode, resp.length);
-                h.getResponseBody().write(resp);
+                ContentEncoding encoding = negotiateEncoding(h);
+                if (encoding == null || resp.length < settings.getCompressionThreshold()) {
+                    h.sendResponseHeaders(responseCode, resp.length);
+                    h.getResponseBody().write(resp);
+                } else {
+                    try (OutputStream out = new EncodedResponseStream(h, responseCode, encoding, 0)) {
+                        out.write(resp);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Serializes the body straight into the response, so a large list is never held as a string or byte array.
+     * Bodies above the compression threshold are sent chunked and compressed when the client accepts it.
+     */
+    protected void writeJsonStream(HttpExchange h, Object body, int responseCode) throws IOException {
+        try (h) {
+            h.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
+            OutputStream out = new EncodedResponseStream(h, responseCode, negotiateEncoding(h),
+                    settings.getCompressionThreshold());
+            JsonWriter jsonWriter = gson.newJsonWriter(new BufferedWriter(
+                    new OutputStreamWriter(out, StandardCharsets.UTF_8), STREAM_BUFFER_SIZE));
+            if (isPrettyRequested(h)) {
+                jsonWriter.setIndent(PRETTY_INDENT);
             }
+            gson.toJson(body, body.getClass(), jsonWriter);
+            jsonWriter.close();
+        }
+    }
+
+    /**
+     * Responses are compact unless the client asks for ?pretty=true or sends Accept: application/json;pretty=true.
+     */
+    protected boolean isPrettyRequested(HttpExchange exchange) {
+        String pretty = getQueryParameters(exchange).get("pretty");
+        if (pretty != null) {
+            return pretty.isEmpty() || Boolean.parseBoolean(pretty);
+        }
+        List<String> accept = exchange.getRequestHeaders().get("Accept");
+        if (accept == null) {
+            return false;
+        }
+        for (String value : accept) {
+            if (value.replace(" ", "").toLowerCase().contains("pretty=true")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ContentEncoding negotiateEncoding(HttpExchange exchange) {
+        if (!settings.isCompressionEnabled()) {
+            return null;
+        }
+        return ContentEncoding.negotiate(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+    }
+
+    private String prettyPrint(String json) throws IOException {
+        try {
+            JsonElement element = JsonParser.parseString(json);
+            StringWriter writer = new StringWriter(json.length() * 2);
+            JsonWriter jsonWriter = gson.newJsonWriter(writer);
+            jsonWriter.setIndent(PRETTY_INDENT);
+            gson.toJson(element, jsonWriter);
+            return writer.toString();
+        } catch (JsonParseException e) {
+            return json;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,143 @@
+package manager.server;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import exception.NotFoundException;
+import exception.ValidationException;
+import manager.task.BatchOperation;
+import manager.task.TaskManager;
+import model.Epic;
+import model.SubTask;
+import model.Task;
+import model.TaskType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * POST /batch with a JSON array of operations, applied all or nothing:
+ * {"action": "CREATE" | "UPDATE", "type": "TASK" | "SUBTASK" | "EPIC", "entity": {...}} or
+ * {"action": "DELETE", "type": ..., "id": 1}.
+ */
+public class BatchHandler extends BaseHttpHandler implements HttpHandler {
+
+    private static final Router ROUTES = new Router();
+
+    static {
+        ROUTES.add("POST", "/batch", Endpoint.POST_BATCH);
+    }
+
+    private final int maxOperations;
+
+    public BatchHandler(TaskManager manager) {
+        this(manager, new ServerSettings());
+    }
+
+    BatchHandler(TaskManager manager, ServerSettings settings) {
+        super(manager, null, settings);
+        this.maxOperations = settings.getMaxBatchOperations();
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            try {
+                Route route = ROUTES.match(exchange.getRequestMethod(), exchange.getRequestURI().getPath());
+                if (route.getEndpoint() != Endpoint.POST_BATCH) {
+                    String message = "Non-existent request";
+                    writeResponse(exchange, gson.toJson(message), 400);
+                    return;
+                }
+                handlePostBatch(exchange);
+            } catch (Exception e) {
+                e.printStackTrace();
+                String message = "Unexpected error";
+                writeResponse(exchange, gson.toJson(message), 500);
+            }
+        }
+    }
+
+    protected void handlePostBatch(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            List<BatchOperation> operations;
+            try {
+                operations = parseOperations(exchange);
+            } catch (JsonParseException | IllegalArgumentException | IllegalStateException e) {
+                writeResponse(exchange, gson.toJson("Invalid batch: " + e.getMessage()), 400);
+                return;
+            }
+            if (operations.size() > maxOperations) {
+                writeResponse(exchange, gson.toJson("Batch exceeds " + maxOperations + " operations"), 413);
+                return;
+            }
+            try {
+                writeJsonStream(exchange, manager.applyBatch(operations), 200);
+            } catch (NotFoundException e) {
+                writeResponse(exchange, gson.toJson(e.getMessage()), 404);
+            } catch (ValidationException e) {
+                writeResponse(exchange, gson.toJson(e.getMessage()), 406);
+            }
+        }
+    }
+
+    private List<BatchOperation> parseOperations(HttpExchange exchange) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        JsonArray array = JsonParser.parseString(body).getAsJsonArray();
+        List<BatchOperation> operations = new ArrayList<>(array.size());
+        for (JsonElement element : array) {
+            if (!element.isJsonObject()) {
+                throw new JsonParseException("Operation is not an object: " + element);
+            }
+            JsonObject operation = element.getAsJsonObject();
+            BatchOperation.Action action = BatchOperation.Action.valueOf(getField(operation, "action").getAsString());
+            TaskType type = TaskType.valueOf(getField(operation, "type").getAsString());
+            if (action == BatchOperation.Action.DELETE) {
+                operations.add(BatchOperation.delete(type, getField(operation, "id").getAsInt()));
+                continue;
+            }
+            Task entity = gson.fromJson(operation.get("entity"), entityClass(type));
+            if (entity == null) {
+                throw new IllegalArgumentException("Missing entity in " + action + " operation");
+            }
+            if (action == BatchOperation.Action.CREATE) {
+                if (entity.getId() != null) {
+                    throw new IllegalArgumentException("Created entity must not have an id");
+                }
+                operations.add(BatchOperation.create(entity));
+            } else {
+                if (entity.getId() == null) {
+                    throw new IllegalArgumentException("Updated entity must have an id");
+                }
+                operations.add(BatchOperation.update(entity));
+            }
+        }
+        return operations;
+    }
+
+    private static JsonPrimitive getField(JsonObject operation, String name) {
+        JsonElement value = operation.get(name);
+        if (value == null || !value.isJsonPrimitive()) {
+            throw new JsonParseException("Missing or invalid \"" + name + "\" in operation: " + operation);
+        }
+        return value.getAsJsonPrimitive();
+    }
+
+    private static Class<? extends Task> entityClass(TaskType type) {
+        switch (type) {
+            case EPIC:
+                return Epic.class;
+            case SUBTASK:
+                return SubTask.class;
+            default:
+                return Task.class;
+        }
+    }
+}
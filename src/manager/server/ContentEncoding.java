@@ -0,0 +1,81 @@
+package manager.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response compression negotiated from the Accept-Encoding request header.
+ */
+enum ContentEncoding {
+    GZIP("gzip"),
+    DEFLATE("deflate");
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String token;
+
+    ContentEncoding(String token) {
+        this.token = token;
+    }
+
+    String getToken() {
+        return token;
+    }
+
+    OutputStream wrap(OutputStream out) throws IOException {
+        if (this == GZIP) {
+            return new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        return new DeflaterOutputStream(out, new Deflater(), BUFFER_SIZE, true) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    def.end();
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns the preferred encoding the client accepts, gzip before deflate, or null for identity.
+     */
+    static ContentEncoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        ContentEncoding chosen = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String name = tokens[0].trim();
+            if (isRejected(tokens)) {
+                continue;
+            }
+            if (GZIP.token.equalsIgnoreCase(name) || "*".equals(name)) {
+                return GZIP;
+            }
+            if (DEFLATE.token.equalsIgnoreCase(name)) {
+                chosen = DEFLATE;
+            }
+        }
+        return chosen;
+    }
+
+    private static boolean isRejected(String[] tokens) {
+        for (int i = 1; i < tokens.length; i++) {
+            String parameter = tokens[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) <= 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,73 @@
+package manager.server;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Response body whose headers are sent once its size is known to be below or above the compression threshold.
+ * Smaller bodies go out uncompressed with a Content-Length; larger ones are chunked and compressed with the
+ * negotiated encoding, if any.
+ */
+class EncodedResponseStream extends OutputStream {
+
+    private final HttpExchange exchange;
+    private final int responseCode;
+    private final ContentEncoding encoding;
+    private final byte[] head;
+    private int headLength;
+    private OutputStream out;
+
+    EncodedResponseStream(HttpExchange exchange, int responseCode, ContentEncoding encoding, int threshold) {
+        this.exchange = exchange;
+        this.responseCode = responseCode;
+        this.encoding = encoding;
+        this.head = new byte[threshold];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (out == null) {
+            if (headLength + len <= head.length) {
+                System.arraycopy(b, off, head, headLength, len);
+                headLength += len;
+                return;
+            }
+            startChunked();
+        }
+        out.write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out == null) {
+            exchange.sendResponseHeaders(responseCode, headLength == 0 ? -1 : headLength);
+            out = exchange.getResponseBody();
+            out.write(head, 0, headLength);
+        }
+        out.close();
+    }
+
+    private void startChunked() throws IOException {
+        if (encoding != null) {
+            exchange.getResponseHeaders().set("Content-Encoding", encoding.getToken());
+            exchange.getResponseHeaders().add("Vary", "Accept-Encoding");
+        }
+        exchange.sendResponseHeaders(responseCode, 0);
+        out = encoding == null ? exchange.getResponseBody() : encoding.wrap(exchange.getResponseBody());
+        out.write(head, 0, headLength);
+    }
+}
@@ -4,10 +4,12 @@ public enum Endpoint {
 
     GET_ENTITIES,
     GET_ENTITY_BY_ID,
-    POST_ENTITY_CREATE,
-    POST_ENTITY_UPDATE,
+    POST_ENTITY,
     DELETE_ENTITY_BY_ID,
     GET_EPICS_SUBTASKS,
+    POST_BATCH,
+    GET_FREE_SLOTS,
+    GET_SEARCH_RESULTS,
     UNKNOWN
 
 }
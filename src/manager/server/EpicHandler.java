@@ -1,5 +1,6 @@
 package manager.server;
 
+import com.google.gson.JsonParseException;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import exception.NotFoundException;
@@ -10,50 +11,65 @@ import java.io.IOException;
 
 public class EpicHandler extends BaseHttpHandler implements HttpHandler {
 
+    private static final Router ROUTES = new Router();
+
+    static {
+        ROUTES.add("GET", "/epics", Endpoint.GET_ENTITIES);
+        ROUTES.add("GET", "/epics/{id}", Endpoint.GET_ENTITY_BY_ID);
+        ROUTES.add("GET", "/epics/{id}/subtasks", Endpoint.GET_EPICS_SUBTASKS);
+        ROUTES.add("POST", "/epics", Endpoint.POST_ENTITY);
+        ROUTES.add("DELETE", "/epics/{id}", Endpoint.DELETE_ENTITY_BY_ID);
+    }
+
     public EpicHandler(TaskManager manager) {
         super(manager);
     }
 
+    EpicHandler(TaskManager manager, HistorySessions sessions, ServerSettings settings) {
+        super(manager, sessions, settings);
+    }
+
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         try (exchange) {
             try {
-                String requestBody = readRequestBody(exchange);
-                Endpoint endpoint = getEndpoint(
-                        exchange.getRequestURI().getPath(),
-                        exchange.getRequestMethod(),
-                        requestBody);
+                Route route = ROUTES.match(exchange.getRequestMethod(), exchange.getRequestURI().getPath());
 
-                switch (endpoint) {
+                switch (route.getEndpoint()) {
                     case GET_ENTITIES: {
                         handleGetEntities(exchange);
                         break;
                     }
                     case GET_ENTITY_BY_ID: {
-                        handleGetEntityById(exchange);
-                        break;
-                    }
-                    case POST_ENTITY_CREATE: {
-                        handlePostEntityCreate(exchange, requestBody);
+                        handleGetEntityById(exchange, route.getId());
                         break;
                     }
-                    case POST_ENTITY_UPDATE: {
-                        handlePostEntityUpdate(exchange, requestBody);
+                    case POST_ENTITY: {
+                        Epic epic = readEntity(exchange, Epic.class);
+                        if (epic == null) {
+                            writeResponse(exchange, gson.toJson("Request body is empty"), 400);
+                        } else if (epic.getId() == null) {
+                            handlePostEntityCreate(exchange, epic);
+                        } else {
+                            handlePostEntityUpdate(exchange, epic);
+                        }
                         break;
                     }
                     case DELETE_ENTITY_BY_ID: {
-                        handleDeleteEntityById(exchange);
+                        handleDeleteEntityById(exchange, route.getId());
                         break;
                     }
                     case GET_EPICS_SUBTASKS: {
-                        handleGetEpicsSubtasks(exchange);
+                        handleGetEpicsSubtasks(exchange, route.getId());
                         break;
                     }
-                    case UNKNOWN:
+                    default:
                         String message = "Non-existent request";
                         writeResponse(exchange, gson.toJson(message), 400);
                         break;
                 }
+            } catch (JsonParseException e) {
+                writeResponse(exchange, gson.toJson("Invalid request body"), 400);
             } catch (Exception e) {
                 e.printStackTrace();
                 String message = "Unexpected error";
@@ -66,35 +82,31 @@ public class EpicHandler extends BaseHttpHandler implements HttpHandler {
 
     protected void handleGetEntities(HttpExchange exchange) throws IOException {
         try (exchange) {
-            writeResponse(exchange, gson.toJson(manager.getEpicList()), 200);
+            writeList(exchange,
+                    status -> status == null ? manager.getEpicList() : manager.getEpicsByStatus(status),
+                    manager::getEpicsPage);
         }
     }
 
-    protected void handleGetEntityById(HttpExchange exchange) throws IOException {
+    protected void handleGetEntityById(HttpExchange exchange, Integer id) throws IOException {
         try (exchange) {
-            String[] pathParts = exchange.getRequestURI().getPath().split("/");
-            Integer id = Integer.parseInt(pathParts[2]);
             try {
-                writeResponse(exchange, gson.toJson(manager.getEpicById(id)), 200);
+                writeResponse(exchange, gson.toJson(getEpicById(exchange, id)), 200);
             } catch (NotFoundException e) {
                 writeResponse(exchange, gson.toJson(e.getMessage()), 404);
             }
         }
     }
 
-    protected void handlePostEntityCreate(HttpExchange exchange, String requestBody) throws IOException {
+    protected void handlePostEntityCreate(HttpExchange exchange, Epic epic) throws IOException {
         try (exchange) {
-            Epic epic = gson.fromJson(requestBody, Epic.class);
-
             writeResponse(exchange, gson.toJson(manager.createEpic(epic)), 201);
 
         }
     }
 
-    protected void handlePostEntityUpdate(HttpExchange exchange, String requestBody) throws IOException {
+    protected void handlePostEntityUpdate(HttpExchange exchange, Epic epic) throws IOException {
         try (exchange) {
-            Epic epic = gson.fromJson(requestBody, Epic.class);
-
             manager.updateEpic(epic);
             String message = "Epic successfully updated";
             writeResponse(exchange, gson.toJson(message), 201);
@@ -102,10 +114,8 @@ public class EpicHandler extends BaseHttpHandler implements HttpHandler {
         }
     }
 
-    protected void handleDeleteEntityById(HttpExchange exchange) throws IOException {
+    protected void handleDeleteEntityById(HttpExchange exchange, Integer id) throws IOException {
         try (exchange) {
-            String[] pathParts = exchange.getRequestURI().getPath().split("/");
-            Integer id = Integer.parseInt(pathParts[2]);
             try {
                 manager.deleteEpicById(id);
                 writeResponse(exchange, null, 204);
@@ -116,51 +126,14 @@ public class EpicHandler extends BaseHttpHandler implements HttpHandler {
     }
 
 
-    protected void handleGetEpicsSubtasks(HttpExchange exchange) throws IOException {
+    protected void handleGetEpicsSubtasks(HttpExchange exchange, Integer id) throws IOException {
         try (exchange) {
-            String[] pathParts = exchange.getRequestURI().getPath().split("/");
-            Integer id = Integer.parseInt(pathParts[2]);
             try {
-                Epic epic = manager.getEpicById(id);
-                writeResponse(exchange, gson.toJson(manager.getSubTasksByEpic(epic)), 200);
+                Epic epic = getEpicById(exchange, id);
+                writeJsonStream(exchange, manager.getSubTasksByEpic(epic), 200);
             } catch (NotFoundException e) {
                 writeResponse(exchange, gson.toJson(e.getMessage()), 404);
             }
         }
     }
-
-
-    protected Endpoint getEndpoint(String requestPath, String requestMethod, String requestBody) {
-        String[] pathParts = requestPath.split("/");
-
-        if (requestMethod.equals("GET")) {
-            if (pathParts.length == 2) {
-                return Endpoint.GET_ENTITIES;
-            }
-            if (pathParts.length == 3) {
-                return Endpoint.GET_ENTITY_BY_ID;
-            }
-            if (pathParts.length == 4 && pathParts[3].equals("subtasks")) {
-                return Endpoint.GET_EPICS_SUBTASKS;
-            }
-        }
-
-        if (requestMethod.equals("POST")) {
-
-            Epic epic = gson.fromJson(requestBody, Epic.class);
-            Integer epicId = epic.getId();
-            if (epicId == null) {
-                return Endpoint.POST_ENTITY_CREATE;
-            } else {
-                return Endpoint.POST_ENTITY_UPDATE;
-            }
-        }
-
-        if (requestMethod.equals("DELETE")) {
-            return Endpoint.DELETE_ENTITY_BY_ID;
-        }
-        return Endpoint.UNKNOWN;
-    }
-
-
 }
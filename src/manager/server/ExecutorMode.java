@@ -0,0 +1,7 @@
+package manager.server;
+
+public enum ExecutorMode {
+    VIRTUAL_THREADS,
+    BOUNDED_POOL,
+    SINGLE_THREAD
+}
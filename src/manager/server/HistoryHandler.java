@@ -2,9 +2,12 @@ package manager.server;
 
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import manager.history.HistoryManager;
 import manager.task.TaskManager;
+import model.Task;
 
 import java.io.IOException;
+import java.util.List;
 
 public class HistoryHandler extends BaseHttpHandler implements HttpHandler {
 
@@ -12,10 +15,16 @@ public class HistoryHandler extends BaseHttpHandler implements HttpHandler {
         super(manager);
     }
 
+    HistoryHandler(TaskManager manager, HistorySessions sessions, ServerSettings settings) {
+        super(manager, sessions, settings);
+    }
+
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         try (exchange) {
-            writeResponse(exchange, gson.toJson(manager.getHistory()), 200);
+            HistoryManager history = getSessionHistory(exchange);
+            List<Task> tasks = history == null ? manager.getHistory() : history.getHistory();
+            writeJsonStream(exchange, tasks, 200);
         }
     }
 }
@@ -0,0 +1,110 @@
+package manager.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import manager.history.ConcurrentHistoryManager;
+import manager.history.HistoryManager;
+import manager.task.TaskManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * View histories of the clients that send a session header. Each session gets its own bounded history,
+ * attached to the manager so that deleted tasks leave it. Idle sessions are expired lazily, and once the
+ * number of sessions exceeds the limit the least recently active ones are dropped in a batch.
+ */
+class HistorySessions {
+
+    private static class Session {
+        final HistoryManager history;
+        volatile long lastAccess;
+
+        Session(HistoryManager history, long lastAccess) {
+            this.history = history;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    private final TaskManager manager;
+    private final String header;
+    private final int maxSessions;
+    private final int historyCapacity;
+    private final long idleTimeoutNanos;
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong lastExpiry = new AtomicLong(System.nanoTime());
+
+    HistorySessions(TaskManager manager, ServerSettings settings) {
+        this.manager = manager;
+        this.header = settings.getSessionHeader();
+        this.maxSessions = settings.getMaxSessions();
+        this.historyCapacity = settings.getSessionHistoryCapacity();
+        this.idleTimeoutNanos = settings.getSessionIdleTimeout().toNanos();
+    }
+
+    /**
+     * Returns the history of the session named in the request header, or null when there is none.
+     */
+    HistoryManager find(HttpExchange exchange) {
+        String sessionId = exchange.getRequestHeaders().getFirst(header);
+        if (sessionId == null || sessionId.isBlank()) {
+            return null;
+        }
+        return get(sessionId);
+    }
+
+    HistoryManager get(String sessionId) {
+        long now = System.nanoTime();
+        Session session = sessions.compute(sessionId, (id, current) -> {
+            if (current != null && now - current.lastAccess <= idleTimeoutNanos) {
+                current.lastAccess = now;
+                return current;
+            }
+            if (current != null) {
+                manager.detachHistory(current.history);
+            }
+            Session created = new Session(new ConcurrentHistoryManager(historyCapacity), now);
+            manager.attachHistory(created.history);
+            return created;
+        });
+
+        long previousExpiry = lastExpiry.get();
+        if (sessions.size() > maxSessions
+                || now - previousExpiry > idleTimeoutNanos && lastExpiry.compareAndSet(previousExpiry, now)) {
+            expire(now);
+        }
+        return session.history;
+    }
+
+    int size() {
+        return sessions.size();
+    }
+
+    private void expire(long now) {
+        for (String sessionId : sessions.keySet()) {
+            sessions.computeIfPresent(sessionId, (id, session) -> {
+                if (now - session.lastAccess <= idleTimeoutNanos) {
+                    return session;
+                }
+                manager.detachHistory(session.history);
+                return null;
+            });
+        }
+        if (sessions.size() <= maxSessions) {
+            return;
+        }
+
+        List<Map.Entry<String, Long>> active = new ArrayList<>(sessions.size());
+        sessions.forEach((id, session) -> active.add(Map.entry(id, session.lastAccess)));
+        active.sort(Map.Entry.comparingByValue());
+        int excess = active.size() - (maxSessions - maxSessions / 16);
+        for (int i = 0; i < excess; i++) {
+            Session evicted = sessions.remove(active.get(i).getKey());
+            if (evicted != null) {
+                manager.detachHistory(evicted.history);
+            }
+        }
+    }
+}
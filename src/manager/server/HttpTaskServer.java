@@ -2,61 +2,110 @@ package manager.server;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.InstanceCreator;
 import com.sun.net.httpserver.HttpServer;
 import converter.DurationAdapter;
 import converter.LocalDateTimeAdapter;
 import manager.Managers;
+import manager.task.FileBackedTaskManager;
 import manager.task.TaskManager;
+import model.Epic;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class HttpTaskServer {
 
-    private static final int PORT = 8080;
-
     private final TaskManager manager;
     private final Gson gson;
     private final HttpServer server;
+    private final ServerSettings settings;
+    private final ExecutorService executor;
 
     public HttpTaskServer(TaskManager manager) {
+        this(manager, new ServerSettings());
+    }
+
+    public HttpTaskServer(TaskManager manager, ServerSettings settings) {
         this.manager = manager;
         this.gson = getGson();
+        this.settings = settings;
         try {
-            server = HttpServer.create(new InetSocketAddress("localhost", PORT), 0);
+            server = HttpServer.create(new InetSocketAddress(settings.getHostname(), settings.getPort()),
+                    settings.getBacklog());
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
-        server.createContext("/tasks", new TaskHandler(manager));
-        server.createContext("/subtasks", new SubTaskHandler(manager));
-        server.createContext("/epics", new EpicHandler(manager));
-        server.createContext("/history", new HistoryHandler(manager));
-        server.createContext("/prioritized", new PrioritizedHandler(manager));
+        executor = createExecutor(settings);
+        server.setExecutor(executor);
+        HistorySessions sessions = new HistorySessions(manager, settings);
+        server.createContext("/tasks", new TaskHandler(manager, sessions, settings));
+        server.createContext("/subtasks", new SubTaskHandler(manager, sessions, settings));
+        server.createContext("/epics", new EpicHandler(manager, sessions, settings));
+        server.createContext("/history", new HistoryHandler(manager, sessions, settings));
+        server.createContext("/prioritized", new PrioritizedHandler(manager, settings));
+        server.createContext("/batch", new BatchHandler(manager, settings));
+        server.createContext("/slots", new SlotHandler(manager, settings));
+        server.createContext("/search", new SearchHandler(manager, settings));
     }
 
     public static void main(String[] args) {
-        HttpTaskServer taskServer = new HttpTaskServer(Managers.getDefaults());
+        TaskManager manager = Managers.getDefaults();
+        HttpTaskServer taskServer = new HttpTaskServer(manager);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            taskServer.stop();
+            if (manager instanceof FileBackedTaskManager fileBacked) {
+                fileBacked.close();
+            }
+        }));
         taskServer.start();
     }
 
+    private static ExecutorService createExecutor(ServerSettings settings) {
+        switch (settings.getExecutorMode()) {
+            case VIRTUAL_THREADS:
+                return Executors.newVirtualThreadPerTaskExecutor();
+            case BOUNDED_POOL:
+                AtomicInteger threadNumber = new AtomicInteger();
+                return new ThreadPoolExecutor(settings.getPoolSize(), settings.getPoolSize(),
+                        0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(settings.getQueueCapacity()),
+                        runnable -> new Thread(runnable,
+                                "http-worker-" + settings.getPort() + "-" + threadNumber.incrementAndGet()),
+                        new ThreadPoolExecutor.CallerRunsPolicy());
+            default:
+                return null;
+        }
+    }
+
     protected void start() {
-        System.out.println("Starting TaskServer " + PORT);
+        System.out.println("Starting TaskServer " + settings.getPort() + " (" + settings.getExecutorMode() + ")");
         server.start();
     }
 
     protected void stop() {
         server.stop(0);
-        System.out.println("TaskServer is stopped on the port: " + PORT);
+        if (executor != null) {
+            executor.shutdown();
+        }
+        System.out.println("TaskServer is stopped on the port: " + settings.getPort());
     }
 
     static Gson getGson() {
         Gson gson = new GsonBuilder()
                 .serializeNulls()
-                .setPrettyPrinting()
                 .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
                 .registerTypeAdapter(Duration.class, new DurationAdapter())
+                // without a creator Gson skips field initializers, leaving the subtask list of a parsed epic null
+                .registerTypeAdapter(Epic.class,
+                        (InstanceCreator<Epic>) type -> new Epic(null, null, null, null, null, null))
                 .create();
         return gson;
     }
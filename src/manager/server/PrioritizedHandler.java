@@ -5,6 +5,9 @@ import com.sun.net.httpserver.HttpHandler;
 import manager.task.TaskManager;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
 
 public class PrioritizedHandler extends BaseHttpHandler implements HttpHandler {
 
@@ -12,10 +15,33 @@ public class PrioritizedHandler extends BaseHttpHandler implements HttpHandler {
         super(manager);
     }
 
+    PrioritizedHandler(TaskManager manager, ServerSettings settings) {
+        super(manager, null, settings);
+    }
+
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         try (exchange) {
-            writeResponse(exchange, gson.toJson(manager.getPrioritizedTasks()), 200);
+            Map<String, String> query = getQueryParameters(exchange);
+            if (!query.containsKey("from") && !query.containsKey("to")) {
+                writeJsonStream(exchange, manager.getPrioritizedTasks(), 200);
+                return;
+            }
+            LocalDateTime from;
+            LocalDateTime to;
+            try {
+                from = parseDateTime(query.get("from"));
+                to = parseDateTime(query.get("to"));
+            } catch (DateTimeParseException e) {
+                writeResponse(exchange, gson.toJson("Invalid date-time, expected ISO-8601: " + e.getParsedString()),
+                        400);
+                return;
+            }
+            if (from != null && to != null && !from.isBefore(to)) {
+                writeResponse(exchange, gson.toJson("'from' must be before 'to'"), 400);
+                return;
+            }
+            writeJsonStream(exchange, manager.getPrioritizedTasks(from, to), 200);
         }
     }
 }
\ No newline at end of file
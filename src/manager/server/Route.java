@@ -0,0 +1,25 @@
+package manager.server;
+
+/**
+ * Result of matching a request against a {@link Router}: the endpoint and the id taken from the path, if any.
+ */
+class Route {
+
+    static final Route UNKNOWN = new Route(Endpoint.UNKNOWN, null);
+
+    private final Endpoint endpoint;
+    private final Integer id;
+
+    Route(Endpoint endpoint, Integer id) {
+        this.endpoint = endpoint;
+        this.id = id;
+    }
+
+    Endpoint getEndpoint() {
+        return endpoint;
+    }
+
+    Integer getId() {
+        return id;
+    }
+}
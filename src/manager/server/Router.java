@@ -0,0 +1,96 @@
+package manager.server;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Route table compiled once per handler. Patterns are split into segments when they are added, so matching a
+ * request walks the path in place without splitting it; a {id} segment matches a non-negative int.
+ * A trailing slash in the request path is ignored.
+ */
+class Router {
+
+    private static final String ID_SEGMENT = "{id}";
+
+    private static class Definition {
+        final String[] segments;
+        final Endpoint endpoint;
+
+        Definition(String[] segments, Endpoint endpoint) {
+            this.segments = segments;
+            this.endpoint = endpoint;
+        }
+    }
+
+    private final Map<String, List<Definition>> routes = new HashMap<>();
+
+    void add(String method, String pattern, Endpoint endpoint) {
+        String[] segments = pattern.substring(1).split("/");
+        for (int i = 0; i < segments.length; i++) {
+            if (segments[i].equals(ID_SEGMENT)) {
+                segments[i] = null;
+            }
+        }
+        routes.computeIfAbsent(method, key -> new ArrayList<>()).add(new Definition(segments, endpoint));
+    }
+
+    Route match(String method, String path) {
+        List<Definition> candidates = routes.get(method);
+        if (candidates == null) {
+            return Route.UNKNOWN;
+        }
+        int length = path.length();
+        if (length > 1 && path.charAt(length - 1) == '/') {
+            length--;
+        }
+        for (Definition definition : candidates) {
+            Route route = match(definition, path, length);
+            if (route != null) {
+                return route;
+            }
+        }
+        return Route.UNKNOWN;
+    }
+
+    private static Route match(Definition definition, String path, int length) {
+        int position = 0;
+        Integer id = null;
+        for (String segment : definition.segments) {
+            if (position >= length || path.charAt(position) != '/') {
+                return null;
+            }
+            int start = position + 1;
+            int end = path.indexOf('/', start);
+            if (end < 0 || end > length) {
+                end = length;
+            }
+            if (segment == null) {
+                id = parseId(path, start, end);
+                if (id == null) {
+                    return null;
+                }
+            } else if (end - start != segment.length() || !path.regionMatches(start, segment, 0, segment.length())) {
+                return null;
+            }
+            position = end;
+        }
+        return position == length ? new Route(definition.endpoint, id) : null;
+    }
+
+    private static Integer parseId(String path, int start, int end) {
+        if (start == end || end - start > 10) {
+            return null;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            char c = path.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value > Integer.MAX_VALUE ? null : (int) value;
+    }
+}
@@ -0,0 +1,63 @@
+package manager.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import manager.task.TaskManager;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * GET /search?q=...[&limit=n] returns tasks, subtasks and epics whose name or description contains
+ * every word of q, best match first. A word ending with '*' matches as a prefix.
+ */
+public class SearchHandler extends BaseHttpHandler implements HttpHandler {
+
+    private static final Router ROUTES = new Router();
+
+    static {
+        ROUTES.add("GET", "/search", Endpoint.GET_SEARCH_RESULTS);
+    }
+
+    public SearchHandler(TaskManager manager) {
+        super(manager);
+    }
+
+    SearchHandler(TaskManager manager, ServerSettings settings) {
+        super(manager, null, settings);
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Route route = ROUTES.match(exchange.getRequestMethod(), exchange.getRequestURI().getPath());
+            if (route.getEndpoint() != Endpoint.GET_SEARCH_RESULTS) {
+                String message = "Non-existent request";
+                writeResponse(exchange, gson.toJson(message), 400);
+                return;
+            }
+            handleGetSearchResults(exchange);
+        }
+    }
+
+    protected void handleGetSearchResults(HttpExchange exchange) throws IOException {
+        Map<String, String> query = getQueryParameters(exchange);
+        String text = query.get("q");
+        if (text == null || text.isBlank()) {
+            writeResponse(exchange, gson.toJson("Parameter 'q' is required"), 400);
+            return;
+        }
+        int limit;
+        try {
+            limit = query.containsKey("limit") ? Integer.parseInt(query.get("limit")) : DEFAULT_PAGE_SIZE;
+        } catch (NumberFormatException e) {
+            writeResponse(exchange, gson.toJson("Invalid limit"), 400);
+            return;
+        }
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            writeResponse(exchange, gson.toJson("Limit must be between 1 and " + MAX_PAGE_SIZE), 400);
+            return;
+        }
+        writeJsonStream(exchange, manager.search(text, limit), 200);
+    }
+}
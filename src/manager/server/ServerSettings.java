@@ -0,0 +1,124 @@
+package manager.server;
+
+import java.time.Duration;
+
+public class ServerSettings {
+
+    private String hostname = "localhost";
+    private int port = 8080;
+    private int backlog = 0;
+    private ExecutorMode executorMode = ExecutorMode.BOUNDED_POOL;
+    private int poolSize = Runtime.getRuntime().availableProcessors() * 2;
+    private int queueCapacity = 1024;
+    private String sessionHeader = "X-Session-Id";
+    private int maxSessions = 10_000;
+    private int sessionHistoryCapacity = 100;
+    private Duration sessionIdleTimeout = Duration.ofMinutes(30);
+    private boolean compressionEnabled = true;
+    private int compressionThreshold = 1024;
+    private int maxBatchOperations = 100_000;
+
+    public String getHostname() {
+        return hostname;
+    }
+
+    public void setHostname(String hostname) {
+        this.hostname = hostname;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public int getBacklog() {
+        return backlog;
+    }
+
+    public void setBacklog(int backlog) {
+        this.backlog = backlog;
+    }
+
+    public ExecutorMode getExecutorMode() {
+        return executorMode;
+    }
+
+    public void setExecutorMode(ExecutorMode executorMode) {
+        this.executorMode = executorMode;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public String getSessionHeader() {
+        return sessionHeader;
+    }
+
+    public void setSessionHeader(String sessionHeader) {
+        this.sessionHeader = sessionHeader;
+    }
+
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    public void setMaxSessions(int maxSessions) {
+        this.maxSessions = maxSessions;
+    }
+
+    public int getSessionHistoryCapacity() {
+        return sessionHistoryCapacity;
+    }
+
+    public void setSessionHistoryCapacity(int sessionHistoryCapacity) {
+        this.sessionHistoryCapacity = sessionHistoryCapacity;
+    }
+
+    public Duration getSessionIdleTimeout() {
+        return sessionIdleTimeout;
+    }
+
+    public void setSessionIdleTimeout(Duration sessionIdleTimeout) {
+        this.sessionIdleTimeout = sessionIdleTimeout;
+    }
+
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    public void setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public int getMaxBatchOperations() {
+        return maxBatchOperations;
+    }
+
+    public void setMaxBatchOperations(int maxBatchOperations) {
+        this.maxBatchOperations = maxBatchOperations;
+    }
+}
@@ -0,0 +1,81 @@
+package manager.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import exception.ValidationException;
+import manager.task.TaskManager;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * GET /slots?duration=PT1H[&from=...][&to=...][&count=n] returns up to n start times, one per free gap,
+ * where a task of that duration fits without conflicts. The search starts now unless from is given.
+ */
+public class SlotHandler extends BaseHttpHandler implements HttpHandler {
+
+    private static final Router ROUTES = new Router();
+
+    static {
+        ROUTES.add("GET", "/slots", Endpoint.GET_FREE_SLOTS);
+    }
+
+    public SlotHandler(TaskManager manager) {
+        super(manager);
+    }
+
+    SlotHandler(TaskManager manager, ServerSettings settings) {
+        super(manager, null, settings);
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Route route = ROUTES.match(exchange.getRequestMethod(), exchange.getRequestURI().getPath());
+            if (route.getEndpoint() != Endpoint.GET_FREE_SLOTS) {
+                String message = "Non-existent request";
+                writeResponse(exchange, gson.toJson(message), 400);
+                return;
+            }
+            handleGetFreeSlots(exchange);
+        }
+    }
+
+    protected void handleGetFreeSlots(HttpExchange exchange) throws IOException {
+        Map<String, String> query = getQueryParameters(exchange);
+        String durationValue = query.get("duration");
+        if (durationValue == null || durationValue.isEmpty()) {
+            writeResponse(exchange, gson.toJson("Parameter 'duration' is required"), 400);
+            return;
+        }
+        Duration duration;
+        LocalDateTime from;
+        LocalDateTime to;
+        int count;
+        try {
+            duration = Duration.parse(durationValue);
+            from = getSearchStart(query);
+            to = parseDateTime(query.get("to"));
+            count = query.containsKey("count") ? Integer.parseInt(query.get("count")) : 1;
+        } catch (DateTimeParseException e) {
+            writeResponse(exchange, gson.toJson("Invalid duration or date-time, expected ISO-8601: "
+                    + e.getParsedString()), 400);
+            return;
+        } catch (NumberFormatException e) {
+            writeResponse(exchange, gson.toJson("Invalid count"), 400);
+            return;
+        }
+        if (count <= 0 || count > MAX_PAGE_SIZE) {
+            writeResponse(exchange, gson.toJson("Count must be between 1 and " + MAX_PAGE_SIZE), 400);
+            return;
+        }
+        try {
+            writeJsonStream(exchange, manager.findFreeSlots(duration, from, to, count), 200);
+        } catch (ValidationException e) {
+            writeResponse(exchange, gson.toJson(e.getMessage()), 400);
+        }
+    }
+}
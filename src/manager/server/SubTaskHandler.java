@@ -1,5 +1,6 @@
 package manager.server;
 
+import com.google.gson.JsonParseException;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import exception.NotFoundException;
@@ -8,49 +9,67 @@ import manager.task.TaskManager;
 import model.SubTask;
 
 import java.io.IOException;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
 
 public class SubTaskHandler extends BaseHttpHandler implements HttpHandler {
 
+    private static final Router ROUTES = new Router();
+
+    static {
+        ROUTES.add("GET", "/subtasks", Endpoint.GET_ENTITIES);
+        ROUTES.add("GET", "/subtasks/{id}", Endpoint.GET_ENTITY_BY_ID);
+        ROUTES.add("POST", "/subtasks", Endpoint.POST_ENTITY);
+        ROUTES.add("DELETE", "/subtasks/{id}", Endpoint.DELETE_ENTITY_BY_ID);
+    }
+
     public SubTaskHandler(TaskManager manager) {
         super(manager);
     }
 
+    SubTaskHandler(TaskManager manager, HistorySessions sessions, ServerSettings settings) {
+        super(manager, sessions, settings);
+    }
+
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         try (exchange) {
             try {
-                String requestBody = readRequestBody(exchange);
-                Endpoint endpoint = getEndpoint(
-                        exchange.getRequestURI().getPath(),
-                        exchange.getRequestMethod(),
-                        requestBody);
+                Route route = ROUTES.match(exchange.getRequestMethod(), exchange.getRequestURI().getPath());
 
-                switch (endpoint) {
+                switch (route.getEndpoint()) {
                     case GET_ENTITIES: {
                         handleGetEntities(exchange);
                         break;
                     }
                     case GET_ENTITY_BY_ID: {
-                        handleGetEntityById(exchange);
-                        break;
-                    }
-                    case POST_ENTITY_CREATE: {
-                        handlePostEntityCreate(exchange, requestBody);
+                        handleGetEntityById(exchange, route.getId());
                         break;
                     }
-                    case POST_ENTITY_UPDATE: {
-                        handlePostEntityUpdate(exchange, requestBody);
+                    case POST_ENTITY: {
+                        SubTask subTask = readEntity(exchange, SubTask.class);
+                        if (subTask == null) {
+                            writeResponse(exchange, gson.toJson("Request body is empty"), 400);
+                        } else if (subTask.getId() == null && isAutoPlaceRequested(exchange)) {
+                            handlePostEntityAutoPlace(exchange, subTask);
+                        } else if (subTask.getId() == null) {
+                            handlePostEntityCreate(exchange, subTask);
+                        } else {
+                            handlePostEntityUpdate(exchange, subTask);
+                        }
                         break;
                     }
                     case DELETE_ENTITY_BY_ID: {
-                        handleDeleteEntityById(exchange);
+                        handleDeleteEntityById(exchange, route.getId());
                         break;
                     }
-                    case UNKNOWN:
+                    default:
                         String message = "Non-existent request";
                         writeResponse(exchange, gson.toJson(message), 400);
                         break;
                 }
+            } catch (JsonParseException e) {
+                writeResponse(exchange, gson.toJson("Invalid request body"), 400);
             } catch (Exception e) {
                 e.printStackTrace();
                 String message = "Unexpected error";
@@ -61,27 +80,27 @@ public class SubTaskHandler extends BaseHttpHandler implements HttpHandler {
         }
     }
 
+
     protected void handleGetEntities(HttpExchange exchange) throws IOException {
         try (exchange) {
-            writeResponse(exchange, gson.toJson(manager.getSubTasksList()), 200);
+            writeList(exchange,
+                    status -> status == null ? manager.getSubTasksList() : manager.getSubTasksByStatus(status),
+                    manager::getSubTasksPage);
         }
     }
 
-    protected void handleGetEntityById(HttpExchange exchange) throws IOException {
+    protected void handleGetEntityById(HttpExchange exchange, Integer id) throws IOException {
         try (exchange) {
-            String[] pathParts = exchange.getRequestURI().getPath().split("/");
-            Integer id = Integer.parseInt(pathParts[2]);
             try {
-                writeResponse(exchange, gson.toJson(manager.getSubTaskById(id)), 200);
+                writeResponse(exchange, gson.toJson(getSubTaskById(exchange, id)), 200);
             } catch (NotFoundException e) {
                 writeResponse(exchange, gson.toJson(e.getMessage()), 404);
             }
         }
     }
 
-    protected void handlePostEntityCreate(HttpExchange exchange, String requestBody) throws IOException {
+    protected void handlePostEntityCreate(HttpExchange exchange, SubTask subtask) throws IOException {
         try (exchange) {
-            SubTask subtask = gson.fromJson(requestBody, SubTask.class);
             try {
                 writeResponse(exchange, gson.toJson(manager.createSubTask(subtask)), 201);
             } catch (ValidationException e) {
@@ -90,9 +109,23 @@ public class SubTaskHandler extends BaseHttpHandler implements HttpHandler {
         }
     }
 
-    protected void handlePostEntityUpdate(HttpExchange exchange, String requestBody) throws IOException {
+    protected void handlePostEntityAutoPlace(HttpExchange exchange, SubTask subtask) throws IOException {
+        try (exchange) {
+            try {
+                Map<String, String> query = getQueryParameters(exchange);
+                SubTask created = manager.createSubTaskInFreeSlot(subtask, getSearchStart(query), parseDateTime(query.get("to")));
+                writeResponse(exchange, gson.toJson(created), 201);
+            } catch (DateTimeParseException e) {
+                writeResponse(exchange, gson.toJson("Invalid date-time, expected ISO-8601: " + e.getParsedString()),
+                        400);
+            } catch (ValidationException e) {
+                writeResponse(exchange, gson.toJson(e.getMessage()), 406);
+            }
+        }
+    }
+
+    protected void handlePostEntityUpdate(HttpExchange exchange, SubTask subtask) throws IOException {
         try (exchange) {
-            SubTask subtask = gson.fromJson(requestBody, SubTask.class);
             try {
                 manager.updateSubTask(subtask);
                 String message = "Subtask successfully updated";
@@ -103,10 +136,8 @@ public class SubTaskHandler extends BaseHttpHandler implements HttpHandler {
         }
     }
 
-    protected void handleDeleteEntityById(HttpExchange exchange) throws IOException {
+    protected void handleDeleteEntityById(HttpExchange exchange, Integer id) throws IOException {
         try (exchange) {
-            String[] pathParts = exchange.getRequestURI().getPath().split("/");
-            Integer id = Integer.parseInt(pathParts[2]);
             try {
                 manager.deleteSubTaskById(id);
                 writeResponse(exchange, null, 204);
@@ -115,35 +146,4 @@ public class SubTaskHandler extends BaseHttpHandler implements HttpHandler {
             }
         }
     }
-
-    protected Endpoint getEndpoint(String requestPath, String requestMethod, String requestBody) {
-        String[] pathParts = requestPath.split("/");
-
-        if (requestMethod.equals("GET")) {
-            if (pathParts.length == 2) {
-                return Endpoint.GET_ENTITIES;
-            }
-            if (pathParts.length == 3) {
-                return Endpoint.GET_ENTITY_BY_ID;
-            }
-        }
-
-        if (requestMethod.equals("POST")) {
-
-            SubTask subTask = gson.fromJson(requestBody, SubTask.class);
-            Integer subTaskId = subTask.getId();
-            if (subTaskId == null) {
-                return Endpoint.POST_ENTITY_CREATE;
-            } else {
-                return Endpoint.POST_ENTITY_UPDATE;
-            }
-        }
-
-        if (requestMethod.equals("DELETE")) {
-            return Endpoint.DELETE_ENTITY_BY_ID;
-        }
-        return Endpoint.UNKNOWN;
-    }
-
-
 }
@@ -1,5 +1,6 @@
 package manager.server;
 
+import com.google.gson.JsonParseException;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import exception.NotFoundException;
@@ -8,49 +9,67 @@ import manager.task.TaskManager;
 import model.Task;
 
 import java.io.IOException;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
 
 public class TaskHandler extends BaseHttpHandler implements HttpHandler {
 
+    private static final Router ROUTES = new Router();
+
+    static {
+        ROUTES.add("GET", "/tasks", Endpoint.GET_ENTITIES);
+        ROUTES.add("GET", "/tasks/{id}", Endpoint.GET_ENTITY_BY_ID);
+        ROUTES.add("POST", "/tasks", Endpoint.POST_ENTITY);
+        ROUTES.add("DELETE", "/tasks/{id}", Endpoint.DELETE_ENTITY_BY_ID);
+    }
+
     public TaskHandler(TaskManager manager) {
         super(manager);
     }
 
+    TaskHandler(TaskManager manager, HistorySessions sessions, ServerSettings settings) {
+        super(manager, sessions, settings);
+    }
+
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         try (exchange) {
             try {
-                String requestBody = readRequestBody(exchange);
-                Endpoint endpoint = getEndpoint(
-                        exchange.getRequestURI().getPath(),
-                        exchange.getRequestMethod(),
-                        requestBody);
+                Route route = ROUTES.match(exchange.getRequestMethod(), exchange.getRequestURI().getPath());
 
-                switch (endpoint) {
+                switch (route.getEndpoint()) {
                     case GET_ENTITIES: {
                         handleGetEntities(exchange);
                         break;
                     }
                     case GET_ENTITY_BY_ID: {
-                        handleGetEntityById(exchange);
-                        break;
-                    }
-                    case POST_ENTITY_CREATE: {
-                        handlePostEntityCreate(exchange, requestBody);
+                        handleGetEntityById(exchange, route.getId());
                         break;
                     }
-                    case POST_ENTITY_UPDATE: {
-                        handlePostEntityUpdate(exchange, requestBody);
+                    case POST_ENTITY: {
+                        Task task = readEntity(exchange, Task.class);
+                        if (task == null) {
+                            writeResponse(exchange, gson.toJson("Request body is empty"), 400);
+                        } else if (task.getId() == null && isAutoPlaceRequested(exchange)) {
+                            handlePostEntityAutoPlace(exchange, task);
+                        } else if (task.getId() == null) {
+                            handlePostEntityCreate(exchange, task);
+                        } else {
+                            handlePostEntityUpdate(exchange, task);
+                        }
                         break;
                     }
                     case DELETE_ENTITY_BY_ID: {
-                        handleDeleteEntityById(exchange);
+                        handleDeleteEntityById(exchange, route.getId());
                         break;
                     }
-                    case UNKNOWN:
+                    default:
                         String message = "Non-existent request";
                         writeResponse(exchange, gson.toJson(message), 400);
                         break;
                 }
+            } catch (JsonParseException e) {
+                writeResponse(exchange, gson.toJson("Invalid request body"), 400);
             } catch (Exception e) {
                 e.printStackTrace();
                 String message = "Unexpected error";
@@ -64,61 +83,61 @@ public class TaskHandler extends BaseHttpHandler implements HttpHandler {
 
     protected void handleGetEntities(HttpExchange exchange) throws IOException {
         try (exchange) {
-            writeResponse(exchange, gson.toJson(manager.getTasksList()), 200);
+            writeList(exchange,
+                    status -> status == null ? manager.getTasksList() : manager.getTasksByStatus(status),
+                    manager::getTasksPage);
         }
     }
 
-    protected void handleGetEntityById(HttpExchange exchange) throws IOException {
+    protected void handleGetEntityById(HttpExchange exchange, Integer id) throws IOException {
         try (exchange) {
-            String[] pathParts = exchange.getRequestURI().getPath().split("/");
-            Integer id = Integer.parseInt(pathParts[2]);
             try {
-                writeResponse(exchange, gson.toJson(manager.getTaskById(id)), 200);
+                writeResponse(exchange, gson.toJson(getTaskById(exchange, id)), 200);
             } catch (NotFoundException e) {
                 writeResponse(exchange, gson.toJson(e.getMessage()), 404);
             }
         }
     }
 
-    protected void handlePostEntityCreate(HttpExchange exchange, String requestBody) throws IOException {
+    protected void handlePostEntityCreate(HttpExchange exchange, Task task) throws IOException {
         try (exchange) {
             try {
-                Task task = gson.fromJson(requestBody, Task.class);
+                writeResponse(exchange, gson.toJson(manager.createTask(task)), 201);
+            } catch (ValidationException e) {
+                writeResponse(exchange, gson.toJson(e.getMessage()), 406);
+            }
+        }
+    }
 
-                try {
-                    writeResponse(exchange, gson.toJson(manager.createTask(task)), 201);
-                } catch (ValidationException e) {
-                    writeResponse(exchange, gson.toJson(e.getMessage()), 406);
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
-                writeResponse(exchange, "Error reading request body", 500);
+    protected void handlePostEntityAutoPlace(HttpExchange exchange, Task task) throws IOException {
+        try (exchange) {
+            try {
+                Map<String, String> query = getQueryParameters(exchange);
+                Task created = manager.createTaskInFreeSlot(task, getSearchStart(query), parseDateTime(query.get("to")));
+                writeResponse(exchange, gson.toJson(created), 201);
+            } catch (DateTimeParseException e) {
+                writeResponse(exchange, gson.toJson("Invalid date-time, expected ISO-8601: " + e.getParsedString()),
+                        400);
+            } catch (ValidationException e) {
+                writeResponse(exchange, gson.toJson(e.getMessage()), 406);
             }
         }
     }
 
-    protected void handlePostEntityUpdate(HttpExchange exchange, String requestBody) throws IOException {
+    protected void handlePostEntityUpdate(HttpExchange exchange, Task task) throws IOException {
         try (exchange) {
             try {
-                Task task = gson.fromJson(requestBody, Task.class);
-                try {
-                    manager.updateTask(task);
-                    String message = "Task successfully updated";
-                    writeResponse(exchange, gson.toJson(message), 201);
-                } catch (ValidationException e) {
-                    writeResponse(exchange, gson.toJson(e.getMessage()), 406);
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
-                writeResponse(exchange, "Error reading request body", 500);
+                manager.updateTask(task);
+                String message = "Task successfully updated";
+                writeResponse(exchange, gson.toJson(message), 201);
+            } catch (ValidationException e) {
+                writeResponse(exchange, gson.toJson(e.getMessage()), 406);
             }
         }
     }
 
-    protected void handleDeleteEntityById(HttpExchange exchange) throws IOException {
+    protected void handleDeleteEntityById(HttpExchange exchange, Integer id) throws IOException {
         try (exchange) {
-            String[] pathParts = exchange.getRequestURI().getPath().split("/");
-            Integer id = Integer.parseInt(pathParts[2]);
             try {
                 manager.deleteTaskById(id);
 
@@ -128,34 +147,4 @@ public class TaskHandler extends BaseHttpHandler implements HttpHandler {
             }
         }
     }
-
-
-    protected Endpoint getEndpoint(String requestPath, String requestMethod, String requestBody) {
-        String[] pathParts = requestPath.split("/");
-
-        if (requestMethod.equals("GET")) {
-            if (pathParts.length == 2) {
-                return Endpoint.GET_ENTITIES;
-            }
-            if (pathParts.length == 3) {
-                return Endpoint.GET_ENTITY_BY_ID;
-            }
-        }
-
-        if (requestMethod.equals("POST")) {
-
-            Task task = gson.fromJson(requestBody, Task.class);
-            Integer taskId = task.getId();
-            if (taskId == null) {
-                return Endpoint.POST_ENTITY_CREATE;
-            } else {
-                return Endpoint.POST_ENTITY_UPDATE;
-            }
-        }
-
-        if (requestMethod.equals("DELETE")) {
-            return Endpoint.DELETE_ENTITY_BY_ID;
-        }
-        return Endpoint.UNKNOWN;
-    }
 }
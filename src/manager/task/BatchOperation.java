@@ -0,0 +1,56 @@
+package manager.task;
+
+import model.Task;
+import model.TaskType;
+
+/**
+ * One step of {@link TaskManager#applyBatch}: a task, subtask or epic to create or update, or an id to delete.
+ */
+public class BatchOperation {
+
+    public enum Action {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+
+    private final Action action;
+    private final TaskType type;
+    private final Task entity;
+    private final Integer id;
+
+    private BatchOperation(Action action, TaskType type, Task entity, Integer id) {
+        this.action = action;
+        this.type = type;
+        this.entity = entity;
+        this.id = id;
+    }
+
+    public static BatchOperation create(Task entity) {
+        return new BatchOperation(Action.CREATE, entity.getType(), entity, null);
+    }
+
+    public static BatchOperation update(Task entity) {
+        return new BatchOperation(Action.UPDATE, entity.getType(), entity, entity.getId());
+    }
+
+    public static BatchOperation delete(TaskType type, Integer id) {
+        return new BatchOperation(Action.DELETE, type, null, id);
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public TaskType getType() {
+        return type;
+    }
+
+    public Task getEntity() {
+        return entity;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+}
@@ -0,0 +1,7 @@
+package manager.task;
+
+public enum DurabilityPolicy {
+    SYNC_EACH,
+    SYNC_BATCH,
+    OS_BUFFERED
+}
@@ -0,0 +1,111 @@
+package manager.task;
+
+import model.Epic;
+import model.Status;
+import model.SubTask;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.TreeMap;
+
+/**
+ * Running status counters and time bounds of an epic's subtasks.
+ * Subtasks are added and removed by delta, so keeping an epic up to date does not
+ * require walking all of its subtasks. The values each subtask contributed are kept,
+ * because callers may change a stored subtask in place before updating it.
+ */
+class EpicAggregate {
+
+    private static class Contribution {
+        final Status status;
+        final LocalDateTime start;
+        final LocalDateTime end;
+        final Duration duration;
+
+        Contribution(SubTask subTask) {
+            this.status = subTask.getStatus();
+            this.start = subTask.getStartDateTime();
+            this.end = subTask.getEndDateTime();
+            this.duration = subTask.getDuration();
+        }
+    }
+
+    private final IntMap<Contribution> contributions = new IntMap<>();
+    private final int[] statusCounts = new int[Status.values().length];
+    private Duration totalDuration = Duration.ZERO;
+    private int durationCount;
+    private final TreeMap<LocalDateTime, Integer> starts = new TreeMap<>();
+    private final TreeMap<LocalDateTime, Integer> ends = new TreeMap<>();
+
+    void put(SubTask subTask) {
+        Contribution contribution = new Contribution(subTask);
+        Contribution previous = contributions.put(subTask.getId(), contribution);
+        if (previous != null) {
+            subtract(previous);
+        }
+        if (contribution.status != null) {
+            statusCounts[contribution.status.ordinal()]++;
+        }
+        if (contribution.duration != null) {
+            totalDuration = totalDuration.plus(contribution.duration);
+            durationCount++;
+        }
+        if (contribution.start != null) {
+            starts.merge(contribution.start, 1, Integer::sum);
+            ends.merge(contribution.end, 1, Integer::sum);
+        }
+    }
+
+    void remove(int subTaskId) {
+        Contribution previous = contributions.remove(subTaskId);
+        if (previous != null) {
+            subtract(previous);
+        }
+    }
+
+    void clear() {
+        contributions.clear();
+        Arrays.fill(statusCounts, 0);
+        totalDuration = Duration.ZERO;
+        durationCount = 0;
+        starts.clear();
+        ends.clear();
+    }
+
+    void applyTo(Epic epic) {
+        epic.setStatus(getStatus());
+        epic.setStartDateTime(starts.isEmpty() ? null : starts.firstKey());
+        epic.setEndDateTime(ends.isEmpty() ? null : ends.lastKey());
+        epic.setDuration(durationCount == 0 ? null : totalDuration);
+    }
+
+    private void subtract(Contribution contribution) {
+        if (contribution.status != null) {
+            statusCounts[contribution.status.ordinal()]--;
+        }
+        if (contribution.duration != null) {
+            totalDuration = totalDuration.minus(contribution.duration);
+            durationCount--;
+        }
+        if (contribution.start != null) {
+            decrement(starts, contribution.start);
+            decrement(ends, contribution.end);
+        }
+    }
+
+    private Status getStatus() {
+        int size = contributions.size();
+        if (size == 0 || statusCounts[Status.NEW.ordinal()] == size) {
+            return Status.NEW;
+        } else if (statusCounts[Status.DONE.ordinal()] == size) {
+            return Status.DONE;
+        } else {
+            return Status.IN_PROGRESS;
+        }
+    }
+
+    private static void decrement(TreeMap<LocalDateTime, Integer> counts, LocalDateTime key) {
+        counts.computeIfPresent(key, (k, count) -> count == 1 ? null : count - 1);
+    }
+}
@@ -7,176 +7,702 @@ import manager.history.HistoryManager;
 import model.Epic;
 import model.SubTask;
 import model.Task;
+import model.TaskType;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
-import java.util.Map;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
-public class FileBackedTaskManager extends InMemoryTaskManager {
+/**
+ * Journal records are numbered: each line starts with a sequence number, except the records inside a batch,
+ * which share the number of their header. A snapshot stores the number of the last record it includes,
+ * and replay skips the records it already covers, so replaying a journal over a newer snapshot is a no-op.
+ * Records without a number, written by older versions, are always replayed.
+ */
+public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCloseable {
+
+    private static final String PUT = "PUT";
+    private static final String DELETE = "DELETE";
+    private static final String CLEAR = "CLEAR";
+    private static final String BATCH = "BATCH";
 
     private final File file;
+    private final SnapshotFile snapshot;
+    private final File journal;
+    private final File compactingJournal;
+    private final StorageSettings settings;
+
+    private ExecutorService compactor;
+    private volatile Future<?> compaction;
+    private long journalRecords;
+    private long journalBytes;
+    private Instant journalStartedAt;
+    private volatile long compactingRecords;
+    private volatile long compactingBytes;
+    private final AtomicLong compactions = new AtomicLong();
+    private final AtomicLong failedCompactions = new AtomicLong();
+    private volatile Duration lastCompactionDuration;
+    private volatile Instant lastCompactionAt;
+    private volatile String lastCompactionError;
+    private boolean recoveredFromBackup;
+    private JournalWriter journalWriter;
+    private long journalSequence;
+    private long mutations;
+    private long logicalBytes;
+    private final AtomicLong writtenBytes = new AtomicLong();
+    private final AtomicLong syncs = new AtomicLong();
+    private final LatencyRecorder mutationLatency = new LatencyRecorder(1024);
 
-    private FileBackedTaskManager(HistoryManager historyManager, File file) {
+    private FileBackedTaskManager(HistoryManager historyManager, File file, StorageSettings settings) {
         super(historyManager);
         this.file = file;
+        this.snapshot = new SnapshotFile(file, settings.getSnapshotFormat());
+        this.journal = new File(file.getPath() + ".log");
+        this.compactingJournal = new File(file.getPath() + ".log.old");
+        this.settings = settings;
     }
 
-    private void save() {
+    private long save() {
+        long written;
+        try {
+            written = snapshot.write(tasks.values(), epics.values(), subTasks.values(), journalSequence);
+            writtenBytes.addAndGet(written);
+            syncs.incrementAndGet();
+        } catch (IOException exp) {
+            throw new ManagerIOException("File write error: " + file.getName(), exp);
+        }
+        try {
+            Files.deleteIfExists(journal.toPath());
+            Files.deleteIfExists(compactingJournal.toPath());
+        } catch (IOException exp) {
+            throw new ManagerIOException("File delete error: " + journal.getName(), exp);
+        }
+        return written;
+    }
 
-        try (FileWriter writer = new FileWriter(file, StandardCharsets.UTF_8);
-             BufferedWriter bw = new BufferedWriter(writer)) {
+    private CompletableFuture<Void> append(byte[] bytes) {
+        CompletableFuture<Void> commit;
+        try {
+            if (journalWriter == null) {
+                journalWriter = new JournalWriter(journal, settings.getDurability(),
+                        settings.getGroupCommitWindow(), writtenBytes, syncs);
+            }
+            commit = journalWriter.append(bytes);
+        } catch (IOException exp) {
+            throw new ManagerIOException("File write error: " + journal.getName(), exp);
+        }
+        if (journalRecords == 0) {
+            journalStartedAt = Instant.now();
+        }
+        journalRecords++;
+        journalBytes += bytes.length;
+        if (isCompactionDue()) {
+            startCompaction();
+        }
+        return commit;
+    }
 
-            bw.write("id,type,name,status,description,epicId,startDateTime,duration");
-            bw.newLine();
+    /**
+     * Applies the mutation and hands its record to storage under the write lock, so records reach the journal
+     * in the order the mutations were applied. Waiting for the record to become durable happens after
+     * the lock is released, which lets the records of concurrent mutations share one sync.
+     * The record is only encoded when there is a journal to append it to; a snapshot write counts
+     * its average record size as the logical size of the mutation.
+     */
+    private void persist(Runnable mutation, Supplier<String> record) {
+        long startedAt = System.nanoTime();
+        CompletableFuture<Void> commit;
+        lock.writeLock().lock();
+        try {
+            mutation.run();
+            if (settings.getMode() == PersistenceMode.JOURNAL) {
+                String numbered = ++journalSequence + "," + record.get() + System.lineSeparator();
+                byte[] bytes = numbered.getBytes(StandardCharsets.UTF_8);
+                commit = append(bytes);
+                logicalBytes += bytes.length;
+            } else {
+                long written = save();
+                logicalBytes += written / Math.max(tasks.size() + epics.size() + subTasks.size(), 1);
+                commit = CompletableFuture.completedFuture(null);
+            }
+            mutations++;
+            resetCounterIfEmpty();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            commit.join();
+        } catch (CompletionException exp) {
+            throw new ManagerIOException("File write error: " + journal.getName(), exp.getCause());
+        }
+        mutationLatency.record(System.nanoTime() - startedAt);
+    }
 
-            for (Map.Entry<Integer, Task> entry : tasks.entrySet()) {
-                bw.write(TaskConverter.toString(entry.getValue()));
-                bw.newLine();
+    private void closeJournalWriter() throws IOException {
+        if (journalWriter != null) {
+            journalWriter.close();
+            journalWriter = null;
+        }
+    }
+
+    private boolean isCompactionDue() {
+        if (compaction != null && !compaction.isDone()) {
+            return false;
+        }
+        return journalRecords >= settings.getMaxJournalRecords()
+                || journalBytes >= settings.getMaxJournalBytes()
+                || !journalStartedAt.plus(settings.getMaxJournalAge()).isAfter(Instant.now());
+    }
+
+    /**
+     * Runs under the write lock, so it only moves the journal aside; the compactor rebuilds the state from
+     * the snapshot and the rotated journal without blocking writers.
+     */
+    private void startCompaction() {
+        try {
+            closeJournalWriter();
+            if (!journal.exists()) {
+                journal.createNewFile();
             }
-            for (Map.Entry<Integer, Epic> entry : epics.entrySet()) {
-                bw.write(TaskConverter.toString(entry.getValue()));
-                bw.newLine();
+            if (compactingJournal.exists()) {
+                Files.write(compactingJournal.toPath(), Files.readAllBytes(journal.toPath()),
+                        StandardOpenOption.APPEND);
+                Files.delete(journal.toPath());
+            } else {
+                Files.move(journal.toPath(), compactingJournal.toPath(), StandardCopyOption.ATOMIC_MOVE);
             }
-            for (Map.Entry<Integer, SubTask> entry : subTasks.entrySet()) {
-                bw.write(TaskConverter.toString(entry.getValue()));
-                bw.newLine();
+        } catch (IOException exp) {
+            throw new ManagerIOException("File write error: " + journal.getName(), exp);
+        }
+        compactingRecords += journalRecords;
+        compactingBytes += journalBytes;
+        journalRecords = 0;
+        journalBytes = 0;
+
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "journal-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        compaction = compactor.submit(this::compactJournal);
+    }
+
+    /**
+     * Loads the snapshot and the rotated journal into a detached manager, the same way {@link #loadFromFile}
+     * does, and writes its state as the new snapshot. Writers keep appending to the new journal meanwhile.
+     * A failure is recorded in the metrics and leaves the rotated journal in place, so its records still
+     * count towards the journal size and the next compaction retries them.
+     */
+    private void compactJournal() {
+        Instant startedAt = Instant.now();
+        try {
+            FileBackedTaskManager replica = new FileBackedTaskManager(Managers.getDefaultHistory(), file, settings);
+            if (replica.snapshot.exists()) {
+                replica.readSnapshot();
             }
-            if (tasks.isEmpty() && subTasks.isEmpty() && epics.isEmpty()) {
-                counterId = 0;
+            replica.replayJournal(compactingJournal);
+            replica.calculateEpics();
+            writtenBytes.addAndGet(snapshot.write(replica.tasks.values(), replica.epics.values(),
+                    replica.subTasks.values(), replica.journalSequence));
+            syncs.incrementAndGet();
+            Files.deleteIfExists(compactingJournal.toPath());
+        } catch (IOException | RuntimeException exp) {
+            failedCompactions.incrementAndGet();
+            lastCompactionError = exp.toString();
+            throw new ManagerIOException("Compaction error: " + file.getName(), exp);
+        }
+        compactingRecords = 0;
+        compactingBytes = 0;
+        lastCompactionError = null;
+        lastCompactionAt = Instant.now();
+        lastCompactionDuration = Duration.between(startedAt, lastCompactionAt);
+        compactions.incrementAndGet();
+    }
+
+    /**
+     * Compacts the journal and waits for it, throwing if the compaction fails.
+     */
+    public void compact() {
+        try {
+            awaitCompaction();
+        } catch (ManagerIOException exp) {
+            // already recorded in the metrics, the rotated journal is compacted again below
+        }
+        lock.writeLock().lock();
+        try {
+            if (journalRecords == 0 && !compactingJournal.exists()) {
+                return;
             }
+            startCompaction();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        awaitCompaction();
+    }
+
+    void awaitCompaction() {
+        Future<?> pending = compaction;
+        if (pending == null) {
+            return;
+        }
+        try {
+            pending.get();
+        } catch (InterruptedException exp) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException exp) {
+            throw new ManagerIOException("Compaction error: " + file.getName(), exp.getCause());
+        }
+    }
+
+    /**
+     * Waits for a running compaction, writes out the queued journal records and stops the committer
+     * and compactor threads.
+     */
+    @Override
+    public void close() {
+        try {
+            awaitCompaction();
+        } catch (ManagerIOException exp) {
+            // already recorded in the metrics, the rotated journal is compacted on the next run
+        }
+        lock.writeLock().lock();
+        try {
+            closeJournalWriter();
         } catch (IOException exp) {
-            throw new ManagerIOException("File write error: " + file.getName(), exp);
+            throw new ManagerIOException("File write error: " + journal.getName(), exp);
+        } finally {
+            if (compactor != null) {
+                compactor.shutdown();
+                compactor = null;
+            }
+            lock.writeLock().unlock();
+        }
+    }
+
+    public StorageMetrics getStorageMetrics() {
+        lock.readLock().lock();
+        try {
+            return new StorageMetrics(settings.getDurability(), mutations, logicalBytes, writtenBytes.get(),
+                    syncs.get(), mutationLatency.percentile(99), journalRecords + compactingRecords,
+                    journalBytes + compactingBytes, compactions.get(), failedCompactions.get(),
+                    lastCompactionError, lastCompactionDuration, lastCompactionAt, recoveredFromBackup);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void resetCounterIfEmpty() {
+        if (tasks.isEmpty() && subTasks.isEmpty() && epics.isEmpty()) {
+            counterId = 0;
+        }
+    }
+
+    private static String putRecord(Task task) {
+        return PUT + "," + TaskConverter.toString(task);
+    }
+
+    private static String putRecord(SubTask subTask) {
+        return PUT + "," + TaskConverter.toString(subTask);
+    }
+
+    private static String deleteRecord(Integer id) {
+        return DELETE + "," + id;
+    }
+
+    private static String clearRecord(TaskType type) {
+        return CLEAR + "," + type;
+    }
+
+    /**
+     * A header with the number of records, followed by one record per operation. Replay applies a batch only
+     * when all of its records were written.
+     */
+    private String batchRecord(List<BatchOperation> operations, List<Task> results) {
+        StringBuilder record = new StringBuilder(BATCH).append(',').append(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            BatchOperation operation = operations.get(i);
+            record.append(System.lineSeparator());
+            if (operation.getAction() == BatchOperation.Action.DELETE) {
+                record.append(deleteRecord(operation.getId()));
+            } else {
+                Task result = results.get(i);
+                record.append(result instanceof SubTask subTask ? putRecord(subTask) : putRecord(result));
+            }
         }
+        return record.toString();
     }
 
     public static FileBackedTaskManager loadFromFile(File file) {
+        return loadFromFile(file, PersistenceMode.SNAPSHOT);
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, PersistenceMode mode) {
+        StorageSettings settings = new StorageSettings();
+        settings.setMode(mode);
+        return loadFromFile(file, settings);
+    }
 
-        FileBackedTaskManager manager = new FileBackedTaskManager(Managers.getDefaultHistory(), file);
+    public static FileBackedTaskManager loadFromFile(File file, StorageSettings settings) {
 
-        int maxId = 0;
+        FileBackedTaskManager manager = new FileBackedTaskManager(Managers.getDefaultHistory(), file, settings);
+
+        if (manager.snapshot.exists()) {
+            manager.readSnapshot();
+        }
+        if (manager.compactingJournal.exists()) {
+            manager.compactingRecords = manager.replayJournal(manager.compactingJournal);
+            manager.compactingBytes = manager.compactingJournal.length();
+        }
+        if (manager.journal.exists()) {
+            manager.journalRecords = manager.replayJournal(manager.journal);
+            manager.journalBytes = manager.journal.length();
+            manager.journalStartedAt = Instant.now();
+        }
+        manager.calculateEpics();
+        return manager;
+    }
 
-        try (FileReader reader = new FileReader(file, StandardCharsets.UTF_8);
-             BufferedReader br = new BufferedReader(reader)) {
+    private void calculateEpics() {
+        for (Epic epic : epics.values()) {
+            calculateEpicData(epic);
+        }
+    }
 
-            String firstLine = br.readLine();
-            if (firstLine == null) return manager;
+    private void readSnapshot() {
 
-            while (true) {
-                String line = br.readLine();
+        int maxId = 0;
 
-                if (line == null)
+        SnapshotFile.Content content = snapshot.read();
+        recoveredFromBackup = content.fromBackup;
+        for (Task task : content.records) {
+            int id = task.getId();
+            switch (task.getType()) {
+                case TASK:
+                    tasks.put(id, task);
+                    if (task.getStartDateTime() != null) {
+                        schedule(task);
+                    }
+                    break;
+                case EPIC:
+                    Epic epic = (Epic) task;
+                    epics.put(id, epic);
+                    break;
+                case SUBTASK:
+                    SubTask subTask = (SubTask) task;
+                    subTasks.put(id, subTask);
+                    if (subTask.getStartDateTime() != null) {
+                        schedule(subTask);
+                    }
                     break;
+            }
+            if (maxId < id) {
+                maxId = id;
+            }
+        }
+        for (SubTask subTask : subTasks.values()) {
+            Epic tiedEpic = epics.get(subTask.getEpicId());
+            attachSubTask(tiedEpic, subTask);
+        }
+        counterId = maxId;
+        journalSequence = content.journalSequence;
+    }
 
-                Task task = TaskConverter.fromString(line);
-                int id = task.getId();
-                switch (task.getType()) {
-                    case TASK:
-                        manager.tasks.put(id, task);
-                        if (task.getStartDateTime() != null) {
-                            manager.prioritizedTasks.add(task);
-                        }
-                        break;
-                    case EPIC:
-                        Epic epic = (Epic) task;
-                        manager.epics.put(id, epic);
-                        break;
-                    case SUBTASK:
-                        SubTask subTask = (SubTask) task;
-                        manager.subTasks.put(id, subTask);
-                        if (subTask.getStartDateTime() != null) {
-                            manager.prioritizedTasks.add(subTask);
+    private long replayJournal(File source) {
+        long records = 0;
+        long validLength = 0;
+        long position = 0;
+
+        try (InputStream in = new BufferedInputStream(new FileInputStream(source))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            List<String> batch = new ArrayList<>();
+            int batchSize = 0;
+            boolean covered = false;
+            int b;
+            while ((b = in.read()) != -1) {
+                position++;
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                String record = line.toString(StandardCharsets.UTF_8);
+                line.reset();
+                if (record.endsWith("\r")) {
+                    record = record.substring(0, record.length() - 1);
+                }
+                if (batchSize > 0) {
+                    batch.add(record);
+                    if (batch.size() < batchSize) {
+                        continue;
+                    }
+                    if (!covered) {
+                        for (String batched : batch) {
+                            replay(batched);
                         }
-                        manager.calculateEpicData(manager.epics.get(subTask.getEpicId()));
-                        break;
+                    }
+                    records += batch.size();
+                    batch.clear();
+                    batchSize = 0;
+                    validLength = position;
+                    continue;
                 }
-                if (maxId < id) {
-                    maxId = id;
+                long sequence = sequenceOf(record);
+                if (sequence > 0) {
+                    record = record.substring(record.indexOf(',') + 1);
+                    covered = sequence <= journalSequence;
+                    journalSequence = Math.max(journalSequence, sequence);
+                } else {
+                    covered = false;
                 }
-            }
-            for (SubTask subTask : manager.subTasks.values()) {
-                Epic tiedEpic = manager.epics.get(subTask.getEpicId());
-                tiedEpic.getSubTasksId().add(subTask.getId());
-                manager.calculateEpicData(manager.epics.get(subTask.getEpicId()));
+                if (record.startsWith(BATCH + ",")) {
+                    try {
+                        batchSize = Integer.parseInt(record.substring(BATCH.length() + 1));
+                    } catch (NumberFormatException exp) {
+                        throw new ManagerIOException("Corrupted journal record: " + record, exp);
+                    }
+                    if (batchSize > 0) {
+                        continue;
+                    }
+                } else if (!record.isEmpty()) {
+                    if (!covered) {
+                        replay(record);
+                    }
+                    records++;
+                }
+                validLength = position;
             }
         } catch (IOException exp) {
-            throw new ManagerIOException("File read error: " + file.getName(), exp);
+            throw new ManagerIOException("File read error: " + source.getName(), exp);
+        }
+
+        if (validLength < position) {
+            try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            } catch (IOException exp) {
+                throw new ManagerIOException("File write error: " + source.getName(), exp);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Returns the sequence number the record starts with, or 0 if it has none.
+     */
+    private static long sequenceOf(String record) {
+        int separator = record.indexOf(',');
+        if (separator <= 0) {
+            return 0;
+        }
+        for (int i = 0; i < separator; i++) {
+            if (!Character.isDigit(record.charAt(i))) {
+                return 0;
+            }
+        }
+        try {
+            return Long.parseLong(record, 0, separator, 10);
+        } catch (NumberFormatException exp) {
+            throw new ManagerIOException("Corrupted journal record: " + record, exp);
+        }
+    }
+
+    private void replay(String record) {
+        int separator = record.indexOf(',');
+        String operation = separator < 0 ? record : record.substring(0, separator);
+        String payload = separator < 0 ? "" : record.substring(separator + 1);
+
+        try {
+            switch (operation) {
+                case PUT:
+                    restore(TaskConverter.fromString(payload));
+                    break;
+                case DELETE:
+                    remove(Integer.parseInt(payload));
+                    break;
+                case CLEAR:
+                    clear(TaskType.valueOf(payload));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown operation: " + operation);
+            }
+        } catch (RuntimeException exp) {
+            throw new ManagerIOException("Corrupted journal record: " + record, exp);
+        }
+        resetCounterIfEmpty();
+    }
+
+    private void restore(Task task) {
+        int id = task.getId();
+        switch (task.getType()) {
+            case TASK: {
+                Task previous = tasks.put(id, task);
+                if (previous != null && previous.getStartDateTime() != null) {
+                    unschedule(previous);
+                }
+                if (task.getStartDateTime() != null) {
+                    schedule(task);
+                }
+                break;
+            }
+            case EPIC: {
+                Epic previous = epics.get(id);
+                if (previous == null) {
+                    epics.put(id, (Epic) task);
+                } else {
+                    previous.setName(task.getName());
+                    previous.setDescription(task.getDescription());
+                    epics.reindex(previous);
+                }
+                break;
+            }
+            case SUBTASK: {
+                SubTask subTask = (SubTask) task;
+                Epic epic = epics.get(subTask.getEpicId());
+                if (epic == null) {
+                    break;
+                }
+                SubTask previous = subTasks.put(id, subTask);
+                if (previous != null && previous.getStartDateTime() != null) {
+                    unschedule(previous);
+                }
+                if (subTask.getStartDateTime() != null) {
+                    schedule(subTask);
+                }
+                if (previous == null) {
+                    attachSubTask(epic, subTask);
+                } else {
+                    getEpicAggregate(epic.getId()).put(subTask);
+                }
+                break;
+            }
+        }
+        if (counterId < id) {
+            counterId = id;
+        }
+    }
+
+    private void remove(int id) {
+        if (tasks.containsKey(id)) {
+            super.deleteTaskById(id);
+        } else if (subTasks.containsKey(id)) {
+            super.deleteSubTaskById(id);
+        } else if (epics.containsKey(id)) {
+            super.deleteEpicById(id);
+        }
+    }
+
+    private void clear(TaskType type) {
+        switch (type) {
+            case TASK:
+                super.deleteAllTasks();
+                break;
+            case SUBTASK:
+                super.deleteAllSubTasks();
+                break;
+            case EPIC:
+                super.deleteAllEpics();
+                break;
         }
-        manager.counterId = maxId;
-        return manager;
+    }
+
+    @Override
+    public List<Task> applyBatch(List<BatchOperation> operations) {
+        if (operations.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Task> results = new ArrayList<>(operations.size());
+        persist(() -> results.addAll(super.applyBatch(operations)), () -> batchRecord(operations, results));
+        return results;
     }
 
     @Override
     public Task createTask(Task task) {
-        Task newTask = super.createTask(task);
-        save();
-        return newTask;
+        persist(() -> super.createTask(task), () -> putRecord(task));
+        return task;
     }
 
     @Override
     public SubTask createSubTask(SubTask subTask) {
-        SubTask newSubTask = super.createSubTask(subTask);
-        save();
-        return newSubTask;
+        persist(() -> super.createSubTask(subTask), () -> putRecord(subTask));
+        return subTask;
+    }
+
+    @Override
+    public Task createTaskInFreeSlot(Task task, LocalDateTime from, LocalDateTime to) {
+        persist(() -> super.createTaskInFreeSlot(task, from, to), () -> putRecord(task));
+        return task;
+    }
+
+    @Override
+    public SubTask createSubTaskInFreeSlot(SubTask subTask, LocalDateTime from, LocalDateTime to) {
+        persist(() -> super.createSubTaskInFreeSlot(subTask, from, to), () -> putRecord(subTask));
+        return subTask;
     }
 
     @Override
     public Epic createEpic(Epic epic) {
-        Epic newEpic = super.createEpic(epic);
-        save();
-        return newEpic;
+        persist(() -> super.createEpic(epic), () -> putRecord(epic));
+        return epic;
     }
 
     @Override
     public void updateTask(Task task) {
-        super.updateTask(task);
-        save();
+        persist(() -> super.updateTask(task), () -> putRecord(tasks.get(task.getId())));
     }
 
     @Override
     public void updateSubTask(SubTask subTask) {
-        super.updateSubTask(subTask);
-        save();
+        persist(() -> super.updateSubTask(subTask), () -> putRecord(subTasks.get(subTask.getId())));
     }
 
     @Override
     public void updateEpic(Epic epic) {
-        super.updateEpic(epic);
-        save();
+        persist(() -> super.updateEpic(epic), () -> putRecord(epics.get(epic.getId())));
     }
 
     @Override
     public void deleteTaskById(Integer id) {
-        super.deleteTaskById(id);
-        save();
+        persist(() -> super.deleteTaskById(id), () -> deleteRecord(id));
     }
 
     @Override
     public void deleteSubTaskById(Integer id) {
-        super.deleteSubTaskById(id);
-        save();
+        persist(() -> super.deleteSubTaskById(id), () -> deleteRecord(id));
     }
 
     @Override
     public void deleteEpicById(Integer id) {
-        super.deleteEpicById(id);
-        save();
+        persist(() -> super.deleteEpicById(id), () -> deleteRecord(id));
     }
 
     @Override
     public void deleteAllTasks() {
-        super.deleteAllTasks();
-        save();
+        persist(super::deleteAllTasks, () -> clearRecord(TaskType.TASK));
     }
 
     @Override
     public void deleteAllSubTasks() {
-        super.deleteAllSubTasks();
-        save();
+        persist(super::deleteAllSubTasks, () -> clearRecord(TaskType.SUBTASK));
     }
 
     @Override
     public void deleteAllEpics() {
-        super.deleteAllEpics();
-        save();
+        persist(super::deleteAllEpics, () -> clearRecord(TaskType.EPIC));
     }
 }
@@ -0,0 +1,133 @@
+package manager.task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Free time between scheduled tasks, one gap per task: the gap ending where the task starts.
+ * Gaps are kept in a treap in the interval index order of their tasks, and every node knows the longest gap in its
+ * subtree, so the earliest gap of at least a given length after a given task is found in O(log n).
+ * A gap that starts at null is open towards the past. Lengths are in nanoseconds and saturate at Long.MAX_VALUE.
+ */
+class GapIndex {
+
+    static class Gap {
+        final IntervalIndex.Interval next;
+        final LocalDateTime end;
+        final LocalDateTime start;
+        final long length;
+        final int priority;
+        long maxLength;
+        Gap left;
+        Gap right;
+
+        Gap(IntervalIndex.Interval next, LocalDateTime start, int priority) {
+            this.next = next;
+            this.end = next.start;
+            this.start = start;
+            this.length = start == null ? Long.MAX_VALUE : nanos(Duration.between(start, end));
+            this.priority = priority;
+            this.maxLength = length;
+        }
+    }
+
+    private static final long MAX_SECONDS = Long.MAX_VALUE / 1_000_000_000L;
+
+    private final SplittableRandom random = new SplittableRandom();
+    private Gap root;
+
+    static long nanos(Duration duration) {
+        if (duration.isNegative()) {
+            return 0;
+        }
+        return duration.getSeconds() >= MAX_SECONDS ? Long.MAX_VALUE : duration.toNanos();
+    }
+
+    /**
+     * Sets the gap ending where the given task starts, replacing the previous one.
+     */
+    void put(IntervalIndex.Interval next, LocalDateTime start) {
+        remove(next);
+        Gap[] parts = split(root, next, false);
+        root = merge(merge(parts[0], new Gap(next, start, random.nextInt())), parts[1]);
+    }
+
+    void remove(IntervalIndex.Interval next) {
+        Gap[] parts = split(root, next, false);
+        Gap[] rest = split(parts[1], next, true);
+        root = merge(parts[0], rest[1]);
+    }
+
+    /**
+     * Returns the earliest gap of at least the given length ending at a task after the given one, or null.
+     */
+    Gap findFirst(IntervalIndex.Interval after, long length) {
+        return findFirst(root, after, length);
+    }
+
+    private static Gap findFirst(Gap node, IntervalIndex.Interval after, long length) {
+        if (node == null || node.maxLength < length) {
+            return null;
+        }
+        if (IntervalIndex.ORDER.compare(node.next, after) <= 0) {
+            return findFirst(node.right, after, length);
+        }
+        Gap found = findFirst(node.left, after, length);
+        if (found != null) {
+            return found;
+        }
+        if (node.length >= length) {
+            return node;
+        }
+        return findFirst(node.right, after, length);
+    }
+
+    /**
+     * Splits the tree into gaps ending at tasks before the given one, or up to it when inclusive, and the rest.
+     */
+    private static Gap[] split(Gap node, IntervalIndex.Interval next, boolean inclusive) {
+        if (node == null) {
+            return new Gap[]{null, null};
+        }
+        int order = IntervalIndex.ORDER.compare(node.next, next);
+        if (order < 0 || inclusive && order == 0) {
+            Gap[] parts = split(node.right, next, inclusive);
+            node.right = parts[0];
+            update(node);
+            return new Gap[]{node, parts[1]};
+        }
+        Gap[] parts = split(node.left, next, inclusive);
+        node.left = parts[1];
+        update(node);
+        return new Gap[]{parts[0], node};
+    }
+
+    private static Gap merge(Gap left, Gap right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static void update(Gap node) {
+        long max = node.length;
+        if (node.left != null && node.left.maxLength > max) {
+            max = node.left.maxLength;
+        }
+        if (node.right != null && node.right.maxLength > max) {
+            max = node.right.maxLength;
+        }
+        node.maxLength = max;
+    }
+}
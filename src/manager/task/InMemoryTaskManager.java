@@ -7,36 +7,84 @@ import model.Epic;
 import model.Status;
 import model.SubTask;
 import model.Task;
+import model.TaskType;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+/**
+ * Task manager that can be shared between threads: reads hold the read lock and mutations the write lock,
+ * so epic aggregates, the prioritized set and the history change together. The returned tasks are the stored
+ * instances and are not synchronized themselves.
+ */
 public class InMemoryTaskManager implements TaskManager {
 
-    protected final HashMap<Integer, Task> tasks;
-    protected final HashMap<Integer, SubTask> subTasks;
-    protected final HashMap<Integer, Epic> epics;
+    protected final TaskStore<Task> tasks;
+    protected final TaskStore<SubTask> subTasks;
+    protected final TaskStore<Epic> epics;
+    private final SearchIndex searchIndex = new SearchIndex();
+    private final IntMap<EpicAggregate> epicAggregates = new IntMap<>();
     private final HistoryManager historyManager;
+    private final Set<HistoryManager> attachedHistories = ConcurrentHashMap.newKeySet();
     protected int counterId = 0;
-    protected final TreeSet<Task> prioritizedTasks = new TreeSet<>(Comparator.comparing(Task::getStartDateTime));
+    protected final TreeSet<Task> prioritizedTasks = new TreeSet<>(Comparator.comparing(Task::getStartDateTime)
+            .thenComparing(Task::getEndDateTime)
+            .thenComparing(Task::getId));
+    protected final IntervalIndex intervalIndex = new IntervalIndex();
+    protected final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 
     public InMemoryTaskManager(HistoryManager historyManager) {
-        this.tasks = new HashMap<>();
-        this.subTasks = new HashMap<>();
-        this.epics = new HashMap<>();
+        this.tasks = new TaskStore<>(searchIndex);
+        this.subTasks = new TaskStore<>(searchIndex);
+        this.epics = new TaskStore<>(searchIndex);
         this.historyManager = historyManager;
     }
 
     @Override
     public List<Task> getPrioritizedTasks() {
-        return new ArrayList<>(prioritizedTasks);
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(prioritizedTasks);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        lock.readLock().lock();
+        try {
+            List<Task> window = new ArrayList<>();
+            intervalIndex.forEachIntersecting(from, to, window::add);
+            return window;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void forEachPrioritizedTask(LocalDateTime from, LocalDateTime to, Consumer<Task> action) {
+        lock.readLock().lock();
+        try {
+            intervalIndex.forEachIntersecting(from, to, action);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     @Override
     public List<Task> getHistory() {
-        return historyManager.getHistory();
+        lock.readLock().lock();
+        try {
+            return historyManager.getHistory();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     private int generateId() {
@@ -44,62 +92,219 @@ public class InMemoryTaskManager implements TaskManager {
     }
 
     @Override
-    public Task getTaskById(Integer id) {
-        Task task = tasks.get(id);
-        if (task == null) {
-            throw new NotFoundException("Task not found, id: " + id);
+    public void attachHistory(HistoryManager history) {
+        attachedHistories.add(history);
+    }
+
+    @Override
+    public void detachHistory(HistoryManager history) {
+        attachedHistories.remove(history);
+    }
+
+    private void removeFromHistory(Integer id) {
+        historyManager.remove(id);
+        for (HistoryManager history : attachedHistories) {
+            history.remove(id);
         }
-        historyManager.addTaskInHistory(task);
-        return task;
+    }
+
+    @Override
+    public Task getTaskById(Integer id) {
+        return getTaskById(id, historyManager);
     }
 
     @Override
     public SubTask getSubTaskById(Integer id) {
-        SubTask subTask = subTasks.get(id);
-        if (subTask != null) {
-            historyManager.addTaskInHistory(subTask);
-        } else {
-            throw new NotFoundException("Subtask not found, id: " + id);
-        }
-        return subTask;
+        return getSubTaskById(id, historyManager);
     }
 
     @Override
     public Epic getEpicById(Integer id) {
-        Epic epic = epics.get(id);
-        if (epic != null) {
-            historyManager.addTaskInHistory(epic);
-        } else {
-            throw new NotFoundException("Epic not found, id: " + id);
+        return getEpicById(id, historyManager);
+    }
+
+    @Override
+    public Task getTaskById(Integer id, HistoryManager history) {
+        lock.readLock().lock();
+        try {
+            Task task = tasks.get(id);
+            if (task == null) {
+                throw new NotFoundException("Task not found, id: " + id);
+            }
+            history.addTaskInHistory(task);
+            return task;
+        } finally {
+            lock.readLock().unlock();
         }
-        return epic;
     }
 
-    private boolean isTimeConflict(Task task1, Task task2) {
-        return (task1.getStartDateTime().isBefore(task2.getEndDateTime()) &&
-                task1.getEndDateTime().isAfter(task2.getStartDateTime()));
+    @Override
+    public SubTask getSubTaskById(Integer id, HistoryManager history) {
+        lock.readLock().lock();
+        try {
+            SubTask subTask = subTasks.get(id);
+            if (subTask != null) {
+                history.addTaskInHistory(subTask);
+            } else {
+                throw new NotFoundException("Subtask not found, id: " + id);
+            }
+            return subTask;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Epic getEpicById(Integer id, HistoryManager history) {
+        lock.readLock().lock();
+        try {
+            Epic epic = epics.get(id);
+            if (epic != null) {
+                history.addTaskInHistory(epic);
+            } else {
+                throw new NotFoundException("Epic not found, id: " + id);
+            }
+            return epic;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getTimeConflicts(Task task) {
+        lock.readLock().lock();
+        try {
+            if (task.getStartDateTime() == null) {
+                return new ArrayList<>();
+            }
+            return intervalIndex.findOverlapping(task);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        if (limit <= 0) {
+            throw new ValidationException("Search limit must be positive");
+        }
+        lock.readLock().lock();
+        try {
+            List<Task> found = new ArrayList<>();
+            for (Integer id : searchIndex.search(query, limit)) {
+                Task task = tasks.get(id);
+                if (task == null) {
+                    task = subTasks.get(id);
+                }
+                if (task == null) {
+                    task = epics.get(id);
+                }
+                if (task != null) {
+                    found.add(task);
+                }
+            }
+            return found;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     private void checkTimeIntersection(Task task) {
+        List<Task> conflicts = intervalIndex.findOverlapping(task);
+        if (!conflicts.isEmpty()) {
+            throw new ValidationException("Conflicts with task id:: " + conflicts.get(0).getId());
+        }
+    }
+
+    protected void schedule(Task task) {
+        prioritizedTasks.add(task);
+        intervalIndex.add(task);
+    }
+
+    protected void unschedule(Task task) {
+        prioritizedTasks.remove(task);
+        intervalIndex.remove(task);
+    }
 
-            prioritizedTasks.stream()
-                    .filter(pt -> !Objects.equals(pt.getId(), task.getId()))
-                    .filter(pt -> isTimeConflict(pt, task))
-                    .findFirst()
-                    .ifPresent(
-                            pt -> {
-                                throw new ValidationException("Conflicts with task id:: " + pt.getId());
-                            }
-                    );
+    private void unscheduleAll(Collection<? extends Task> scheduledTasks) {
+        for (Task task : scheduledTasks) {
+            if (task.getStartDateTime() != null) {
+                unschedule(task);
+            }
+        }
+    }
+
+    @Override
+    public List<LocalDateTime> findFreeSlots(Duration duration, LocalDateTime from, LocalDateTime to, int count) {
+        checkSlotRequest(duration, from, to);
+        if (count <= 0) {
+            throw new ValidationException("Slot count must be positive");
+        }
+        lock.readLock().lock();
+        try {
+            return intervalIndex.findFreeSlots(duration, from, to, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(Duration duration, LocalDateTime from, LocalDateTime to) {
+        List<LocalDateTime> slots = findFreeSlots(duration, from, to, 1);
+        return slots.isEmpty() ? null : slots.get(0);
+    }
+
+    private void checkSlotRequest(Duration duration, LocalDateTime from, LocalDateTime to) {
+        if (duration == null || duration.isNegative() || duration.isZero()) {
+            throw new ValidationException("Duration must be positive");
+        }
+        if (from == null) {
+            throw new ValidationException("Search window must have a start");
+        }
+        if (to != null && !from.isBefore(to)) {
+            throw new ValidationException("Search window start must be before its end");
+        }
+    }
+
+    /**
+     * Moves the task to the earliest free slot in [from, to) that fits its duration; the caller holds the write lock.
+     */
+    private void placeInFreeSlot(Task task, LocalDateTime from, LocalDateTime to) {
+        checkSlotRequest(task.getDuration(), from, to);
+        List<LocalDateTime> slots = intervalIndex.findFreeSlots(task.getDuration(), from, to, 1);
+        if (slots.isEmpty()) {
+            throw new ValidationException("No free slot for duration " + task.getDuration());
+        }
+        task.setStartDateTime(slots.get(0));
     }
 
     @Override
     public Task createTask(Task task) {
+        lock.writeLock().lock();
+        try {
+            return addTask(task);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Task createTaskInFreeSlot(Task task, LocalDateTime from, LocalDateTime to) {
+        lock.writeLock().lock();
+        try {
+            placeInFreeSlot(task, from, to);
+            return addTask(task);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Task addTask(Task task) {
         task.setId(generateId());
 
         if (task.getStartDateTime() != null) {
             checkTimeIntersection(task);
-            prioritizedTasks.add(task);
+            schedule(task);
         }
         tasks.put(task.getId(), task);
         return task;
@@ -107,11 +312,31 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public SubTask createSubTask(SubTask subTask) {
+        lock.writeLock().lock();
+        try {
+            return addSubTask(subTask);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public SubTask createSubTaskInFreeSlot(SubTask subTask, LocalDateTime from, LocalDateTime to) {
+        lock.writeLock().lock();
+        try {
+            placeInFreeSlot(subTask, from, to);
+            return addSubTask(subTask);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private SubTask addSubTask(SubTask subTask) {
         subTask.setId(generateId());
 
         if (subTask.getStartDateTime() != null) {
             checkTimeIntersection(subTask);
-            prioritizedTasks.add(subTask);
+            schedule(subTask);
         }
 
         subTasks.put(subTask.getId(), subTask);
@@ -119,7 +344,7 @@ public class InMemoryTaskManager implements TaskManager {
         if (epic == null) {
             throw new NotFoundException("Epic not found, id: " + subTask.getEpicId());
         }
-        epic.getSubTasksId().add(subTask.getId());
+        attachSubTask(epic, subTask);
 
         calculateEpicData(epic);
         return subTask;
@@ -127,253 +352,623 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public Epic createEpic(Epic epic) {
-        epic.setId(generateId());
-        epics.put(epic.getId(), epic);
-        calculateEpicData(epic);
-        return epic;
+        lock.writeLock().lock();
+        try {
+            epic.setId(generateId());
+            epics.put(epic.getId(), epic);
+            calculateEpicData(epic);
+            return epic;
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     @Override
     public void updateTask(Task task) {
-        Integer taskId = task.getId();
-        Task original = tasks.get(taskId);
-        if (tasks.containsKey(taskId)) {
-            if (task.getStartDateTime() != null) {
-                checkTimeIntersection(task);
-                if (original.getStartDateTime() != null) {
-                    prioritizedTasks.remove(original);
+        lock.writeLock().lock();
+        try {
+            Integer taskId = task.getId();
+            Task original = tasks.get(taskId);
+            if (tasks.containsKey(taskId)) {
+                if (task.getStartDateTime() != null) {
+                    checkTimeIntersection(task);
+                    if (original.getStartDateTime() != null) {
+                        unschedule(original);
+                    }
+                    schedule(task);
+                } else {
+                    if (original.getStartDateTime() != null) {
+                        unschedule(original);
+                    }
                 }
-                prioritizedTasks.add(task);
+                tasks.put(taskId, task);
             } else {
-                if (original.getStartDateTime() != null) {
-                    prioritizedTasks.remove(original);
-                }
+                throw new NotFoundException("Task not found, id: " + taskId);
             }
-            tasks.put(taskId, task);
-        } else {
-            throw new NotFoundException("Task not found, id: " + taskId);
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
     @Override
     public void updateSubTask(SubTask subTask) {
-        Integer subTaskId = subTask.getId();
-        SubTask changingSubTask = subTasks.get(subTaskId);
-        if (changingSubTask == null) {
-            throw new NotFoundException("Subtask not found, id: " + subTaskId);
-        }
-
-        if (subTask.getStartDateTime() != null) {
-            checkTimeIntersection(subTask);
-            if (changingSubTask.getStartDateTime() != null) {
-                prioritizedTasks.remove(changingSubTask);
+        lock.writeLock().lock();
+        try {
+            Integer subTaskId = subTask.getId();
+            SubTask changingSubTask = subTasks.get(subTaskId);
+            if (changingSubTask == null) {
+                throw new NotFoundException("Subtask not found, id: " + subTaskId);
             }
-            prioritizedTasks.add(subTask);
-        } else {
-            if (changingSubTask.getStartDateTime() != null) {
-                prioritizedTasks.remove(changingSubTask);
+
+            if (subTask.getStartDateTime() != null) {
+                checkTimeIntersection(subTask);
+                if (changingSubTask.getStartDateTime() != null) {
+                    unschedule(changingSubTask);
+                }
+                schedule(subTask);
+            } else {
+                if (changingSubTask.getStartDateTime() != null) {
+                    unschedule(changingSubTask);
+                }
             }
-        }
 
-        changingSubTask.setName(subTask.getName());
-        changingSubTask.setDescription(subTask.getDescription());
-        changingSubTask.setStatus(subTask.getStatus());
-        changingSubTask.setStartDateTime(subTask.getStartDateTime());
-        changingSubTask.setDuration(subTask.getDuration());
+            changingSubTask.setName(subTask.getName());
+            changingSubTask.setDescription(subTask.getDescription());
+            changingSubTask.setStatus(subTask.getStatus());
+            changingSubTask.setStartDateTime(subTask.getStartDateTime());
+            changingSubTask.setDuration(subTask.getDuration());
+            subTasks.reindex(changingSubTask);
 
-        Integer epicId = subTask.getEpicId();
-        Epic savedEpic = epics.get(epicId);
-        if (savedEpic == null) {
-            throw new NotFoundException("Epic not found, id: " + epicId);
-        }
+            getEpicAggregate(changingSubTask.getEpicId()).put(changingSubTask);
+
+            Integer epicId = changingSubTask.getEpicId();
+            Epic savedEpic = epics.get(epicId);
+            if (savedEpic == null) {
+                throw new NotFoundException("Epic not found, id: " + epicId);
+            }
 
-        calculateEpicData(savedEpic);
+            calculateEpicData(savedEpic);
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     @Override
     public void updateEpic(Epic epic) {
-        Epic changingEpic = epics.get(epic.getId());
-        if (changingEpic == null) {
-            throw new NotFoundException("Epic not found, id: " + epic.getId());
+        lock.writeLock().lock();
+        try {
+            Epic changingEpic = epics.get(epic.getId());
+            if (changingEpic == null) {
+                throw new NotFoundException("Epic not found, id: " + epic.getId());
+            }
+            changingEpic.setName(epic.getName());
+            changingEpic.setDescription(epic.getDescription());
+            epics.reindex(changingEpic);
+        } finally {
+            lock.writeLock().unlock();
         }
-        changingEpic.setName(epic.getName());
-        changingEpic.setDescription(epic.getDescription());
     }
 
     @Override
     public void deleteTaskById(Integer id) {
-        Task taskToRemove = tasks.remove(id);
-        if (taskToRemove == null) {
-            throw new NotFoundException("Task not found, id: " + id);
-        }
-        historyManager.remove(id);
-        if (taskToRemove.getStartDateTime() != null) {
-            prioritizedTasks.remove(taskToRemove);
+        lock.writeLock().lock();
+        try {
+            Task taskToRemove = tasks.remove(id);
+            if (taskToRemove == null) {
+                throw new NotFoundException("Task not found, id: " + id);
+            }
+            removeFromHistory(id);
+            if (taskToRemove.getStartDateTime() != null) {
+                unschedule(taskToRemove);
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
     @Override
     public void deleteSubTaskById(Integer id) {
-        SubTask subTaskToRemove = subTasks.remove(id);
-        if (subTaskToRemove == null) {
-            throw new NotFoundException("Subtask not found, id: " + id);
-        }
-        Epic epic = epics.get(subTaskToRemove.getEpicId());
-        if (epic == null) {
-            throw new NotFoundException("Epic not found, id: " + subTaskToRemove.getEpicId());
-        }
-        epic.getSubTasksId().remove(id);
-        historyManager.remove(id);
-        if (subTaskToRemove.getStartDateTime() != null) {
-            prioritizedTasks.remove(subTaskToRemove);
+        lock.writeLock().lock();
+        try {
+            SubTask subTaskToRemove = subTasks.remove(id);
+            if (subTaskToRemove == null) {
+                throw new NotFoundException("Subtask not found, id: " + id);
+            }
+            Epic epic = epics.get(subTaskToRemove.getEpicId());
+            if (epic == null) {
+                throw new NotFoundException("Epic not found, id: " + subTaskToRemove.getEpicId());
+            }
+            epic.getSubTasksId().remove(id);
+            getEpicAggregate(epic.getId()).remove(id);
+            removeFromHistory(id);
+            if (subTaskToRemove.getStartDateTime() != null) {
+                unschedule(subTaskToRemove);
+            }
+            calculateEpicData(epic);
+        } finally {
+            lock.writeLock().unlock();
         }
-        calculateEpicData(epic);
     }
 
     @Override
     public void deleteEpicById(Integer id) {
-        Epic epicToRemove = epics.get(id);
-        if (epicToRemove == null) {
-            throw new NotFoundException("Epic not found, id: " + id);
-        }
-        List<Integer> arrayList = epicToRemove.getSubTasksId();
-        for (Integer subTaskId : arrayList) {
-            try {
-                subTasks.remove(subTaskId);
-                historyManager.remove(subTaskId);
-            } catch (RuntimeException e) {
-                throw new NotFoundException("Subtask not found, id: " + subTaskId);
+        lock.writeLock().lock();
+        try {
+            Epic epicToRemove = epics.get(id);
+            if (epicToRemove == null) {
+                throw new NotFoundException("Epic not found, id: " + id);
             }
+            List<Integer> arrayList = epicToRemove.getSubTasksId();
+            for (Integer subTaskId : arrayList) {
+                try {
+                    SubTask subTaskToRemove = subTasks.remove(subTaskId);
+                    removeFromHistory(subTaskId);
+                    if (subTaskToRemove.getStartDateTime() != null) {
+                        unschedule(subTaskToRemove);
+                    }
+                } catch (RuntimeException e) {
+                    throw new NotFoundException("Subtask not found, id: " + subTaskId);
+                }
+            }
+            epics.remove(id);
+            epicAggregates.remove(id);
+            removeFromHistory(id);
+        } finally {
+            lock.writeLock().unlock();
         }
-        epics.remove(id);
-        historyManager.remove(id);
     }
 
     @Override
     public List<SubTask> getSubTasksByEpic(Epic epic) {
-
-        return epic.getSubTasksId()
-                .stream()
-                .map(subTasks::get)
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return epic.getSubTasksId()
+                    .stream()
+                    .map(subTasks::get)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     @Override
     public List<Task> getTasksList() {
-        return new ArrayList<>(tasks.values());
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(tasks.values());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     @Override
     public List<SubTask> getSubTasksList() {
-        return new ArrayList<>(subTasks.values());
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(subTasks.values());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     @Override
     public List<Epic> getEpicList() {
-        return new ArrayList<>(epics.values());
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(epics.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        return withStatus(tasks, status);
+    }
+
+    @Override
+    public List<SubTask> getSubTasksByStatus(Status status) {
+        return withStatus(subTasks, status);
+    }
+
+    @Override
+    public List<Epic> getEpicsByStatus(Status status) {
+        return withStatus(epics, status);
+    }
+
+    private <T extends Task> List<T> withStatus(TaskStore<T> store, Status status) {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(store.withStatus(status));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Page<Task> getTasksPage(Integer cursor, int limit) {
+        return page(tasks, null, cursor, limit);
+    }
+
+    @Override
+    public Page<SubTask> getSubTasksPage(Integer cursor, int limit) {
+        return page(subTasks, null, cursor, limit);
+    }
+
+    @Override
+    public Page<Epic> getEpicsPage(Integer cursor, int limit) {
+        return page(epics, null, cursor, limit);
+    }
+
+    @Override
+    public Page<Task> getTasksPage(Status status, Integer cursor, int limit) {
+        return page(tasks, status, cursor, limit);
+    }
+
+    @Override
+    public Page<SubTask> getSubTasksPage(Status status, Integer cursor, int limit) {
+        return page(subTasks, status, cursor, limit);
+    }
+
+    @Override
+    public Page<Epic> getEpicsPage(Status status, Integer cursor, int limit) {
+        return page(epics, status, cursor, limit);
+    }
+
+    private <T extends Task> Page<T> page(TaskStore<T> store, Status status, Integer cursor, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page limit must be positive: " + limit);
+        }
+        lock.readLock().lock();
+        try {
+            Iterator<T> iterator = store.iterator(status, cursor);
+            List<T> items = new ArrayList<>(Math.min(limit, store.size()));
+            while (items.size() < limit && iterator.hasNext()) {
+                items.add(iterator.next());
+            }
+            Integer nextCursor = iterator.hasNext() ? items.get(items.size() - 1).getId() : null;
+            return new Page<>(items, nextCursor);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     @Override
     public void deleteAllTasks() {
-        for (Integer id : tasks.keySet()) {
-            historyManager.remove(id);
+        lock.writeLock().lock();
+        try {
+            for (Task task : tasks.values()) {
+                removeFromHistory(task.getId());
+            }
+            unscheduleAll(tasks.values());
+            tasks.clear();
+        } finally {
+            lock.writeLock().unlock();
         }
-        prioritizedTasks.removeAll(tasks.values());
-        tasks.clear();
     }
 
     @Override
     public void deleteAllSubTasks() {
-        for (Integer id : subTasks.keySet()) {
-            historyManager.remove(id);
-        }
-        prioritizedTasks.removeAll(subTasks.values());
-        subTasks.clear();
-        for (Epic epic : epics.values()) {
-            epic.getSubTasksId().clear();
-            calculateEpicData(epic);
+        lock.writeLock().lock();
+        try {
+            for (SubTask subTask : subTasks.values()) {
+                removeFromHistory(subTask.getId());
+            }
+            unscheduleAll(subTasks.values());
+            subTasks.clear();
+            for (Epic epic : epics.values()) {
+                epic.getSubTasksId().clear();
+                getEpicAggregate(epic.getId()).clear();
+                calculateEpicData(epic);
+            }
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
     @Override
     public void deleteAllEpics() {
-        for (Integer id : epics.keySet()) {
-            historyManager.remove(id);
+        lock.writeLock().lock();
+        try {
+            for (Epic epic : epics.values()) {
+                removeFromHistory(epic.getId());
+            }
+            for (SubTask subTask : subTasks.values()) {
+                removeFromHistory(subTask.getId());
+            }
+            epics.clear();
+            epicAggregates.clear();
+            unscheduleAll(subTasks.values());
+            subTasks.clear();
+        } finally {
+            lock.writeLock().unlock();
         }
-        for (Integer id : subTasks.keySet()) {
-            historyManager.remove(id);
+    }
+
+    /**
+     * Applies the operations in order under one write lock. Each step is validated before it changes anything
+     * and records how to undo itself; if a step fails, the applied ones are undone in reverse order and the
+     * exception is rethrown. Affected epics are recalculated and deleted ids leave the histories once, after
+     * the last step.
+     */
+    @Override
+    public List<Task> applyBatch(List<BatchOperation> operations) {
+        lock.writeLock().lock();
+        try {
+            Batch batch = new Batch(counterId);
+            List<Task> results = new ArrayList<>(operations.size());
+            try {
+                for (BatchOperation operation : operations) {
+                    results.add(apply(operation, batch));
+                }
+            } catch (RuntimeException exp) {
+                while (!batch.undo.isEmpty()) {
+                    batch.undo.pop().run();
+                }
+                counterId = batch.counterId;
+                throw exp;
+            }
+            for (Epic epic : batch.affectedEpics) {
+                if (epics.get(epic.getId()) == epic) {
+                    calculateEpicData(epic);
+                }
+            }
+            for (Integer id : batch.removedIds) {
+                removeFromHistory(id);
+            }
+            return results;
+        } finally {
+            lock.writeLock().unlock();
         }
-        epics.clear();
-        prioritizedTasks.removeAll(subTasks.values());
-        subTasks.clear();
     }
 
-    private boolean isEpicNEW(Epic epic) {
-        int counter = 0;
-        List<Integer> subTasksIdInEpic = epic.getSubTasksId();
+    private static class Batch {
+        final int counterId;
+        final Deque<Runnable> undo = new ArrayDeque<>();
+        final Set<Epic> affectedEpics = Collections.newSetFromMap(new IdentityHashMap<>());
+        final List<Integer> removedIds = new ArrayList<>();
+        final Set<Epic> savedSubTaskIds = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        Batch(int counterId) {
+            this.counterId = counterId;
+        }
+    }
+
+    private Task apply(BatchOperation operation, Batch batch) {
+        switch (operation.getAction()) {
+            case CREATE:
+                return applyCreate(operation.getEntity(), batch);
+            case UPDATE:
+                return applyUpdate(operation.getEntity(), batch);
+            case DELETE:
+                applyDelete(operation.getType(), operation.getId(), batch);
+                return null;
+            default:
+                throw new IllegalArgumentException("Unknown batch action: " + operation.getAction());
+        }
+    }
 
-        for (Integer subTaskId : subTasksIdInEpic) {
-            if (subTasks.get(subTaskId).getStatus() == Status.NEW) {
-                counter++;
+    private Task applyCreate(Task task, Batch batch) {
+        switch (task.getType()) {
+            case EPIC: {
+                Epic epic = (Epic) task;
+                epic.setId(generateId());
+                epics.put(epic.getId(), epic);
+                batch.affectedEpics.add(epic);
+                batch.undo.push(() -> {
+                    epics.remove(epic.getId());
+                    epicAggregates.remove(epic.getId());
+                });
+                return epic;
+            }
+            case SUBTASK: {
+                SubTask subTask = (SubTask) task;
+                Epic epic = epics.get(subTask.getEpicId());
+                if (epic == null) {
+                    throw new NotFoundException("Epic not found, id: " + subTask.getEpicId());
+                }
+                if (subTask.getStartDateTime() != null) {
+                    checkTimeIntersection(subTask);
+                }
+                subTask.setId(generateId());
+                scheduleInBatch(subTask, batch);
+                saveSubTaskIds(epic, batch);
+                subTasks.put(subTask.getId(), subTask);
+                attachSubTask(epic, subTask);
+                batch.affectedEpics.add(epic);
+                batch.undo.push(() -> {
+                    subTasks.remove(subTask.getId());
+                    getEpicAggregate(epic.getId()).remove(subTask.getId());
+                });
+                return subTask;
+            }
+            default: {
+                if (task.getStartDateTime() != null) {
+                    checkTimeIntersection(task);
+                }
+                task.setId(generateId());
+                scheduleInBatch(task, batch);
+                tasks.put(task.getId(), task);
+                batch.undo.push(() -> tasks.remove(task.getId()));
+                return task;
             }
         }
-        return counter == subTasksIdInEpic.size();
     }
 
-    private boolean isEpicDONE(Epic epic) {
-        int counter = 0;
-        List<Integer> subTasksIdInEpic = epic.getSubTasksId();
-        if (subTasksIdInEpic.isEmpty()) {
-            return false;
-        } else {
-            for (Integer subTaskId : subTasksIdInEpic) {
-                if (subTasks.get(subTaskId).getStatus() == Status.DONE) {
-                    counter++;
+    private Task applyUpdate(Task task, Batch batch) {
+        switch (task.getType()) {
+            case EPIC: {
+                Epic stored = epics.get(task.getId());
+                if (stored == null) {
+                    throw new NotFoundException("Epic not found, id: " + task.getId());
                 }
+                String name = stored.getName();
+                String description = stored.getDescription();
+                stored.setName(task.getName());
+                stored.setDescription(task.getDescription());
+                epics.reindex(stored);
+                batch.undo.push(() -> {
+                    stored.setName(name);
+                    stored.setDescription(description);
+                    epics.reindex(stored);
+                });
+                return stored;
+            }
+            case SUBTASK: {
+                SubTask stored = subTasks.get(task.getId());
+                if (stored == null) {
+                    throw new NotFoundException("Subtask not found, id: " + task.getId());
+                }
+                Epic epic = epics.get(stored.getEpicId());
+                if (epic == null) {
+                    throw new NotFoundException("Epic not found, id: " + stored.getEpicId());
+                }
+                if (task.getStartDateTime() != null) {
+                    checkTimeIntersection(task);
+                }
+                SubTask previous = new SubTask(stored.getId(), stored.getName(), stored.getStatus(),
+                        stored.getDescription(), stored.getEpicId(), stored.getStartDateTime(), stored.getDuration());
+                unscheduleInBatch(stored, batch);
+                batch.undo.push(() -> {
+                    copyFields(previous, stored);
+                    getEpicAggregate(epic.getId()).put(stored);
+                });
+                copyFields(task, stored);
+                scheduleInBatch(stored, batch);
+                getEpicAggregate(epic.getId()).put(stored);
+                batch.affectedEpics.add(epic);
+                return stored;
+            }
+            default: {
+                Task original = tasks.get(task.getId());
+                if (original == null) {
+                    throw new NotFoundException("Task not found, id: " + task.getId());
+                }
+                if (task.getStartDateTime() != null) {
+                    checkTimeIntersection(task);
+                }
+                unscheduleInBatch(original, batch);
+                scheduleInBatch(task, batch);
+                tasks.put(task.getId(), task);
+                batch.undo.push(() -> tasks.put(original.getId(), original));
+                return task;
             }
-            return counter == subTasksIdInEpic.size();
         }
     }
 
-    protected void calculateEpicData(Epic epic) {
-        epic.setStatus(getEpicStatus(epic));
-        epic.setStartDateTime(getEpicStartDateTime(epic).orElse(null));
-        epic.setEndDateTime(getEpicEndDateTime(epic).orElse(null));
-        epic.setDuration(getEpicDuration(epic).orElse(null));
+    /**
+     * Copies the epic's subtask ids the first time the batch changes them; rolling back restores the copy, which
+     * keeps a batch of subtask deletes from searching the list for each position.
+     */
+    private void saveSubTaskIds(Epic epic, Batch batch) {
+        if (batch.savedSubTaskIds.add(epic)) {
+            List<Integer> saved = new ArrayList<>(epic.getSubTasksId());
+            batch.undo.push(() -> {
+                epic.getSubTasksId().clear();
+                epic.getSubTasksId().addAll(saved);
+            });
+        }
+    }
+
+    private void applyDelete(TaskType type, Integer id, Batch batch) {
+        switch (type) {
+            case EPIC: {
+                Epic epic = epics.get(id);
+                if (epic == null) {
+                    throw new NotFoundException("Epic not found, id: " + id);
+                }
+                for (Integer subTaskId : epic.getSubTasksId()) {
+                    SubTask subTask = subTasks.remove(subTaskId);
+                    if (subTask == null) {
+                        throw new NotFoundException("Subtask not found, id: " + subTaskId);
+                    }
+                    unscheduleInBatch(subTask, batch);
+                    batch.undo.push(() -> subTasks.put(subTaskId, subTask));
+                    batch.removedIds.add(subTaskId);
+                }
+                epics.remove(id);
+                EpicAggregate aggregate = epicAggregates.remove(id);
+                batch.undo.push(() -> {
+                    epics.put(id, epic);
+                    if (aggregate != null) {
+                        epicAggregates.put(id, aggregate);
+                    }
+                });
+                break;
+            }
+            case SUBTASK: {
+                SubTask subTask = subTasks.get(id);
+                if (subTask == null) {
+                    throw new NotFoundException("Subtask not found, id: " + id);
+                }
+                Epic epic = epics.get(subTask.getEpicId());
+                if (epic == null) {
+                    throw new NotFoundException("Epic not found, id: " + subTask.getEpicId());
+                }
+                saveSubTaskIds(epic, batch);
+                subTasks.remove(id);
+                epic.getSubTasksId().remove(id);
+                getEpicAggregate(epic.getId()).remove(id);
+                unscheduleInBatch(subTask, batch);
+                batch.affectedEpics.add(epic);
+                batch.undo.push(() -> {
+                    subTasks.put(id, subTask);
+                    getEpicAggregate(epic.getId()).put(subTask);
+                });
+                break;
+            }
+            default: {
+                Task task = tasks.remove(id);
+                if (task == null) {
+                    throw new NotFoundException("Task not found, id: " + id);
+                }
+                unscheduleInBatch(task, batch);
+                batch.undo.push(() -> tasks.put(id, task));
+                break;
+            }
+        }
+        batch.removedIds.add(id);
     }
 
-    private Status getEpicStatus(Epic epic) {
+    private void scheduleInBatch(Task task, Batch batch) {
+        if (task.getStartDateTime() != null) {
+            schedule(task);
+            batch.undo.push(() -> unschedule(task));
+        }
+    }
 
-        if (epic.getSubTasksId().isEmpty() || isEpicNEW(epic)) {
-            return Status.NEW;
-        } else if (isEpicDONE(epic)) {
-            return Status.DONE;
-        } else {
-            return Status.IN_PROGRESS;
+    private void unscheduleInBatch(Task task, Batch batch) {
+        if (task.getStartDateTime() != null) {
+            unschedule(task);
+            batch.undo.push(() -> schedule(task));
         }
     }
 
-    private Optional<LocalDateTime> getEpicStartDateTime(Epic epic) {
-        return epic.getSubTasksId().stream()
-                .map(subTasks::get)
-                .map(SubTask::getStartDateTime)
-                .filter(Objects::nonNull)
-                .min(Comparator.naturalOrder());
+    private void copyFields(Task source, SubTask target) {
+        target.setName(source.getName());
+        target.setDescription(source.getDescription());
+        target.setStatus(source.getStatus());
+        target.setStartDateTime(source.getStartDateTime());
+        target.setDuration(source.getDuration());
+        subTasks.reindex(target);
     }
 
-    private Optional<LocalDateTime> getEpicEndDateTime(Epic epic) {
-        return epic.getSubTasksId().stream()
-                .map(subTasks::get)
-                .map(SubTask::getEndDateTime)
-                .filter(Objects::nonNull)
-                .max(Comparator.naturalOrder());
+    protected void attachSubTask(Epic epic, SubTask subTask) {
+        epic.getSubTasksId().add(subTask.getId());
+        getEpicAggregate(epic.getId()).put(subTask);
     }
 
-    private Optional<Duration> getEpicDuration(Epic epic) {
-        return epic.getSubTasksId().stream()
-                .map(subTasks::get)
-                .map(SubTask::getDuration)
-                .filter(Objects::nonNull)
-                .reduce(Duration::plus);
+    protected EpicAggregate getEpicAggregate(int epicId) {
+        EpicAggregate aggregate = epicAggregates.get(epicId);
+        if (aggregate == null) {
+            aggregate = new EpicAggregate();
+            epicAggregates.put(epicId, aggregate);
+        }
+        return aggregate;
+    }
+
+    protected void calculateEpicData(Epic epic) {
+        getEpicAggregate(epic.getId()).applyTo(epic);
+        epics.reindex(epic);
     }
 }
@@ -0,0 +1,112 @@
+package manager.task;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from int keys to positive int values, laid out like {@link IntMap}; a zero value marks a free slot,
+ * so lookups of absent keys return 0.
+ */
+class IntIntMap {
+
+    interface Visitor {
+        void visit(int key, int value);
+    }
+
+    private static final int MIN_CAPACITY = 8;
+
+    private int[] keys = new int[MIN_CAPACITY];
+    private int[] values = new int[MIN_CAPACITY];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int get(int key) {
+        int mask = keys.length - 1;
+        for (int slot = IntMap.slot(key, mask); values[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return 0;
+    }
+
+    void put(int key, int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("IntIntMap stores positive values only: " + value);
+        }
+        int mask = keys.length - 1;
+        int slot = IntMap.slot(key, mask);
+        for (; values[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+    }
+
+    void remove(int key) {
+        int mask = keys.length - 1;
+        for (int slot = IntMap.slot(key, mask); values[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                shiftBack(slot, mask);
+                size--;
+                return;
+            }
+        }
+    }
+
+    void clear() {
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    void forEach(Visitor visitor) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (values[slot] != 0) {
+                visitor.visit(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    private void shiftBack(int removed, int mask) {
+        int gap = removed;
+        for (int slot = (gap + 1) & mask; values[slot] != 0; slot = (slot + 1) & mask) {
+            int home = IntMap.slot(keys[slot], mask);
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        values[gap] = 0;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != 0) {
+                int slot = IntMap.slot(oldKeys[i], mask);
+                while (values[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package manager.task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Map from int keys to non-null values in key order, stored in blocks of at most BLOCK_SIZE sorted keys with their
+ * values alongside. Finding a key is a binary search over the blocks and then within one, and adding or removing
+ * shifts at most one block, so each costs O(log n + B), while iteration reads the arrays in order and an entry
+ * costs eight to sixteen bytes instead of a tree node and a boxed key. Keys appended in ascending order,
+ * as new ids are, fill whole blocks. A block that falls below a quarter full after a removal is merged into its
+ * neighbour, or takes entries from it when the two do not fit in one block, so deletes do not leave sparse blocks.
+ */
+class IntSortedMap<V> {
+
+    private static final int BLOCK_SIZE = 512;
+    private static final int MIN_BLOCK_SIZE = BLOCK_SIZE / 4;
+
+    private static class Block {
+        final int[] keys = new int[BLOCK_SIZE];
+        final Object[] values = new Object[BLOCK_SIZE];
+        int size;
+    }
+
+    private final ArrayList<Block> blocks = new ArrayList<>();
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds or replaces the value of the key; returns true if the key was new.
+     */
+    boolean put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("IntSortedMap does not store null values");
+        }
+        if (blocks.isEmpty()) {
+            blocks.add(new Block());
+        }
+        int blockIndex = findBlock(key);
+        Block block = blocks.get(blockIndex);
+        int position = search(block, key);
+        if (position >= 0) {
+            block.values[position] = value;
+            return false;
+        }
+        position = -position - 1;
+        if (block.size == BLOCK_SIZE && position == BLOCK_SIZE && blockIndex == blocks.size() - 1) {
+            block = new Block();
+            blocks.add(block);
+            position = 0;
+        } else if (block.size == BLOCK_SIZE) {
+            Block upper = new Block();
+            int half = BLOCK_SIZE / 2;
+            System.arraycopy(block.keys, half, upper.keys, 0, BLOCK_SIZE - half);
+            System.arraycopy(block.values, half, upper.values, 0, BLOCK_SIZE - half);
+            Arrays.fill(block.values, half, BLOCK_SIZE, null);
+            upper.size = BLOCK_SIZE - half;
+            block.size = half;
+            blocks.add(blockIndex + 1, upper);
+            if (position > half) {
+                block = upper;
+                position -= half;
+            }
+        }
+        System.arraycopy(block.keys, position, block.keys, position + 1, block.size - position);
+        System.arraycopy(block.values, position, block.values, position + 1, block.size - position);
+        block.keys[position] = key;
+        block.values[position] = value;
+        block.size++;
+        size++;
+        return true;
+    }
+
+    boolean remove(int key) {
+        if (blocks.isEmpty()) {
+            return false;
+        }
+        int blockIndex = findBlock(key);
+        Block block = blocks.get(blockIndex);
+        int position = search(block, key);
+        if (position < 0) {
+            return false;
+        }
+        System.arraycopy(block.keys, position + 1, block.keys, position, block.size - position - 1);
+        System.arraycopy(block.values, position + 1, block.values, position, block.size - position - 1);
+        block.size--;
+        block.values[block.size] = null;
+        size--;
+        if (block.size == 0) {
+            blocks.remove(blockIndex);
+        } else if (block.size < MIN_BLOCK_SIZE && blocks.size() > 1) {
+            rebalance(blockIndex < blocks.size() - 1 ? blockIndex : blockIndex - 1);
+        }
+        return true;
+    }
+
+    boolean containsKey(int key) {
+        return !blocks.isEmpty() && search(blocks.get(findBlock(key)), key) >= 0;
+    }
+
+    void clear() {
+        blocks.clear();
+        size = 0;
+    }
+
+    /**
+     * Iterates the values in key order, all of them or only those with keys greater than after when it is not null.
+     * The map must not change during the iteration.
+     */
+    Iterator<V> values(Integer after) {
+        int startBlock = 0;
+        int startPosition = 0;
+        if (after != null && !blocks.isEmpty()) {
+            startBlock = findBlock(after);
+            int position = search(blocks.get(startBlock), after);
+            startPosition = position >= 0 ? position + 1 : -position - 1;
+        }
+        int firstBlock = startBlock;
+        int firstPosition = startPosition;
+        return new Iterator<>() {
+            private int blockIndex = firstBlock;
+            private int position = firstPosition;
+
+            @Override
+            public boolean hasNext() {
+                while (blockIndex < blocks.size() && position >= blocks.get(blockIndex).size) {
+                    blockIndex++;
+                    position = 0;
+                }
+                return blockIndex < blocks.size();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public V next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return (V) blocks.get(blockIndex).values[position++];
+            }
+        };
+    }
+
+    int blockCount() {
+        return blocks.size();
+    }
+
+    /**
+     * Merges the block at lowerIndex with the next one, or splits their entries evenly when they do not fit in one.
+     */
+    private void rebalance(int lowerIndex) {
+        Block lower = blocks.get(lowerIndex);
+        Block upper = blocks.get(lowerIndex + 1);
+        int total = lower.size + upper.size;
+        if (total <= BLOCK_SIZE) {
+            System.arraycopy(upper.keys, 0, lower.keys, lower.size, upper.size);
+            System.arraycopy(upper.values, 0, lower.values, lower.size, upper.size);
+            lower.size = total;
+            blocks.remove(lowerIndex + 1);
+            return;
+        }
+        int half = total / 2;
+        if (lower.size < half) {
+            int moved = half - lower.size;
+            System.arraycopy(upper.keys, 0, lower.keys, lower.size, moved);
+            System.arraycopy(upper.values, 0, lower.values, lower.size, moved);
+            System.arraycopy(upper.keys, moved, upper.keys, 0, upper.size - moved);
+            System.arraycopy(upper.values, moved, upper.values, 0, upper.size - moved);
+            Arrays.fill(upper.values, upper.size - moved, upper.size, null);
+            upper.size -= moved;
+        } else {
+            int moved = lower.size - half;
+            System.arraycopy(upper.keys, 0, upper.keys, moved, upper.size);
+            System.arraycopy(upper.values, 0, upper.values, moved, upper.size);
+            System.arraycopy(lower.keys, half, upper.keys, 0, moved);
+            System.arraycopy(lower.values, half, upper.values, 0, moved);
+            Arrays.fill(lower.values, half, lower.size, null);
+            upper.size += moved;
+        }
+        lower.size = half;
+    }
+
+    /**
+     * Returns the last block starting at or below the key, or the first block.
+     */
+    private int findBlock(int key) {
+        int low = 0;
+        int high = blocks.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (blocks.get(middle).keys[0] <= key) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private static int search(Block block, int key) {
+        int low = 0;
+        int high = block.size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int current = block.keys[middle];
+            if (current < key) {
+                low = middle + 1;
+            } else if (current > key) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+}
@@ -0,0 +1,165 @@
+package manager.task;
+
+import model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Index of scheduled tasks ordered by start time, then end and id, so zero-duration tasks sharing a start with
+ * another task keep their own entries. The manager never accepts overlapping tasks, so this order also orders by end:
+ * an overlap query walks back from the probe end and stops at the first task that finishes
+ * before the probe starts, which costs O(log n + k) for k conflicting tasks.
+ * The free time between tasks is kept in a {@link GapIndex} for slot searches.
+ */
+class IntervalIndex {
+
+    static class Interval {
+        final LocalDateTime start;
+        final LocalDateTime end;
+        final int id;
+        final Task task;
+
+        Interval(Task task) {
+            this.start = task.getStartDateTime();
+            this.end = task.getEndDateTime();
+            this.id = task.getId();
+            this.task = task;
+        }
+
+        /**
+         * Creates a search key that sorts before every interval starting at the given time.
+         */
+        Interval(LocalDateTime start) {
+            this.start = start;
+            this.end = LocalDateTime.MIN;
+            this.id = Integer.MIN_VALUE;
+            this.task = null;
+        }
+    }
+
+    static final Comparator<Interval> ORDER = Comparator.<Interval, LocalDateTime>comparing(
+                    interval -> interval.start)
+            .thenComparing(interval -> interval.end)
+            .thenComparingInt(interval -> interval.id);
+
+    private final TreeSet<Interval> byStart = new TreeSet<>(ORDER);
+    private final IntMap<Interval> byId = new IntMap<>();
+    private final GapIndex gaps = new GapIndex();
+
+    void add(Task task) {
+        remove(task);
+        Interval interval = new Interval(task);
+        byStart.add(interval);
+        byId.put(interval.id, interval);
+
+        Interval previous = byStart.lower(interval);
+        gaps.put(interval, previous == null ? null : previous.end);
+        Interval next = byStart.higher(interval);
+        if (next != null) {
+            gaps.put(next, interval.end);
+        }
+    }
+
+    void remove(Task task) {
+        Interval interval = byId.remove(task.getId());
+        if (interval != null && byStart.remove(interval)) {
+            gaps.remove(interval);
+            Interval next = byStart.higher(interval);
+            if (next != null) {
+                Interval previous = byStart.lower(interval);
+                gaps.put(next, previous == null ? null : previous.end);
+            }
+        }
+    }
+
+    List<Task> findOverlapping(Task task) {
+        LocalDateTime start = task.getStartDateTime();
+        LocalDateTime end = task.getEndDateTime();
+        List<Task> overlapping = new ArrayList<>();
+
+        for (Interval scheduled : byStart.headSet(new Interval(end), false).descendingSet()) {
+            if (!scheduled.end.isAfter(start)) {
+                break;
+            }
+            if (task.getId() == null || scheduled.id != task.getId()) {
+                overlapping.add(scheduled.task);
+            }
+        }
+        Collections.reverse(overlapping);
+        return overlapping;
+    }
+
+    /**
+     * Passes the tasks intersecting [from, to) to the action in start order; a null bound is open.
+     * Only the task starting before the window can reach into it, so this costs O(log n + k).
+     */
+    void forEachIntersecting(LocalDateTime from, LocalDateTime to, Consumer<Task> action) {
+        NavigableSet<Interval> window = byStart;
+        if (from != null) {
+            Interval before = byStart.lower(new Interval(from));
+            if (before != null && before.end.isAfter(from) && (to == null || before.start.isBefore(to))) {
+                action.accept(before.task);
+            }
+            window = window.tailSet(new Interval(from), true);
+        }
+        if (to != null) {
+            window = window.headSet(new Interval(to), false);
+        }
+        for (Interval interval : window) {
+            action.accept(interval.task);
+        }
+    }
+
+    /**
+     * Returns up to count start times, one per gap in time order, where the duration fits between
+     * the scheduled tasks inside [from, to); a null to is open. Each probe costs O(log n).
+     */
+    List<LocalDateTime> findFreeSlots(Duration duration, LocalDateTime from, LocalDateTime to, int count) {
+        List<LocalDateTime> slots = new ArrayList<>();
+        long length = GapIndex.nanos(duration);
+        LocalDateTime cursor = from;
+        Interval previous = byStart.lower(new Interval(from));
+        if (previous != null && previous.end.isAfter(from)) {
+            cursor = previous.end;
+        }
+
+        Interval next = byStart.ceiling(new Interval(cursor));
+        if (next == null) {
+            addSlot(slots, cursor, duration, to);
+            return slots;
+        }
+        if (!cursor.plus(duration).isAfter(next.start) && !addSlot(slots, cursor, duration, to)) {
+            return slots;
+        }
+        Interval searchAfter = next;
+        while (slots.size() < count) {
+            GapIndex.Gap gap = gaps.findFirst(searchAfter, length);
+            if (gap == null) {
+                addSlot(slots, byStart.last().end, duration, to);
+                break;
+            }
+            if (!addSlot(slots, gap.start, duration, to)) {
+                break;
+            }
+            searchAfter = gap.next;
+        }
+        return slots;
+    }
+
+    private static boolean addSlot(List<LocalDateTime> slots, LocalDateTime start, Duration duration,
+                                   LocalDateTime to) {
+        if (to != null && start.plus(duration).isAfter(to)) {
+            return false;
+        }
+        slots.add(start);
+        return true;
+    }
+}
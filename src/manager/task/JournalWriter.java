@@ -0,0 +1,140 @@
+package manager.task;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Appends journal records according to a {@link DurabilityPolicy}.
+ * With SYNC_BATCH a committer thread collects the records queued by all writers during the
+ * commit window and persists them with one write and one force.
+ */
+class JournalWriter implements Closeable {
+
+    private static class PendingWrite {
+        final byte[] bytes;
+        final CompletableFuture<Void> commit = new CompletableFuture<>();
+
+        PendingWrite(byte[] bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    private static final PendingWrite CLOSE = new PendingWrite(new byte[0]);
+
+    private final FileChannel channel;
+    private final DurabilityPolicy policy;
+    private final long windowNanos;
+    private final AtomicLong writtenBytes;
+    private final AtomicLong syncs;
+    private final LinkedBlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final Thread committer;
+
+    JournalWriter(File file, DurabilityPolicy policy, Duration window, AtomicLong writtenBytes, AtomicLong syncs)
+            throws IOException {
+        this.channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.policy = policy;
+        this.windowNanos = window.toNanos();
+        this.writtenBytes = writtenBytes;
+        this.syncs = syncs;
+        if (policy == DurabilityPolicy.SYNC_BATCH) {
+            committer = new Thread(this::runCommitter, "journal-committer");
+            committer.setDaemon(true);
+            committer.start();
+        } else {
+            committer = null;
+        }
+    }
+
+    CompletableFuture<Void> append(byte[] record) {
+        PendingWrite write = new PendingWrite(record);
+        if (committer != null) {
+            queue.add(write);
+        } else {
+            synchronized (this) {
+                writeBatch(List.of(write));
+            }
+        }
+        return write.commit;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (committer != null) {
+            queue.add(CLOSE);
+            try {
+                committer.join();
+            } catch (InterruptedException exp) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        channel.close();
+    }
+
+    private void runCommitter() {
+        List<PendingWrite> batch = new ArrayList<>();
+        boolean closing = false;
+        while (!closing) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + windowNanos;
+                long remaining;
+                while (batch.get(batch.size() - 1) != CLOSE && (remaining = deadline - System.nanoTime()) > 0) {
+                    PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                queue.drainTo(batch);
+            } catch (InterruptedException exp) {
+                closing = true;
+            }
+            closing |= batch.remove(CLOSE);
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingWrite> batch) {
+        ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+        long size = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.wrap(batch.get(i).bytes);
+            size += buffers[i].remaining();
+        }
+        try {
+            long written = 0;
+            while (written < size) {
+                written += channel.write(buffers);
+            }
+            writtenBytes.addAndGet(size);
+            if (policy != DurabilityPolicy.OS_BUFFERED) {
+                channel.force(false);
+                syncs.incrementAndGet();
+            }
+        } catch (IOException exp) {
+            for (PendingWrite write : batch) {
+                write.commit.completeExceptionally(new UncheckedIOException(exp));
+            }
+            return;
+        }
+        for (PendingWrite write : batch) {
+            write.commit.complete(null);
+        }
+    }
+}
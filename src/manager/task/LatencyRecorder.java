@@ -0,0 +1,39 @@
+package manager.task;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Keeps the latest latency samples in a ring buffer to report percentiles.
+ */
+class LatencyRecorder {
+
+    private final long[] samples;
+    private int count;
+    private int next;
+
+    LatencyRecorder(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+    }
+
+    Duration percentile(double percentile) {
+        long[] sorted;
+        synchronized (this) {
+            if (count == 0) {
+                return Duration.ZERO;
+            }
+            sorted = Arrays.copyOf(samples, count);
+        }
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return Duration.ofNanos(sorted[Math.max(index, 0)]);
+    }
+}
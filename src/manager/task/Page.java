@@ -0,0 +1,25 @@
+package manager.task;
+
+import java.util.List;
+
+/**
+ * A slice of a listing in id order. The next cursor is the id of the last item and is null on the last page.
+ */
+public class Page<T> {
+
+    private final List<T> items;
+    private final Integer nextCursor;
+
+    public Page(List<T> items, Integer nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public Integer getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,6 @@
+package manager.task;
+
+public enum PersistenceMode {
+    SNAPSHOT,
+    JOURNAL
+}
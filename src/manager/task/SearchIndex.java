@@ -0,0 +1,262 @@
+package manager.task;
+
+import model.Task;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Inverted index over task names and descriptions, shared by the three stores and updated with them.
+ * Text is split into lower-cased runs of letters and digits. A query matches tasks containing all of its terms;
+ * a term ending with '*' matches any indexed term with that prefix. Matches are ranked by tf-idf,
+ * with a term in the name counting twice as much as one in the description.
+ */
+class SearchIndex {
+
+    private static final int NAME_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int MAX_PREFIX_PROBES = 16;
+
+    private static class Document {
+        final String name;
+        final String description;
+        final String[] terms;
+
+        Document(String name, String description, String[] terms) {
+            this.name = name;
+            this.description = description;
+            this.terms = terms;
+        }
+    }
+
+    private static class QueryTerm {
+        final String text;
+        final boolean prefix;
+
+        QueryTerm(String text, boolean prefix) {
+            this.text = text;
+            this.prefix = prefix;
+        }
+    }
+
+    private static class Match {
+        final int id;
+        final double score;
+
+        Match(int id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+
+    private static final Comparator<Match> RANKING = Comparator.<Match>comparingDouble(match -> match.score)
+            .reversed()
+            .thenComparingInt(match -> match.id);
+
+    private final HashMap<String, IntIntMap> postings = new HashMap<>();
+    private final TreeMap<String, IntIntMap> sortedPostings = new TreeMap<>();
+    private final IntMap<Document> documents = new IntMap<>();
+
+    /**
+     * Indexes the task text, replacing what was indexed for its id; unchanged text is not tokenized again.
+     */
+    void put(Task task) {
+        int id = task.getId();
+        Document indexed = documents.get(id);
+        if (indexed != null && Objects.equals(indexed.name, task.getName())
+                && Objects.equals(indexed.description, task.getDescription())) {
+            return;
+        }
+        remove(id);
+
+        HashMap<String, Integer> weights = new HashMap<>();
+        tokenize(task.getName(), (term, end) -> weights.merge(term, NAME_WEIGHT, Integer::sum));
+        tokenize(task.getDescription(), (term, end) -> weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+        for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+            IntIntMap posting = postings.get(weight.getKey());
+            if (posting == null) {
+                posting = new IntIntMap();
+                postings.put(weight.getKey(), posting);
+                sortedPostings.put(weight.getKey(), posting);
+            }
+            posting.put(id, weight.getValue());
+        }
+        documents.put(id, new Document(task.getName(), task.getDescription(),
+                weights.keySet().toArray(new String[0])));
+    }
+
+    void remove(int id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms) {
+            IntIntMap posting = postings.get(term);
+            posting.remove(id);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+                sortedPostings.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Returns the ids of up to limit best matching tasks, best first; ties go to the lower id.
+     */
+    List<Integer> search(String query, int limit) {
+        List<QueryTerm> terms = parse(query);
+        if (terms.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<List<IntIntMap>> matched = new ArrayList<>(terms.size());
+        int driver = 0;
+        long driverSize = Long.MAX_VALUE;
+        for (QueryTerm term : terms) {
+            List<IntIntMap> termPostings = findPostings(term);
+            if (termPostings.isEmpty()) {
+                return new ArrayList<>();
+            }
+            long size = 0;
+            for (IntIntMap posting : termPostings) {
+                size += posting.size();
+            }
+            if (size < driverSize) {
+                driver = matched.size();
+                driverSize = size;
+            }
+            matched.add(termPostings);
+        }
+
+        PriorityQueue<Match> best = new PriorityQueue<>(RANKING.reversed());
+        int driverIndex = driver;
+        List<IntIntMap> driverPostings = matched.get(driver);
+        if (driverPostings.size() == 1) {
+            IntIntMap posting = driverPostings.get(0);
+            double idf = idf(posting);
+            posting.forEach((id, weight) -> offer(best, limit, id, weight * idf, terms, matched, driverIndex));
+        } else {
+            IntMap<double[]> scores = new IntMap<>();
+            for (IntIntMap posting : driverPostings) {
+                double idf = idf(posting);
+                posting.forEach((id, weight) -> {
+                    double[] score = scores.get(id);
+                    if (score == null) {
+                        scores.put(id, new double[]{weight * idf});
+                    } else {
+                        score[0] += weight * idf;
+                    }
+                });
+            }
+            scores.forEach((id, score) -> offer(best, limit, id, score[0], terms, matched, driverIndex));
+        }
+
+        List<Match> ranked = new ArrayList<>(best);
+        ranked.sort(RANKING);
+        List<Integer> ids = new ArrayList<>(ranked.size());
+        for (Match match : ranked) {
+            ids.add(match.id);
+        }
+        return ids;
+    }
+
+    /**
+     * Adds the driver's matches for the other terms to the score and keeps the candidate if it matches them all
+     * and ranks among the best limit so far.
+     */
+    private void offer(PriorityQueue<Match> best, int limit, int id, double score, List<QueryTerm> terms,
+                       List<List<IntIntMap>> matched, int driver) {
+        for (int i = 0; i < terms.size(); i++) {
+            if (i != driver) {
+                double termScore = matched.get(i).size() > MAX_PREFIX_PROBES
+                        ? scorePrefix(terms.get(i).text, id)
+                        : score(matched.get(i), id);
+                if (termScore == 0) {
+                    return;
+                }
+                score += termScore;
+            }
+        }
+        if (best.size() == limit) {
+            Match worst = best.peek();
+            if (score < worst.score || score == worst.score && id > worst.id) {
+                return;
+            }
+            best.poll();
+        }
+        best.add(new Match(id, score));
+    }
+
+    /**
+     * Scores a prefix term through the document's own terms, used when a short prefix expands to more terms
+     * than a document usually has.
+     */
+    private double scorePrefix(String prefix, int id) {
+        double score = 0;
+        for (String term : documents.get(id).terms) {
+            if (term.startsWith(prefix)) {
+                IntIntMap posting = postings.get(term);
+                score += posting.get(id) * idf(posting);
+            }
+        }
+        return score;
+    }
+
+    private List<IntIntMap> findPostings(QueryTerm term) {
+        if (term.prefix) {
+            String last = term.text + Character.MAX_VALUE;
+            return new ArrayList<>(sortedPostings.subMap(term.text, true, last, true).values());
+        }
+        IntIntMap posting = postings.get(term.text);
+        return posting == null ? List.of() : List.of(posting);
+    }
+
+    private double score(List<IntIntMap> termPostings, int id) {
+        double score = 0;
+        for (IntIntMap posting : termPostings) {
+            int weight = posting.get(id);
+            if (weight != 0) {
+                score += weight * idf(posting);
+            }
+        }
+        return score;
+    }
+
+    private double idf(IntIntMap posting) {
+        return Math.log(1 + (double) documents.size() / posting.size());
+    }
+
+    private static List<QueryTerm> parse(String query) {
+        List<QueryTerm> terms = new ArrayList<>();
+        tokenize(query, (term, end) -> terms.add(new QueryTerm(term,
+                end < query.length() && query.charAt(end) == '*')));
+        return terms;
+    }
+
+    /**
+     * Passes each lower-cased run of letters and digits to the action together with the index just past it.
+     */
+    private static void tokenize(String text, ObjIntConsumer<String> action) {
+        if (text == null) {
+            return;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean letter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                action.accept(text.substring(start, i).toLowerCase(Locale.ROOT), i);
+                start = -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package manager.task;
+
+import model.Epic;
+import model.SubTask;
+import model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts a snapshot between the CSV and binary formats:
+ * {@code SnapshotConverter <source> <target> <CSV|BINARY>}.
+ */
+public class SnapshotConverter {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: SnapshotConverter <source> <target> <CSV|BINARY>");
+            System.exit(1);
+        }
+        long records = convert(new File(args[0]), new File(args[1]), SnapshotFormat.valueOf(args[2]));
+        System.out.println("Converted " + records + " records to " + args[2] + ": " + args[1]);
+    }
+
+    public static long convert(File source, File target, SnapshotFormat format) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        List<Epic> epics = new ArrayList<>();
+        List<SubTask> subTasks = new ArrayList<>();
+
+        SnapshotFile.Content content = SnapshotFile.read(source);
+        for (Task task : content.records) {
+            switch (task.getType()) {
+                case TASK:
+                    tasks.add(task);
+                    break;
+                case EPIC:
+                    epics.add((Epic) task);
+                    break;
+                case SUBTASK:
+                    subTasks.add((SubTask) task);
+                    break;
+            }
+        }
+        new SnapshotFile(target, format).write(tasks, epics, subTasks, content.journalSequence);
+        return tasks.size() + epics.size() + subTasks.size();
+    }
+}
@@ -0,0 +1,431 @@
+package manager.task;
+
+import converter.TaskBinaryReader;
+import converter.TaskBinaryWriter;
+import converter.TaskCsvCodec;
+import exception.ManagerIOException;
+import model.Epic;
+import model.SubTask;
+import model.Task;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Snapshot of the manager state that survives a crash in the middle of a write.
+ * A snapshot is written to a sibling temp file, forced to disk and atomically moved over the
+ * previous one, which is kept as a backup. The trailing footer holds the record count, a CRC32
+ * of every preceding line and the sequence number of the last journal record the snapshot includes;
+ * a snapshot that fails validation is replaced by the backup on load, and the returned content says so.
+ * The directory is forced to disk after the moves so the new names survive a crash as well.
+ * Snapshots without a footer are accepted as written by older versions.
+ * Snapshots are written in the configured {@link SnapshotFormat}; the format is detected on load.
+ * Large CSV snapshots are memory-mapped and parsed in line-aligned chunks on the common ForkJoin pool.
+ * A mapping is only released by the garbage collector, and Windows refuses to rename a mapped file, which
+ * would break the next rotation, so there the file is read into the heap instead of being mapped.
+ * Blank lines between records are ignored.
+ */
+class SnapshotFile {
+
+    static final String HEADER = "id,type,name,status,description,epicId,startDateTime,duration";
+    private static final String FOOTER_PREFIX = "#records=";
+    private static final String CHECKSUM_PREFIX = ",crc32=";
+    private static final String JOURNAL_PREFIX = ",journal=";
+    private static final long PARALLEL_THRESHOLD = 1 << 20;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final boolean WINDOWS = System.getProperty("os.name").startsWith("Windows");
+
+    private final File file;
+    private final File temp;
+    private final File backup;
+    private final SnapshotFormat format;
+
+    /**
+     * Records of a snapshot and the sequence number of the last journal record they include, 0 if none.
+     */
+    static class Content {
+        final List<Task> records;
+        final long journalSequence;
+        final boolean fromBackup;
+
+        Content(List<Task> records, long journalSequence) {
+            this(records, journalSequence, false);
+        }
+
+        private Content(List<Task> records, long journalSequence, boolean fromBackup) {
+            this.records = records;
+            this.journalSequence = journalSequence;
+            this.fromBackup = fromBackup;
+        }
+    }
+
+    SnapshotFile(File file, SnapshotFormat format) {
+        this.file = file;
+        this.format = format;
+        this.temp = new File(file.getPath() + ".tmp");
+        this.backup = new File(file.getPath() + ".bak");
+    }
+
+    boolean exists() {
+        return file.exists() || backup.exists();
+    }
+
+    long write(Collection<Task> tasks, Collection<Epic> epics, Collection<SubTask> subTasks, long journalSequence)
+            throws IOException {
+        if (format == SnapshotFormat.BINARY) {
+            writeBinary(tasks, epics, subTasks, journalSequence);
+        } else {
+            writeCsv(tasks, epics, subTasks, journalSequence);
+        }
+
+        long length = temp.length();
+        if (file.exists()) {
+            Files.move(file.toPath(), backup.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+        return length;
+    }
+
+    /**
+     * Forces the renames to disk. Windows cannot open a directory as a channel, so there this is skipped.
+     */
+    private void syncDirectory() throws IOException {
+        if (WINDOWS) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file.getAbsoluteFile().getParentFile().toPath(),
+                StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private void writeBinary(Collection<Task> tasks, Collection<Epic> epics, Collection<SubTask> subTasks,
+                             long journalSequence) throws IOException {
+
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            TaskBinaryWriter writer = new TaskBinaryWriter(out);
+            for (Task task : tasks) {
+                writer.write(task);
+            }
+            for (Epic epic : epics) {
+                writer.write(epic);
+            }
+            for (SubTask subTask : subTasks) {
+                writer.write(subTask);
+            }
+            writer.finish(journalSequence);
+            out.getFD().sync();
+        }
+    }
+
+    private void writeCsv(Collection<Task> tasks, Collection<Epic> epics, Collection<SubTask> subTasks,
+                          long journalSequence) throws IOException {
+        CRC32 checksum = new CRC32();
+        long records = 0;
+
+        try (FileOutputStream out = new FileOutputStream(temp);
+             BufferedWriter bw = new BufferedWriter(new OutputStreamWriter(
+                     new CheckedOutputStream(out, checksum), StandardCharsets.UTF_8))) {
+
+            TaskCsvCodec codec = new TaskCsvCodec();
+            bw.write(HEADER);
+            bw.write('\n');
+            for (Task task : tasks) {
+                codec.write(task, bw);
+                records++;
+            }
+            for (Epic epic : epics) {
+                codec.write(epic, bw);
+                records++;
+            }
+            for (SubTask subTask : subTasks) {
+                codec.write(subTask, bw);
+                records++;
+            }
+            bw.flush();
+            bw.write(footer(records, checksum));
+            if (journalSequence > 0) {
+                bw.write(JOURNAL_PREFIX + journalSequence);
+            }
+            bw.write('\n');
+            bw.flush();
+            out.getFD().sync();
+        }
+    }
+
+    Content read() {
+        if (file.exists()) {
+            try {
+                return read(file);
+            } catch (IOException | RuntimeException exp) {
+                if (!backup.exists()) {
+                    throw new ManagerIOException("Corrupted snapshot: " + file.getName(), exp);
+                }
+            }
+        }
+        try {
+            Content content = read(backup);
+            return new Content(content.records, content.journalSequence, true);
+        } catch (IOException | RuntimeException exp) {
+            throw new ManagerIOException("Corrupted snapshot: " + backup.getName(), exp);
+        }
+    }
+
+    static Content read(File source) throws IOException {
+        if (isBinary(source)) {
+            return readBinary(source);
+        }
+        return readCsv(source);
+    }
+
+    private static boolean isBinary(File source) throws IOException {
+        byte[] head = new byte[4];
+        try (InputStream in = new FileInputStream(source)) {
+            return in.readNBytes(head, 0, head.length) == head.length && TaskBinaryReader.isBinary(head);
+        }
+    }
+
+    private static Content readBinary(File source) throws IOException {
+        List<Task> records = new ArrayList<>();
+        TaskBinaryReader reader = new TaskBinaryReader(Files.readAllBytes(source.toPath()));
+        while (reader.hasNext()) {
+            records.add(reader.next());
+        }
+        return new Content(records, reader.getJournalSequence());
+    }
+
+    private static Content readCsv(File source) throws IOException {
+        long size = source.length();
+        if (size >= PARALLEL_THRESHOLD && size <= Integer.MAX_VALUE) {
+            try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+                Content content = readCsvChunked(WINDOWS ? readFully(channel, (int) size)
+                        : channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+                if (content != null) {
+                    return content;
+                }
+            }
+        }
+        return readCsvSequentially(source);
+    }
+
+    /**
+     * Returns null when the snapshot uses CRLF line endings, which the sequential reader handles.
+     */
+    private static ByteBuffer readFully(FileChannel channel, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Snapshot ended while it was read");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static Content readCsvChunked(ByteBuffer buffer) throws IOException {
+        int size = buffer.limit();
+        int headerEnd = indexOf(buffer, 0, size);
+        if (headerEnd < 0 || headerEnd > 0 && buffer.get(headerEnd - 1) == '\r') {
+            return null;
+        }
+
+        int bodyEnd = size;
+        String footer = null;
+        int lastLineEnd = buffer.get(size - 1) == '\n' ? size - 1 : size;
+        int lastLineStart = lastIndexOf(buffer, lastLineEnd) + 1;
+        byte[] lastLine = new byte[lastLineEnd - lastLineStart];
+        buffer.get(lastLineStart, lastLine);
+        if (new String(lastLine, StandardCharsets.UTF_8).startsWith(FOOTER_PREFIX)) {
+            footer = new String(lastLine, StandardCharsets.UTF_8);
+            bodyEnd = lastLineStart;
+        }
+
+        int chunks = ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD;
+        int chunkSize = Math.max((bodyEnd - headerEnd) / chunks, 1);
+        List<Callable<List<Task>>> parsers = new ArrayList<>();
+        int start = headerEnd + 1;
+        while (start < bodyEnd) {
+            int end = start + chunkSize >= bodyEnd ? bodyEnd : indexOf(buffer, start + chunkSize, bodyEnd) + 1;
+            if (end == 0) {
+                end = bodyEnd;
+            }
+            int chunkStart = start;
+            int chunkEnd = end;
+            parsers.add(() -> parseChunk(buffer, chunkStart, chunkEnd));
+            start = end;
+        }
+
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.slice(0, bodyEnd));
+
+        List<Task> records = new ArrayList<>();
+        for (Future<List<Task>> parsed : ForkJoinPool.commonPool().invokeAll(parsers)) {
+            try {
+                records.addAll(parsed.get());
+            } catch (InterruptedException exp) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Snapshot loading was interrupted", exp);
+            } catch (ExecutionException exp) {
+                throw new IOException("Snapshot record cannot be parsed", exp.getCause());
+            }
+        }
+        long journalSequence = footer == null ? 0 : checkFooter(footer, records.size(), checksum);
+        return new Content(records, journalSequence);
+    }
+
+    /**
+     * Decodes the rows straight from the buffer; only a row with non-ASCII text is decoded from UTF-8
+     * into a char buffer first. Blank lines are skipped.
+     */
+    private static List<Task> parseChunk(ByteBuffer buffer, int start, int end) {
+        AsciiSequence ascii = new AsciiSequence(buffer);
+        TaskCsvCodec codec = new TaskCsvCodec();
+        List<Task> records = new ArrayList<>();
+        int lineStart = start;
+        boolean asciiOnly = true;
+        for (int i = start; i <= end; i++) {
+            byte b = i == end ? (byte) '\n' : buffer.get(i);
+            if (b != '\n') {
+                asciiOnly &= b >= 0;
+                continue;
+            }
+            if (i > lineStart) {
+                records.add(asciiOnly
+                        ? codec.decode(ascii, lineStart, i)
+                        : codec.decode(StandardCharsets.UTF_8.decode(buffer.slice(lineStart, i - lineStart))));
+            }
+            lineStart = i + 1;
+            asciiOnly = true;
+        }
+        return records;
+    }
+
+    /**
+     * Bytes of a buffer read as characters without copying, valid for ASCII text.
+     */
+    private static class AsciiSequence implements CharSequence {
+
+        private final ByteBuffer buffer;
+
+        AsciiSequence(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int length() {
+            return buffer.limit();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) buffer.get(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            byte[] bytes = new byte[end - start];
+            buffer.get(start, bytes);
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length()).toString();
+        }
+    }
+
+    private static int indexOf(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(ByteBuffer buffer, int before) {
+        for (int i = before - 1; i >= 0; i--) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Content readCsvSequentially(File source) throws IOException {
+        List<Task> records = new ArrayList<>();
+        long journalSequence = 0;
+        CRC32 checksum = new CRC32();
+        TaskCsvCodec codec = new TaskCsvCodec();
+
+        try (FileReader reader = new FileReader(source, StandardCharsets.UTF_8);
+             BufferedReader br = new BufferedReader(reader)) {
+
+            String firstLine = br.readLine();
+            if (firstLine == null) return new Content(records, journalSequence);
+            update(checksum, firstLine);
+
+            while (true) {
+                String line = br.readLine();
+
+                if (line == null)
+                    break;
+
+                if (line.startsWith(FOOTER_PREFIX)) {
+                    journalSequence = checkFooter(line, records.size(), checksum);
+                    if (br.readLine() != null) {
+                        throw new IOException("Unexpected data after snapshot footer");
+                    }
+                    break;
+                }
+                if (!line.isEmpty()) {
+                    records.add(codec.decode(line));
+                }
+                update(checksum, line);
+            }
+        }
+        return new Content(records, journalSequence);
+    }
+
+    private static void update(CRC32 checksum, String line) {
+        checksum.update(line.getBytes(StandardCharsets.UTF_8));
+        checksum.update('\n');
+    }
+
+    /**
+     * Returns the journal sequence of a footer that matches the records and their checksum.
+     */
+    private static long checkFooter(String footer, long records, CRC32 checksum) throws IOException {
+        String expected = footer(records, checksum);
+        if (footer.equals(expected)) {
+            return 0;
+        }
+        if (footer.startsWith(expected + JOURNAL_PREFIX)) {
+            try {
+                return Long.parseLong(footer.substring(expected.length() + JOURNAL_PREFIX.length()));
+            } catch (NumberFormatException exp) {
+                throw new IOException("Snapshot footer is malformed: " + footer, exp);
+            }
+        }
+        throw new IOException("Snapshot footer does not match its content: " + footer);
+    }
+
+    private static String footer(long records, CRC32 checksum) {
+        return FOOTER_PREFIX + records + CHECKSUM_PREFIX + Long.toHexString(checksum.getValue());
+    }
+}
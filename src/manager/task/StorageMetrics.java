@@ -0,0 +1,134 @@
+package manager.task;
+
+import java.time.Duration;
+import java.time.Instant;
+
+public class StorageMetrics {
+
+    private final DurabilityPolicy durability;
+    private final long mutations;
+    private final long logicalBytes;
+    private final long writtenBytes;
+    private final long syncs;
+    private final Duration p99MutationLatency;
+    private final long journalRecords;
+    private final long journalBytes;
+    private final long compactions;
+    private final long failedCompactions;
+    private final String lastCompactionError;
+    private final Duration lastCompactionDuration;
+    private final Instant lastCompactionAt;
+    private final boolean recoveredFromBackup;
+
+    StorageMetrics(DurabilityPolicy durability, long mutations, long logicalBytes, long writtenBytes, long syncs,
+                   Duration p99MutationLatency, long journalRecords, long journalBytes, long compactions,
+                   long failedCompactions, String lastCompactionError, Duration lastCompactionDuration,
+                   Instant lastCompactionAt, boolean recoveredFromBackup) {
+        this.durability = durability;
+        this.mutations = mutations;
+        this.logicalBytes = logicalBytes;
+        this.writtenBytes = writtenBytes;
+        this.syncs = syncs;
+        this.p99MutationLatency = p99MutationLatency;
+        this.journalRecords = journalRecords;
+        this.journalBytes = journalBytes;
+        this.compactions = compactions;
+        this.failedCompactions = failedCompactions;
+        this.lastCompactionError = lastCompactionError;
+        this.lastCompactionDuration = lastCompactionDuration;
+        this.lastCompactionAt = lastCompactionAt;
+        this.recoveredFromBackup = recoveredFromBackup;
+    }
+
+    public DurabilityPolicy getDurability() {
+        return durability;
+    }
+
+    public long getMutations() {
+        return mutations;
+    }
+
+    /**
+     * Size of the mutations themselves: the journal records, or in SNAPSHOT mode, where no record is encoded,
+     * the average record size of each written snapshot.
+     */
+    public long getLogicalBytes() {
+        return logicalBytes;
+    }
+
+    public long getWrittenBytes() {
+        return writtenBytes;
+    }
+
+    public double getWriteAmplification() {
+        return logicalBytes == 0 ? 0 : (double) writtenBytes / logicalBytes;
+    }
+
+    public long getSyncs() {
+        return syncs;
+    }
+
+    public Duration getP99MutationLatency() {
+        return p99MutationLatency;
+    }
+
+    public long getJournalRecords() {
+        return journalRecords;
+    }
+
+    public long getJournalBytes() {
+        return journalBytes;
+    }
+
+    public long getCompactions() {
+        return compactions;
+    }
+
+    public long getFailedCompactions() {
+        return failedCompactions;
+    }
+
+    /**
+     * The error of the most recent compaction, or null if it succeeded.
+     */
+    public String getLastCompactionError() {
+        return lastCompactionError;
+    }
+
+    public Duration getLastCompactionDuration() {
+        return lastCompactionDuration;
+    }
+
+    public Instant getLastCompactionAt() {
+        return lastCompactionAt;
+    }
+
+    /**
+     * Whether the snapshot failed validation on load and the backup was read instead, losing the changes saved
+     * after the backup unless the journal still holds them.
+     */
+    public boolean isRecoveredFromBackup() {
+        return recoveredFromBackup;
+    }
+
+    @Override
+    public String toString() {
+        return "StorageMetrics{" +
+                "durability=" + durability +
+                ", mutations=" + mutations +
+                ", logicalBytes=" + logicalBytes +
+                ", writtenBytes=" + writtenBytes +
+                ", writeAmplification=" + getWriteAmplification() +
+                ", syncs=" + syncs +
+                ", p99MutationLatency=" + p99MutationLatency +
+                ", journalRecords=" + journalRecords +
+                ", journalBytes=" + journalBytes +
+                ", compactions=" + compactions +
+                ", failedCompactions=" + failedCompactions +
+                ", lastCompactionError=" + lastCompactionError +
+                ", lastCompactionDuration=" + lastCompactionDuration +
+                ", lastCompactionAt=" + lastCompactionAt +
+                ", recoveredFromBackup=" + recoveredFromBackup +
+                '}';
+    }
+}
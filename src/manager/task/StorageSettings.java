@@ -0,0 +1,70 @@
+package manager.task;
+
+import java.time.Duration;
+
+public class StorageSettings {
+
+    private PersistenceMode mode = PersistenceMode.SNAPSHOT;
+    private long maxJournalBytes = 8 * 1024 * 1024;
+    private long maxJournalRecords = 10_000;
+    private Duration maxJournalAge = Duration.ofMinutes(10);
+    private DurabilityPolicy durability = DurabilityPolicy.OS_BUFFERED;
+    private Duration groupCommitWindow = Duration.ZERO;
+    private SnapshotFormat snapshotFormat = SnapshotFormat.CSV;
+
+    public PersistenceMode getMode() {
+        return mode;
+    }
+
+    public void setMode(PersistenceMode mode) {
+        this.mode = mode;
+    }
+
+    public long getMaxJournalBytes() {
+        return maxJournalBytes;
+    }
+
+    public void setMaxJournalBytes(long maxJournalBytes) {
+        this.maxJournalBytes = maxJournalBytes;
+    }
+
+    public long getMaxJournalRecords() {
+        return maxJournalRecords;
+    }
+
+    public void setMaxJournalRecords(long maxJournalRecords) {
+        this.maxJournalRecords = maxJournalRecords;
+    }
+
+    public Duration getMaxJournalAge() {
+        return maxJournalAge;
+    }
+
+    public void setMaxJournalAge(Duration maxJournalAge) {
+        this.maxJournalAge = maxJournalAge;
+    }
+
+    public DurabilityPolicy getDurability() {
+        return durability;
+    }
+
+    public void setDurability(DurabilityPolicy durability) {
+        this.durability = durability;
+    }
+
+    public Duration getGroupCommitWindow() {
+        return groupCommitWindow;
+    }
+
+    public void setGroupCommitWindow(Duration groupCommitWindow) {
+        this.groupCommitWindow = groupCommitWindow;
+    }
+
+    public SnapshotFormat getSnapshotFormat() {
+        return snapshotFormat;
+    }
+
+    public void setSnapshotFormat(SnapshotFormat snapshotFormat) {
+        this.snapshotFormat = snapshotFormat;
+    }
+}
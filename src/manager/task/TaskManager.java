@@ -1,10 +1,15 @@
 package manager.task;
 
+import manager.history.HistoryManager;
 import model.Epic;
+import model.Status;
 import model.SubTask;
 import model.Task;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface TaskManager {
 
@@ -14,10 +19,28 @@ public interface TaskManager {
 
     Epic getEpicById(Integer id);
 
+    Task getTaskById(Integer id, HistoryManager history);
+
+    SubTask getSubTaskById(Integer id, HistoryManager history);
+
+    Epic getEpicById(Integer id, HistoryManager history);
+
+    void attachHistory(HistoryManager history);
+
+    void detachHistory(HistoryManager history);
+
     Task createTask(Task task);
 
     SubTask createSubTask(SubTask subTask);
 
+    /**
+     * Creates the task at the earliest time in [from, to) where its duration fits between the scheduled tasks;
+     * a null to is open. Throws ValidationException when no such slot exists.
+     */
+    Task createTaskInFreeSlot(Task task, LocalDateTime from, LocalDateTime to);
+
+    SubTask createSubTaskInFreeSlot(SubTask subTask, LocalDateTime from, LocalDateTime to);
+
     Epic createEpic(Epic epic);
 
     void updateTask(Task task);
@@ -40,15 +63,77 @@ public interface TaskManager {
 
     List<Epic> getEpicList();
 
+    List<Task> getTasksByStatus(Status status);
+
+    List<SubTask> getSubTasksByStatus(Status status);
+
+    List<Epic> getEpicsByStatus(Status status);
+
+    /**
+     * Returns up to limit tasks with ids greater than the cursor, in id order; a null cursor starts
+     * from the first task.
+     */
+    Page<Task> getTasksPage(Integer cursor, int limit);
+
+    Page<SubTask> getSubTasksPage(Integer cursor, int limit);
+
+    Page<Epic> getEpicsPage(Integer cursor, int limit);
+
+    /**
+     * Same as {@link #getTasksPage(Integer, int)}, restricted to the given status; a null status means any.
+     */
+    Page<Task> getTasksPage(Status status, Integer cursor, int limit);
+
+    Page<SubTask> getSubTasksPage(Status status, Integer cursor, int limit);
+
+    Page<Epic> getEpicsPage(Status status, Integer cursor, int limit);
+
     void deleteAllTasks();
 
     void deleteAllSubTasks();
 
     void deleteAllEpics();
 
+    /**
+     * Applies all operations or none of them and returns the created or updated entities in operation order,
+     * with null for deletions.
+     */
+    List<Task> applyBatch(List<BatchOperation> operations);
+
     List<Task> getHistory();
 
     List<Task> getPrioritizedTasks();
 
+    /**
+     * Returns the scheduled tasks intersecting [from, to) in start order; a null bound is open.
+     */
+    List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Walks the same window without copying it. The action runs under the manager's read lock,
+     * so it must be short and must not modify the manager.
+     */
+    void forEachPrioritizedTask(LocalDateTime from, LocalDateTime to, Consumer<Task> action);
+
+    List<Task> getTimeConflicts(Task task);
+
+    /**
+     * Returns up to limit tasks, subtasks and epics whose name or description contains every query term,
+     * best match first; a term ending with '*' matches as a prefix. The limit must be positive.
+     */
+    List<Task> search(String query, int limit);
+
+    /**
+     * Returns the earliest start in [from, to) where the duration fits between the scheduled tasks,
+     * or null when there is none; a null to is open.
+     */
+    LocalDateTime findFreeSlot(Duration duration, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Returns up to count candidate starts, the earliest one in each free gap, in time order.
+     * The duration must be positive.
+     */
+    List<LocalDateTime> findFreeSlots(Duration duration, LocalDateTime from, LocalDateTime to, int count);
+
 
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+package manager.task;
+
+import model.Status;
+import model.Task;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+
+/**
+ * Tasks of one kind by id, iterated in id order, with a secondary index by status and an entry in the shared
+ * search index, kept up to date by put, remove and clear. Stored tasks are changed in place, so a caller that
+ * changes the status, name or description of a stored task must reindex it.
+ * Lookups go through an {@link IntMap} and the orders are {@link IntSortedMap}s holding the tasks themselves,
+ * so an entry costs no tree node or boxed key and iteration needs no lookups.
+ */
+class TaskStore<T extends Task> {
+
+    private final IntMap<T> byId = new IntMap<>();
+    private final IntSortedMap<T> inOrder = new IntSortedMap<>();
+    private final EnumMap<Status, IntSortedMap<T>> byStatus = new EnumMap<>(Status.class);
+    private final SearchIndex searchIndex;
+    private final Collection<T> values = new View(null);
+
+    TaskStore(SearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    T get(int id) {
+        return byId.get(id);
+    }
+
+    boolean containsKey(int id) {
+        return byId.containsKey(id);
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    boolean isEmpty() {
+        return byId.isEmpty();
+    }
+
+    T put(int id, T task) {
+        T previous = byId.put(id, task);
+        inOrder.put(id, task);
+        if (previous != null) {
+            unindex(id);
+        }
+        index(id, task);
+        searchIndex.put(task);
+        return previous;
+    }
+
+    T remove(int id) {
+        T previous = byId.remove(id);
+        if (previous != null) {
+            inOrder.remove(id);
+            unindex(id);
+            searchIndex.remove(id);
+        }
+        return previous;
+    }
+
+    void clear() {
+        for (Iterator<T> iterator = inOrder.values(null); iterator.hasNext(); ) {
+            searchIndex.remove(iterator.next().getId());
+        }
+        byId.clear();
+        inOrder.clear();
+        byStatus.clear();
+    }
+
+    void reindex(T task) {
+        int id = task.getId();
+        if (get(id) == task) {
+            unindex(id);
+            index(id, task);
+            searchIndex.put(task);
+        }
+    }
+
+    /**
+     * Stored tasks in id order, as a live view.
+     */
+    Collection<T> values() {
+        return values;
+    }
+
+    /**
+     * Stored tasks with the given status in id order, as a live view.
+     */
+    Collection<T> withStatus(Status status) {
+        return new View(status);
+    }
+
+    /**
+     * Iterates tasks in id order, only those with the given status when it is not null and only ids greater than
+     * after when it is not null.
+     */
+    Iterator<T> iterator(Status status, Integer after) {
+        IntSortedMap<T> source = status == null ? inOrder : byStatus.get(status);
+        return source == null ? Collections.emptyIterator() : source.values(after);
+    }
+
+    private void index(int id, T task) {
+        if (task.getStatus() != null) {
+            byStatus.computeIfAbsent(task.getStatus(), status -> new IntSortedMap<>()).put(id, task);
+        }
+    }
+
+    private void unindex(int id) {
+        for (IntSortedMap<T> indexed : byStatus.values()) {
+            if (indexed.remove(id)) {
+                return;
+            }
+        }
+    }
+
+    private class View extends AbstractCollection<T> {
+
+        private final Status status;
+
+        View(Status status) {
+            this.status = status;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return TaskStore.this.iterator(status, null);
+        }
+
+        @Override
+        public int size() {
+            if (status == null) {
+                return inOrder.size();
+            }
+            IntSortedMap<T> indexed = byStatus.get(status);
+            return indexed == null ? 0 : indexed.size();
+        }
+    }
+}
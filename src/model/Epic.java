@@ -2,11 +2,10 @@ package model;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 
 public class Epic extends Task {
-    private final List<Integer> subTasksId = new ArrayList<>();
+    private final IdList subTasksId = new IdList();
 
     private LocalDateTime endDateTime;
 
@@ -0,0 +1,323 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Insertion-ordered list of distinct ids backed by int arrays, so an element costs a few bytes instead of a reference
+ * and a boxed Integer. A hash table from id to array slot makes lookups and removal by id O(1): removal leaves a hole
+ * that iteration skips, and holes are compacted away once they outnumber the ids. Positional access is O(1) while
+ * there are no holes and a scan otherwise. Null and duplicate ids are not supported.
+ */
+public class IdList extends AbstractList<Integer> {
+
+    private static final int[] EMPTY = new int[0];
+    private static final int MIN_CAPACITY = 4;
+    private static final int HOLE = Integer.MIN_VALUE;
+
+    private int[] ids = EMPTY;
+    private int[] slots = EMPTY;
+    private int end;
+    private int size;
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Integer get(int index) {
+        return getInt(index);
+    }
+
+    public int getInt(int index) {
+        checkIndex(index, size);
+        return ids[slotAt(index)];
+    }
+
+    @Override
+    public Integer set(int index, Integer id) {
+        checkIndex(index, size);
+        int slot = slotAt(index);
+        int previous = ids[slot];
+        if (previous != id) {
+            checkNew(id);
+            unlink(slot);
+            ids[slot] = id;
+            link(slot);
+        }
+        return previous;
+    }
+
+    /**
+     * Appends the id; like {@link #add(int, Integer)} it throws IllegalArgumentException if the id is already present.
+     */
+    @Override
+    public boolean add(Integer id) {
+        checkNew(id);
+        append(id);
+        return true;
+    }
+
+    @Override
+    public void add(int index, Integer id) {
+        checkIndex(index, size + 1);
+        checkNew(id);
+        if (index == size) {
+            append(id);
+            return;
+        }
+        compact();
+        if (size == ids.length) {
+            grow();
+        }
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        ids[index] = id;
+        end = ++size;
+        modCount++;
+        rehash();
+    }
+
+    @Override
+    public Integer remove(int index) {
+        checkIndex(index, size);
+        int slot = slotAt(index);
+        int previous = ids[slot];
+        removeSlot(slot);
+        compactIfSparse();
+        return previous;
+    }
+
+    @Override
+    public boolean remove(Object id) {
+        int slot = id instanceof Integer value ? find(value) : -1;
+        if (slot < 0) {
+            return false;
+        }
+        removeSlot(slot);
+        compactIfSparse();
+        return true;
+    }
+
+    @Override
+    public int indexOf(Object id) {
+        int slot = id instanceof Integer value ? find(value) : -1;
+        if (slot < 0 || end == size) {
+            return slot;
+        }
+        int index = 0;
+        for (int i = 0; i < slot; i++) {
+            if (ids[i] != HOLE) {
+                index++;
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public int lastIndexOf(Object id) {
+        return indexOf(id);
+    }
+
+    @Override
+    public boolean contains(Object id) {
+        return id instanceof Integer value && find(value) >= 0;
+    }
+
+    @Override
+    public void clear() {
+        ids = EMPTY;
+        slots = EMPTY;
+        end = 0;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return new Itr();
+    }
+
+    private class Itr implements Iterator<Integer> {
+        private int next = skipHoles(0);
+        private int last = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next < end;
+        }
+
+        @Override
+        public Integer next() {
+            checkForComodification();
+            if (next >= end) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next = skipHoles(next + 1);
+            return ids[last];
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            checkForComodification();
+            removeSlot(last);
+            last = -1;
+            expectedModCount = modCount;
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    private void append(int id) {
+        if (end == ids.length) {
+            if ((end - size) * 4 > end) {
+                compact();
+            } else {
+                grow();
+                rehash();
+            }
+        }
+        ids[end] = id;
+        link(end++);
+        size++;
+        modCount++;
+    }
+
+    private void removeSlot(int slot) {
+        unlink(slot);
+        ids[slot] = HOLE;
+        size--;
+        modCount++;
+        while (end > 0 && ids[end - 1] == HOLE) {
+            end--;
+        }
+    }
+
+    private void compactIfSparse() {
+        if (end - size > size) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        if (end == size) {
+            return;
+        }
+        int to = 0;
+        for (int from = 0; from < end; from++) {
+            if (ids[from] != HOLE) {
+                ids[to++] = ids[from];
+            }
+        }
+        end = size;
+        rehash();
+    }
+
+    private void grow() {
+        ids = Arrays.copyOf(ids, Math.max(MIN_CAPACITY, ids.length + (ids.length >> 1)));
+    }
+
+    private int slotAt(int index) {
+        if (end == size) {
+            return index;
+        }
+        for (int slot = 0; ; slot++) {
+            if (ids[slot] != HOLE && index-- == 0) {
+                return slot;
+            }
+        }
+    }
+
+    private int skipHoles(int slot) {
+        while (slot < end && ids[slot] == HOLE) {
+            slot++;
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the array slot holding the id, or -1; the hash table stores slot + 1 so that zero marks a free bucket.
+     */
+    private int find(int id) {
+        if (size == 0) {
+            return -1;
+        }
+        int mask = slots.length - 1;
+        for (int bucket = bucket(id, mask); slots[bucket] != 0; bucket = (bucket + 1) & mask) {
+            if (ids[slots[bucket] - 1] == id) {
+                return slots[bucket] - 1;
+            }
+        }
+        return -1;
+    }
+
+    private void link(int slot) {
+        int mask = slots.length - 1;
+        int bucket = bucket(ids[slot], mask);
+        while (slots[bucket] != 0) {
+            bucket = (bucket + 1) & mask;
+        }
+        slots[bucket] = slot + 1;
+    }
+
+    private void unlink(int slot) {
+        int mask = slots.length - 1;
+        int gap = bucket(ids[slot], mask);
+        while (slots[gap] != slot + 1) {
+            gap = (gap + 1) & mask;
+        }
+        for (int bucket = (gap + 1) & mask; slots[bucket] != 0; bucket = (bucket + 1) & mask) {
+            int home = bucket(ids[slots[bucket] - 1], mask);
+            if (((bucket - home) & mask) >= ((bucket - gap) & mask)) {
+                slots[gap] = slots[bucket];
+                gap = bucket;
+            }
+        }
+        slots[gap] = 0;
+    }
+
+    private void rehash() {
+        slots = new int[Integer.highestOneBit(ids.length * 4 / 3) * 2];
+        for (int slot = 0; slot < end; slot++) {
+            if (ids[slot] != HOLE) {
+                link(slot);
+            }
+        }
+    }
+
+    private static int bucket(int id, int mask) {
+        int hash = id * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private void checkNew(int id) {
+        checkSupported(id);
+        if (find(id) >= 0) {
+            throw new IllegalArgumentException("Duplicate id: " + id);
+        }
+    }
+
+    private static void checkSupported(int id) {
+        if (id == HOLE) {
+            throw new IllegalArgumentException("Unsupported id: " + id);
+        }
+    }
+
+    private void checkIndex(int index, int limit) {
+        if (index < 0 || index >= limit) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package converter;
+
+import model.Epic;
+import model.Status;
+import model.SubTask;
+import model.Task;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Task Binary Reader")
+class TaskBinaryReaderTest {
+
+    private static byte[] write(Task... tasks) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TaskBinaryWriter writer = new TaskBinaryWriter(out);
+        for (Task task : tasks) {
+            writer.write(task);
+        }
+        writer.finish();
+        return out.toByteArray();
+    }
+
+    private static byte[] withChecksum(byte[] data) {
+        CRC32 checksum = new CRC32();
+        checksum.update(data, 0, data.length - 4);
+        int value = (int) checksum.getValue();
+        for (int i = 0; i < 4; i++) {
+            data[data.length - 4 + i] = (byte) (value >>> (24 - 8 * i));
+        }
+        return data;
+    }
+
+    @Test
+    @DisplayName("Should read back every field written by TaskBinaryWriter")
+    void next_returnsWrittenTasks() throws IOException {
+        //given
+        LocalDateTime start = LocalDateTime.of(2024, 6, 20, 12, 25, 30, 123_000_000);
+        Task task = new Task(300, "задача, с запятой", Status.IN_PROGRESS, "description1", start,
+                Duration.ofMinutes(90));
+        Epic epic = new Epic(1, "name2", Status.NEW, null, null, null);
+        SubTask subTask = new SubTask(70_000, "name3", Status.DONE, "description3", 1,
+                LocalDateTime.of(1969, 12, 31, 23, 59), Duration.ofSeconds(5, 1));
+
+        //when
+        TaskBinaryReader reader = new TaskBinaryReader(write(task, epic, subTask));
+        List<Task> read = new ArrayList<>();
+        while (reader.hasNext()) {
+            read.add(reader.next());
+        }
+
+        //then
+        assertEquals(3, read.size(), "Wrong number of records");
+        assertEquals(task.toString(), read.get(0).toString(), "Task was not restored");
+        assertEquals(start, read.get(0).getStartDateTime(), "Start was not restored");
+        assertTrue(read.get(1) instanceof Epic, "Epic was not restored");
+        assertNull(read.get(1).getDescription(), "Null description was not restored");
+        assertNull(read.get(1).getStartDateTime(), "Null start was not restored");
+        assertEquals(1, ((SubTask) read.get(2)).getEpicId(), "Epic id was not restored");
+        assertEquals(subTask.getStartDateTime(), read.get(2).getStartDateTime(), "Start was not restored");
+        assertEquals(subTask.getDuration(), read.get(2).getDuration(), "Duration was not restored");
+    }
+
+    @Test
+    @DisplayName("Should detect the binary format by its magic bytes")
+    void isBinary_detectsMagic() throws IOException {
+        //given
+        byte[] binary = write();
+        byte[] csv = "id,type,name".getBytes();
+
+        //when
+        //then
+        assertTrue(TaskBinaryReader.isBinary(binary), "Binary snapshot was not detected");
+        assertFalse(TaskBinaryReader.isBinary(csv), "CSV snapshot was detected as binary");
+    }
+
+    @Test
+    @DisplayName("Should reject a snapshot whose checksum does not match")
+    void constructor_throwsIOException_whenChecksumDoesNotMatch() throws IOException {
+        //given
+        byte[] data = write(new Task(1, "name1", Status.NEW, "description1", null, null));
+        data[7] ^= 1;
+
+        //when
+        //then
+        assertThrows(IOException.class, () -> new TaskBinaryReader(data), "Corrupted snapshot was accepted");
+    }
+
+    @Test
+    @DisplayName("Should keep the journal sequence written to the footer")
+    void getJournalSequence_returnsFooterValue() throws IOException {
+        //given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TaskBinaryWriter writer = new TaskBinaryWriter(out);
+        writer.write(new Task(1, "name1", Status.NEW, "description1", null, null));
+
+        //when
+        writer.finish(42);
+        TaskBinaryReader reader = new TaskBinaryReader(out.toByteArray());
+
+        //then
+        assertEquals(42, reader.getJournalSequence(), "Journal sequence was not restored");
+        assertTrue(reader.hasNext(), "Record was lost");
+    }
+
+    @Test
+    @DisplayName("Should throw IOException when a string length runs past the records")
+    void next_throwsIOException_whenStringLengthIsTooLarge() throws IOException {
+        //given
+        byte[] data = write(new Task(1, "name1", Status.NEW, "description1", null, null));
+        data[7] = 0x7F;
+        TaskBinaryReader reader = new TaskBinaryReader(withChecksum(data));
+
+        //when
+        //then
+        assertThrows(IOException.class, reader::next, "Oversized string was read");
+    }
+
+    @Test
+    @DisplayName("Should throw IOException when a record has an unknown type")
+    void next_throwsIOException_whenTypeIsUnknown() throws IOException {
+        //given
+        byte[] data = write(new Task(1, "name1", Status.NEW, "description1", null, null));
+        data[5] = 0x7F;
+        TaskBinaryReader reader = new TaskBinaryReader(withChecksum(data));
+
+        //when
+        //then
+        assertThrows(IOException.class, reader::next, "Unknown type was read");
+    }
+}
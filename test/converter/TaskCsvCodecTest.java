@@ -0,0 +1,145 @@
+package converter;
+
+import model.Epic;
+import model.Status;
+import model.SubTask;
+import model.Task;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.CharBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Task Csv Codec")
+class TaskCsvCodecTest {
+
+    private final TaskCsvCodec codec = new TaskCsvCodec();
+
+    @Test
+    @DisplayName("Should write plain rows in the same format as before")
+    void encode_keepsPlainRowFormat() {
+        //given
+        Task task = new Task(1, "task name-1", Status.IN_PROGRESS, "description-1",
+                LocalDateTime.of(2024, 6, 20, 12, 25), Duration.ofHours(1));
+        SubTask subTask = new SubTask(9, "subtask name-4", Status.NEW, "description-4", 5, null, null);
+
+        //when
+        String taskRow = codec.encode(task);
+        String subTaskRow = codec.encode(subTask);
+
+        //then
+        assertEquals("1,TASK,task name-1,IN_PROGRESS,description-1,null,2024-06-20T12:25,PT1H", taskRow,
+                "Task row changed");
+        assertEquals("9,SUBTASK,subtask name-4,NEW,description-4,5,null,null", subTaskRow,
+                "Subtask row changed");
+    }
+
+    @Test
+    @DisplayName("Should round-trip names and descriptions with separators, quotes and line breaks")
+    void decode_restoresQuotedText() {
+        //given
+        Task task = new Task(2, "name, with \"quotes\"", Status.NEW, "line1\nline2\r\\n", null, null);
+        Epic epic = new Epic(3, "null", Status.DONE, "", null, null);
+
+        //when
+        String taskRow = codec.encode(task);
+        Task restoredTask = codec.decode(taskRow);
+        Task restoredEpic = codec.decode(codec.encode(epic));
+
+        //then
+        assertFalse(taskRow.contains("\n"), "Row spans several lines");
+        assertEquals(task.getName(), restoredTask.getName(), "Name was not restored");
+        assertEquals(task.getDescription(), restoredTask.getDescription(), "Description was not restored");
+        assertEquals("null", restoredEpic.getName(), "Literal null name was not restored");
+        assertEquals("", restoredEpic.getDescription(), "Empty description was not restored");
+        assertTrue(restoredEpic instanceof Epic, "Type was not restored");
+    }
+
+    @Test
+    @DisplayName("Should round-trip the date-time and duration forms of java.time")
+    void decode_restoresDateTimesAndDurations() {
+        //given
+        List<LocalDateTime> dateTimes = List.of(LocalDateTime.of(2024, 1, 2, 3, 4),
+                LocalDateTime.of(2024, 1, 2, 3, 4, 5), LocalDateTime.of(2024, 1, 2, 3, 4, 0, 120_000_000),
+                LocalDateTime.of(2024, 1, 2, 3, 4, 5, 123_456_000), LocalDateTime.of(2024, 1, 2, 3, 4, 5, 7),
+                LocalDateTime.of(312, 1, 2, 3, 4), LocalDateTime.of(12024, 1, 2, 3, 4));
+        List<Duration> durations = List.of(Duration.ZERO, Duration.ofMinutes(90), Duration.ofSeconds(59),
+                Duration.ofHours(50), Duration.ofMillis(1500), Duration.ofMillis(-1500), Duration.ofMillis(-500),
+                Duration.ofNanos(1), Duration.ofDays(3).negated());
+
+        //when
+        //then
+        for (LocalDateTime dateTime : dateTimes) {
+            Task task = new Task(1, "name", Status.NEW, "description", dateTime, Duration.ZERO);
+            String row = codec.encode(task);
+            assertTrue(row.contains("," + dateTime + ","), "Date-time differs from toString: " + row);
+            assertEquals(dateTime, codec.decode(row).getStartDateTime(), "Date-time was not restored");
+        }
+        for (Duration duration : durations) {
+            Task task = new Task(1, "name", Status.NEW, "description", null, duration);
+            String row = codec.encode(task);
+            assertTrue(row.endsWith("," + duration), "Duration differs from toString: " + row);
+            assertEquals(duration, codec.decode(row).getDuration(), "Duration was not restored");
+        }
+    }
+
+    @Test
+    @DisplayName("Should parse a row from a range of a CharBuffer")
+    void decode_parsesRange() {
+        //given
+        CharBuffer buffer = CharBuffer.wrap("header\n8,SUBTASK,name,DONE,description,5,null,PT30M\n");
+
+        //when
+        Task task = codec.decode(buffer, 7, buffer.length() - 1);
+
+        //then
+        assertEquals(8, task.getId(), "Id was not parsed");
+        assertEquals(5, ((SubTask) task).getEpicId(), "Epic id was not parsed");
+        assertEquals(Status.DONE, task.getStatus(), "Status was not parsed");
+        assertNull(task.getStartDateTime(), "Start was not parsed");
+        assertEquals(Duration.ofMinutes(30), task.getDuration(), "Duration was not parsed");
+    }
+
+    @Test
+    @DisplayName("Should reject malformed rows")
+    void decode_throws_whenRowIsMalformed() {
+        //given
+        //when
+        //then
+        assertThrows(IllegalArgumentException.class,
+                () -> codec.decode("1,TASK,\"unterminated,NEW,description,null,null,null"),
+                "Unterminated quote was accepted");
+        assertThrows(IllegalArgumentException.class, () -> codec.decode("1,TASK,name"),
+                "Truncated row was accepted");
+        assertThrows(IllegalArgumentException.class, () -> codec.decode("x,TASK,name,NEW,d,null,null,null"),
+                "Invalid id was accepted");
+        assertThrows(IllegalArgumentException.class, () -> codec.decode("1,TASK,name,NEW,d,null,null,null,extra"),
+                "Extra field was accepted");
+        assertThrows(IllegalArgumentException.class, () -> codec.decode("1,TASK,name,NEW,d,null,null,null,"),
+                "Trailing separator was accepted");
+    }
+
+    @Test
+    @DisplayName("Should escape quotes with a backslash and still read doubled quotes")
+    void encode_escapesQuotesWithBackslash() {
+        //given
+        Task task = new Task(2, "say \"hi\"", Status.NEW, "description", null, null);
+
+        //when
+        String row = codec.encode(task);
+        Task legacy = codec.decode("2,TASK,\"say \"\"hi\"\"\",NEW,description,null,null,null");
+
+        //then
+        assertEquals("2,TASK,\"say \\\"hi\\\"\",NEW,description,null,null,null", row, "Quotes were not escaped");
+        assertEquals(task.getName(), codec.decode(row).getName(), "Escaped quotes were not restored");
+        assertEquals(task.getName(), legacy.getName(), "Doubled quotes were not restored");
+    }
+}
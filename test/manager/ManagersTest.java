@@ -1,9 +1,13 @@
 package manager;
 
+import manager.history.HistoryManager;
 import manager.task.TaskManager;
+import model.Status;
+import model.Task;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 @DisplayName("Managers")
@@ -17,4 +21,22 @@ class ManagersTest {
 
         assertNotNull(manager, "Object was not created");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should return a history limited to the requested capacity")
+    void getDefaultHistory_limitsCapacity() {
+        //given
+        HistoryManager historyManager = Managers.getDefaultHistory(2);
+
+        //when
+        for (int id = 1; id <= 5; id++) {
+            Task task = new Task("name", "description", Status.NEW);
+            task.setId(id);
+            historyManager.addTaskInHistory(task);
+        }
+
+        //then
+        assertEquals(2, historyManager.getHistory().size(), "History exceeds its capacity");
+        assertEquals(5, historyManager.getHistory().getLast().getId(), "Latest task was evicted");
+    }
+}
@@ -0,0 +1,142 @@
+package manager.history;
+
+import model.Epic;
+import model.Status;
+import model.Task;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("Concurrent History Manager")
+class ConcurrentHistoryManagerTest {
+
+    private static Task task(int id) {
+        Task task = new Task("name" + id, "description", Status.NEW);
+        task.setId(id);
+        return task;
+    }
+
+    @Test
+    @DisplayName("Should keep one entry per task with the most recent view last")
+    void addTaskInHistory_movesTaskToTheEnd() {
+        //given
+        ConcurrentHistoryManager historyManager = new ConcurrentHistoryManager();
+        Task task = task(1);
+        Epic epic = new Epic("name", "description");
+        epic.setId(2);
+        historyManager.addTaskInHistory(task);
+        historyManager.addTaskInHistory(epic);
+
+        //when
+        historyManager.addTaskInHistory(task);
+
+        //then
+        assertEquals(List.of(epic, task), historyManager.getHistory(), "History order is wrong");
+    }
+
+    @Test
+    @DisplayName("Should remove a task from the history")
+    void remove_deletesTaskFromHistory() {
+        //given
+        ConcurrentHistoryManager historyManager = new ConcurrentHistoryManager();
+        historyManager.addTaskInHistory(task(1));
+        historyManager.addTaskInHistory(task(2));
+        historyManager.addTaskInHistory(task(3));
+
+        //when
+        historyManager.remove(2);
+        historyManager.remove(4);
+
+        //then
+        assertEquals(List.of(task(1), task(3)), historyManager.getHistory(), "Task was not removed");
+    }
+
+    @Test
+    @DisplayName("Should stay deduplicated when tasks are viewed from many threads")
+    void addTaskInHistory_keepsHistoryDeduplicated_underConcurrentViews() throws Exception {
+        //given
+        ConcurrentHistoryManager historyManager = new ConcurrentHistoryManager();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> results = new ArrayList<>();
+
+        //when
+        for (int t = 0; t < 8; t++) {
+            int offset = t;
+            results.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    historyManager.addTaskInHistory(task((i + offset) % 100));
+                    if (i % 10 == 0) {
+                        historyManager.remove((i + offset + 50) % 100);
+                    }
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        for (int id = 0; id < 100; id++) {
+            historyManager.addTaskInHistory(task(id));
+        }
+        List<Task> history = historyManager.getHistory();
+
+        //then
+        assertEquals(100, history.size(), "History contains duplicates or lost tasks");
+        assertEquals(100, new HashSet<>(history).size(), "History contains duplicates");
+        for (int id = 0; id < 100; id++) {
+            assertEquals(id, history.get(id).getId(), "History order is wrong");
+        }
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently viewed task when the capacity is exceeded")
+    void addTaskInHistory_evictsLeastRecentlyViewed_whenCapacityIsExceeded() {
+        //given
+        ConcurrentHistoryManager historyManager = new ConcurrentHistoryManager(3);
+        historyManager.addTaskInHistory(task(1));
+        historyManager.addTaskInHistory(task(2));
+        historyManager.addTaskInHistory(task(3));
+        historyManager.addTaskInHistory(task(1));
+
+        //when
+        historyManager.addTaskInHistory(task(4));
+
+        //then
+        assertEquals(List.of(task(3), task(1), task(4)), historyManager.getHistory(), "Wrong task was evicted");
+    }
+
+    @Test
+    @DisplayName("Should not exceed the capacity under concurrent views")
+    void addTaskInHistory_staysWithinCapacity_underConcurrentViews() throws Exception {
+        //given
+        ConcurrentHistoryManager historyManager = new ConcurrentHistoryManager(50);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> results = new ArrayList<>();
+
+        //when
+        for (int t = 0; t < 8; t++) {
+            int offset = t * 1000;
+            results.add(executor.submit(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    historyManager.addTaskInHistory(task(offset + i % 1000));
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        //then
+        assertEquals(50, historyManager.getHistory().size(), "History exceeds its capacity");
+    }
+}
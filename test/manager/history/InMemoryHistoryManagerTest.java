@@ -163,4 +163,27 @@ class InMemoryHistoryManagerTest {
         assertEquals(subTaskExpected.getEpicId(), subTaskActual.getEpicId(), "Epic IDs do not match");
 
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should evict the least recently viewed task when the capacity is exceeded")
+    void addTaskInHistory_evictsLeastRecentlyViewed_whenCapacityIsExceeded() {
+        //given
+        InMemoryHistoryManager inMemoryHistoryManager = new InMemoryHistoryManager(2);
+        Task first = new Task("name", "description", Status.NEW);
+        first.setId(1);
+        Task second = new Task("name", "description", Status.NEW);
+        second.setId(2);
+        Task third = new Task("name", "description", Status.NEW);
+        third.setId(3);
+        inMemoryHistoryManager.addTaskInHistory(first);
+        inMemoryHistoryManager.addTaskInHistory(second);
+        inMemoryHistoryManager.addTaskInHistory(first);
+
+        //when
+        inMemoryHistoryManager.addTaskInHistory(third);
+        List<Task> history = inMemoryHistoryManager.getHistory();
+
+        //then
+        assertEquals(List.of(first, third), history, "Wrong task was evicted");
+    }
+}
@@ -0,0 +1,33 @@
+package manager.server;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ContentEncoding")
+class ContentEncodingTest {
+
+    @Test
+    @DisplayName("Should prefer gzip over deflate")
+    public void shouldPreferGzip_bothEncodingsAccepted() {
+        //when
+        ContentEncoding encoding = ContentEncoding.negotiate("deflate, gzip;q=0.5");
+
+        //then
+        assertEquals(ContentEncoding.GZIP, encoding, "Gzip should be preferred");
+    }
+
+    @Test
+    @DisplayName("Should skip encodings the client rejects")
+    public void shouldSkipRejectedEncoding_qualityIsZero() {
+        //when
+        ContentEncoding deflate = ContentEncoding.negotiate("gzip;q=0, deflate");
+        ContentEncoding identity = ContentEncoding.negotiate("br, identity");
+
+        //then
+        assertEquals(ContentEncoding.DEFLATE, deflate, "Rejected gzip was chosen");
+        assertNull(identity, "Unsupported encodings should fall back to identity");
+        assertNull(ContentEncoding.negotiate(null), "Missing header should mean identity");
+    }
+}
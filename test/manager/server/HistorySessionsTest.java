@@ -0,0 +1,91 @@
+package manager.server;
+
+import manager.history.HistoryManager;
+import manager.history.InMemoryHistoryManager;
+import manager.task.InMemoryTaskManager;
+import manager.task.TaskManager;
+import model.Status;
+import model.Task;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HistorySessions")
+class HistorySessionsTest {
+
+    TaskManager manager = new InMemoryTaskManager(new InMemoryHistoryManager());
+
+    @Test
+    @DisplayName("Should return the same history for the same session")
+    public void shouldReturnSameHistory_sameSessionId() {
+        //given
+        HistorySessions sessions = new HistorySessions(manager, new ServerSettings());
+
+        //when
+        HistoryManager first = sessions.get("alice");
+        HistoryManager second = sessions.get("alice");
+
+        //then
+        assertSame(first, second, "Session history was recreated");
+        assertNotSame(first, sessions.get("bob"), "Sessions share a history");
+    }
+
+    @Test
+    @DisplayName("Should start a new history after the session was idle too long")
+    public void shouldStartNewHistory_sessionIsIdle() throws InterruptedException {
+        //given
+        ServerSettings settings = new ServerSettings();
+        settings.setSessionIdleTimeout(Duration.ofMillis(20));
+        HistorySessions sessions = new HistorySessions(manager, settings);
+        Task task = manager.createTask(new Task("task", "description", Status.NEW, null, null));
+        HistoryManager expired = sessions.get("alice");
+        manager.getTaskById(task.getId(), expired);
+
+        //when
+        Thread.sleep(50);
+        HistoryManager renewed = sessions.get("alice");
+
+        //then
+        assertNotSame(expired, renewed, "Idle session was reused");
+        assertTrue(renewed.getHistory().isEmpty(), "New session inherited the old history");
+    }
+
+    @Test
+    @DisplayName("Should not keep more sessions than the configured limit")
+    public void shouldBoundSessions_tooManyClients() {
+        //given
+        ServerSettings settings = new ServerSettings();
+        settings.setMaxSessions(32);
+        HistorySessions sessions = new HistorySessions(manager, settings);
+
+        //when
+        for (int i = 0; i < 1000; i++) {
+            sessions.get("client-" + i);
+        }
+
+        //then
+        assertTrue(sessions.size() <= 32, "Sessions exceed the limit: " + sessions.size());
+    }
+
+    @Test
+    @DisplayName("Should limit the length of a session history")
+    public void shouldBoundSessionHistory_manyViews() {
+        //given
+        ServerSettings settings = new ServerSettings();
+        settings.setSessionHistoryCapacity(2);
+        HistorySessions sessions = new HistorySessions(manager, settings);
+        HistoryManager history = sessions.get("alice");
+
+        //when
+        for (int i = 0; i < 5; i++) {
+            Task task = manager.createTask(new Task("task-" + i, "description", Status.NEW, null, null));
+            manager.getTaskById(task.getId(), history);
+        }
+
+        //then
+        assertEquals(2, history.getHistory().size(), "Session history exceeds its capacity");
+    }
+}
@@ -1,6 +1,8 @@
 package manager.server;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.google.gson.reflect.TypeToken;
 import exception.NotFoundException;
 import manager.history.InMemoryHistoryManager;
@@ -15,14 +17,19 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -579,6 +586,26 @@ class HttpTaskServerTest {
     }
 
 
+    @Test
+    @DisplayName("Should give an epic posted without subtask ids an empty subtask list")
+    public void shouldInitSubtaskList_POSTEpicsRequestArrivesWithoutSubtaskIds() throws IOException, InterruptedException {
+        //given
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/epics"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"epic\",\"description\":\"description\"}"))
+                .build();
+
+        //when
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        Epic epic = manager.getEpicList().getFirst();
+        manager.createSubTask(new SubTask("subtask", "description", Status.NEW, epic.getId()));
+
+        //then
+        assertEquals(201, response.statusCode());
+        assertEquals(1, epic.getSubTasksId().size(), "Subtask was not attached to the posted epic");
+    }
+
     @Test
     @DisplayName("Should update an epic when a POST /epics request is received and the epic has an ID")
     public void shouldUpdateEpic_POSTEpicsRequestArrivesAndEpicHaveId() throws IOException, InterruptedException {
@@ -924,5 +951,481 @@ class HttpTaskServerTest {
         }
     }
 
-}
+    @Test
+    @DisplayName("Should serve concurrent requests in every executor mode")
+    public void shouldServeConcurrentRequests_inEveryExecutorMode() {
+        for (ExecutorMode mode : ExecutorMode.values()) {
+            TaskManager modeManager = new InMemoryTaskManager(new InMemoryHistoryManager());
+            ServerSettings settings = new ServerSettings();
+            settings.setPort(8081);
+            settings.setBacklog(64);
+            settings.setExecutorMode(mode);
+            settings.setPoolSize(4);
+            HttpTaskServer modeServer = new HttpTaskServer(modeManager, settings);
+            modeServer.start();
+            try {
+                HttpClient client = HttpClient.newHttpClient();
+                List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+                for (int i = 0; i < 50; i++) {
+                    Task task = new Task("name" + i, "description" + i, Status.NEW,
+                            LocalDateTime.of(2024, 6, 18, 0, 0).plusHours(i), Duration.ofMinutes(30));
+                    HttpRequest request = HttpRequest.newBuilder()
+                            .uri(URI.create("http://localhost:8081/tasks"))
+                            .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(task)))
+                            .build();
+                    responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+                }
+
+                for (CompletableFuture<HttpResponse<String>> response : responses) {
+                    assertEquals(201, response.join().statusCode(), "Request failed in mode " + mode);
+                }
+                assertEquals(50, modeManager.getTasksList().size(), "Tasks were lost in mode " + mode);
+                assertEquals(50, modeManager.getPrioritizedTasks().size(),
+                        "Prioritized tasks were lost in mode " + mode);
+            } finally {
+                modeServer.stop();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep a separate history for each client session")
+    public void shouldKeepSeparateHistory_requestsCarrySessionHeader() throws IOException, InterruptedException {
+        //given
+        Task first = manager.createTask(new Task("first", "first description", Status.NEW, null, null));
+        Task second = manager.createTask(new Task("second", "second description", Status.NEW, null, null));
+        HttpClient client = HttpClient.newHttpClient();
+
+        //when
+        sendGet(client, "/tasks/" + first.getId(), "alice");
+        sendGet(client, "/tasks/" + second.getId(), "bob");
+        sendGet(client, "/tasks/" + second.getId(), null);
+        List<Task> aliceHistory = getHistory(client, "alice");
+        List<Task> bobHistory = getHistory(client, "bob");
+        List<Task> globalHistory = getHistory(client, null);
+
+        //then
+        assertEquals(List.of(first.getId()), aliceHistory.stream().map(Task::getId).toList(),
+                "Session history contains views of another session");
+        assertEquals(List.of(second.getId()), bobHistory.stream().map(Task::getId).toList(),
+                "Session history contains views of another session");
+        assertEquals(List.of(second.getId()), globalHistory.stream().map(Task::getId).toList(),
+                "Requests without a session header should use the shared history");
+    }
+
+    @Test
+    @DisplayName("Should remove a deleted task from the session histories")
+    public void shouldRemoveDeletedTaskFromSessionHistory_DELETETasksIdRequestArrives()
+            throws IOException, InterruptedException {
+        //given
+        Task task = manager.createTask(new Task("task", "description", Status.NEW, null, null));
+        HttpClient client = HttpClient.newHttpClient();
+        sendGet(client, "/tasks/" + task.getId(), "alice");
+
+        //when
+        manager.deleteTaskById(task.getId());
+
+        //then
+        assertTrue(getHistory(client, "alice").isEmpty(), "Deleted task was left in the session history");
+    }
+
+    private HttpResponse<String> sendGet(HttpClient client, String path, String sessionId)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080" + path))
+                .GET();
+        if (sessionId != null) {
+            request.header("X-Session-Id", sessionId);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private List<Task> getHistory(HttpClient client, String sessionId) throws IOException, InterruptedException {
+        HttpResponse<String> response = sendGet(client, "/history", sessionId);
+        assertEquals(200, response.statusCode());
+        return gson.fromJson(response.body(), new TypeToken<List<Task>>() {
+        }.getType());
+    }
+
+    @Test
+    @DisplayName("Should return a page of tasks when a GET /tasks request has a limit")
+    public void shouldGetTasksPage_GETTasksRequestArrivesWithLimitAndCursor() throws IOException, InterruptedException {
+        //given
+        for (int i = 0; i < 5; i++) {
+            manager.createTask(new Task("task-" + i, "description", Status.NEW, null, null));
+        }
+        HttpClient client = HttpClient.newHttpClient();
+
+        //when
+        HttpResponse<String> first = sendGet(client, "/tasks?limit=3", null);
+        JsonObject firstPage = JsonParser.parseString(first.body()).getAsJsonObject();
+        int cursor = firstPage.get("nextCursor").getAsInt();
+        HttpResponse<String> second = sendGet(client, "/tasks?limit=3&cursor=" + cursor, null);
+        JsonObject secondPage = JsonParser.parseString(second.body()).getAsJsonObject();
+        HttpResponse<String> invalid = sendGet(client, "/tasks?limit=abc", null);
+
+        //then
+        assertEquals(200, first.statusCode());
+        assertEquals(3, firstPage.getAsJsonArray("items").size(), "First page has a wrong size");
+        assertEquals(3, cursor, "Cursor should point at the last task of the page");
+        assertEquals(2, secondPage.getAsJsonArray("items").size(), "Second page has a wrong size");
+        assertTrue(secondPage.get("nextCursor").isJsonNull(), "Last page should have no cursor");
+        assertEquals(400, invalid.statusCode());
+    }
+
+    @Test
+    @DisplayName("Should stream list responses with chunked transfer encoding")
+    public void shouldStreamListResponse_GETTasksRequestArrives() throws IOException, InterruptedException {
+        //given
+        for (int i = 0; i < 50; i++) {
+            manager.createTask(new Task("task-" + i, "description", Status.NEW, null, null));
+        }
+        HttpClient client = HttpClient.newHttpClient();
+
+        //when
+        HttpResponse<String> response = sendGet(client, "/tasks", null);
+        List<Task> tasks = gson.fromJson(response.body(), new TypeToken<List<Task>>() {
+        }.getType());
+
+        //then
+        assertEquals(200, response.statusCode());
+        assertEquals("chunked", response.headers().firstValue("Transfer-Encoding").orElse(null),
+                "List response should be chunked");
+        assertTrue(response.headers().firstValue("Content-Length").isEmpty(),
+                "Streamed response should not declare its length");
+        assertEquals(50, tasks.size(), "Streamed list is incomplete");
+    }
+
+    @Test
+    @DisplayName("Should gzip a large response when the client accepts it")
+    public void shouldCompressResponse_GETTasksRequestAcceptsGzip() throws IOException, InterruptedException {
+        //given
+        for (int i = 0; i < 50; i++) {
+            manager.createTask(new Task("task-" + i, "description", Status.NEW, null, null));
+        }
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+
+        //when
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        String body;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        List<Task> tasks = gson.fromJson(body, new TypeToken<List<Task>>() {
+        }.getType());
+
+        //then
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null),
+                "Response should be gzip encoded");
+        assertTrue(response.body().length < body.length(), "Compressed body is not smaller");
+        assertEquals(50, tasks.size(), "Decompressed list is incomplete");
+    }
+
+    @Test
+    @DisplayName("Should not compress a response below the threshold")
+    public void shouldNotCompressSmallResponse_GETTasksIdRequestAcceptsGzip() throws IOException, InterruptedException {
+        //given
+        Task task = manager.createTask(new Task("task", "description", Status.NEW, null, null));
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks/" + task.getId()))
+                .header("Accept-Encoding", "gzip, deflate")
+                .GET()
+                .build();
+
+        //when
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        //then
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Encoding").isEmpty(), "Small response was compressed");
+        assertEquals(task.getId(), gson.fromJson(response.body(), Task.class).getId(), "IDs do not match");
+    }
+
+    @Test
+    @DisplayName("Should return compact JSON unless pretty printing is requested")
+    public void shouldPrettyPrintOnlyOnRequest_GETTasksIdRequestArrives() throws IOException, InterruptedException {
+        //given
+        Task task = manager.createTask(new Task("task", "description", Status.NEW, null, null));
+        HttpClient client = HttpClient.newHttpClient();
 
+        //when
+        String compact = sendGet(client, "/tasks/" + task.getId(), null).body();
+        String prettyByQuery = sendGet(client, "/tasks/" + task.getId() + "?pretty=true", null).body();
+        String prettyList = sendGet(client, "/tasks?pretty", null).body();
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks/" + task.getId()))
+                .header("Accept", "application/json; pretty=true")
+                .GET()
+                .build();
+        String prettyByHeader = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+
+        //then
+        assertFalse(compact.contains("\n"), "Default response should be compact");
+        assertTrue(prettyByQuery.contains("\n  \"name\": \"task\""), "Response should be pretty printed");
+        assertTrue(prettyList.contains("\n    \"name\": \"task\""), "List should be pretty printed");
+        assertEquals(prettyByQuery, prettyByHeader, "Accept header should also enable pretty printing");
+        assertTrue(compact.contains("\"name\":\"task\""), "Compact response should have no spaces");
+    }
+
+    @Test
+    @DisplayName("Should return 400 when a request path or body is malformed")
+    public void shouldReturnBadRequest_malformedRequestArrives() throws IOException, InterruptedException {
+        //given
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest invalidJson = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"name\": "))
+                .build();
+        HttpRequest emptyBody = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/epics"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        HttpRequest duplicateIds = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/epics"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"epic\",\"subTasksId\":[5,5]}"))
+                .build();
+
+        //when
+        HttpResponse<String> invalidJsonResponse = client.send(invalidJson, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> emptyBodyResponse = client.send(emptyBody, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> duplicateIdsResponse = client.send(duplicateIds, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> invalidIdResponse = sendGet(client, "/subtasks/abc", null);
+
+        //then
+        assertEquals(400, invalidJsonResponse.statusCode(), "Malformed JSON should be rejected");
+        assertEquals(400, emptyBodyResponse.statusCode(), "Empty body should be rejected");
+        assertEquals(400, duplicateIdsResponse.statusCode(), "Duplicate subtask ids should be rejected");
+        assertEquals(400, invalidIdResponse.statusCode(), "Non-numeric id should be rejected");
+        assertTrue(manager.getTasksList().isEmpty(), "Nothing should be created");
+        assertTrue(manager.getEpicList().isEmpty(), "Nothing should be created");
+    }
+
+    @Test
+    @DisplayName("Should apply all operations of a POST /batch request or none of them")
+    public void shouldApplyBatch_POSTBatchRequestArrives() throws IOException, InterruptedException {
+        //given
+        Epic epic = manager.createEpic(new Epic("epic", "description"));
+        Task task = manager.createTask(new Task("task", "description", Status.NEW, null, null));
+        String batch = "[{\"action\":\"CREATE\",\"type\":\"SUBTASK\",\"entity\":{\"name\":\"subtask\","
+                + "\"description\":\"description\",\"status\":\"DONE\",\"epicId\":" + epic.getId() + "}},"
+                + "{\"action\":\"CREATE\",\"type\":\"EPIC\",\"entity\":{\"name\":\"epic-2\",\"description\":\"d\"}},"
+                + "{\"action\":\"DELETE\",\"type\":\"TASK\",\"id\":" + task.getId() + "}]";
+        String failing = "[{\"action\":\"CREATE\",\"type\":\"TASK\",\"entity\":{\"name\":\"task-2\"}},"
+                + "{\"action\":\"DELETE\",\"type\":\"TASK\",\"id\":" + task.getId() + "}]";
+        HttpClient client = HttpClient.newHttpClient();
+
+        //when
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString(batch))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> failed = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString(failing))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> invalid = client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/batch"))
+                .POST(HttpRequest.BodyPublishers.ofString("[{\"action\":\"MOVE\",\"type\":\"TASK\"}]"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        //then
+        assertEquals(200, response.statusCode());
+        assertEquals(3, JsonParser.parseString(response.body()).getAsJsonArray().size(), "Results are missing");
+        assertEquals(Status.DONE, manager.getEpicById(epic.getId()).getStatus(), "Epic was not recalculated");
+        assertEquals(2, manager.getEpicList().size(), "Epic was not created");
+        assertTrue(manager.getTasksList().isEmpty(), "Task was not deleted");
+        assertEquals(404, failed.statusCode());
+        assertTrue(manager.getTasksList().isEmpty(), "Failed batch was partially applied");
+        assertEquals(400, invalid.statusCode());
+    }
+
+    @Test
+    @DisplayName("Should return 400 when a POST /batch operation misses or mistypes a field")
+    public void shouldReturnBadRequest_POSTBatchOperationIsIncomplete() throws IOException, InterruptedException {
+        //given
+        Task task = manager.createTask(new Task("task", "description", Status.NEW, null, null));
+        List<String> batches = List.of(
+                "[{\"type\":\"TASK\",\"id\":" + task.getId() + "}]",
+                "[{\"action\":\"DELETE\",\"id\":" + task.getId() + "}]",
+                "[{\"action\":\"DELETE\",\"type\":\"TASK\"}]",
+                "[{\"action\":\"DELETE\",\"type\":\"TASK\",\"id\":{\"value\":" + task.getId() + "}}]",
+                "[{\"action\":[\"DELETE\"],\"type\":\"TASK\",\"id\":" + task.getId() + "}]",
+                "[\"DELETE\"]");
+        HttpClient client = HttpClient.newHttpClient();
+
+        for (String batch : batches) {
+            //when
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:8080/batch"))
+                    .POST(HttpRequest.BodyPublishers.ofString(batch))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+
+            //then
+            assertEquals(400, response.statusCode(), "Invalid batch was not rejected: " + batch);
+        }
+        assertEquals(1, manager.getTasksList().size(), "Invalid batch was applied");
+    }
+
+    @Test
+    @DisplayName("Should return only tasks with the requested status when a GET /tasks request has a status")
+    public void shouldFilterByStatus_GETTasksRequestArrivesWithStatus() throws IOException, InterruptedException {
+        //given
+        for (int i = 0; i < 6; i++) {
+            manager.createTask(new Task("task-" + i, "description", i % 2 == 0 ? Status.IN_PROGRESS : Status.NEW,
+                    null, null));
+        }
+        HttpClient client = HttpClient.newHttpClient();
+
+        //when
+        HttpResponse<String> filtered = sendGet(client, "/tasks?status=IN_PROGRESS", null);
+        List<Task> tasks = gson.fromJson(filtered.body(), new TypeToken<List<Task>>() {
+        }.getType());
+        HttpResponse<String> paged = sendGet(client, "/tasks?status=in_progress&limit=2", null);
+        JsonObject page = JsonParser.parseString(paged.body()).getAsJsonObject();
+        HttpResponse<String> unknown = sendGet(client, "/tasks?status=BLOCKED", null);
+
+        //then
+        assertEquals(200, filtered.statusCode());
+        assertEquals(3, tasks.size(), "Filtered list has a wrong size");
+        assertTrue(tasks.stream().allMatch(task -> task.getStatus() == Status.IN_PROGRESS),
+                "Filtered list contains other statuses");
+        assertEquals(2, page.getAsJsonArray("items").size(), "Filtered page has a wrong size");
+        assertEquals(3, page.get("nextCursor").getAsInt(), "Cursor should point at the last matching task");
+        assertEquals(400, unknown.statusCode());
+    }
+
+    @Test
+    @DisplayName("Should return the tasks of a window when a GET /prioritized request has from and to")
+    public void shouldGetPrioritizedWindow_GETPrioritizedRequestArrivesWithRange()
+            throws IOException, InterruptedException {
+        //given
+        manager.createTask(new Task("monday", "description", Status.NEW,
+                LocalDateTime.of(2024, 6, 17, 10, 0), Duration.ofMinutes(60)));
+        Task wednesday = manager.createTask(new Task("wednesday", "description", Status.NEW,
+                LocalDateTime.of(2024, 6, 19, 10, 0), Duration.ofMinutes(60)));
+        HttpClient client = HttpClient.newHttpClient();
+
+        //when
+        HttpResponse<String> response = sendGet(client,
+                "/prioritized?from=2024-06-18T00:00&to=2024-06-25T00:00", null);
+        List<Task> window = gson.fromJson(response.body(), new TypeToken<List<Task>>() {
+        }.getType());
+        HttpResponse<String> invalid = sendGet(client, "/prioritized?from=yesterday", null);
+        HttpResponse<String> reversed = sendGet(client,
+                "/prioritized?from=2024-06-25T00:00&to=2024-06-18T00:00", null);
+
+        //then
+        assertEquals(200, response.statusCode());
+        assertEquals(List.of(wednesday.getId()), window.stream().map(Task::getId).toList(),
+                "Window contains wrong tasks");
+        assertEquals(400, invalid.statusCode());
+        assertEquals(400, reversed.statusCode());
+    }
+
+    @Test
+    @DisplayName("Should return free slots when a GET /slots request arrives")
+    public void shouldGetFreeSlots_GETSlotsRequestArrives() throws IOException, InterruptedException {
+        //given
+        manager.createTask(new Task("busy", "description", Status.NEW,
+                LocalDateTime.of(2024, 6, 17, 10, 0), Duration.ofMinutes(60)));
+        HttpClient client = HttpClient.newHttpClient();
+
+        //when
+        HttpResponse<String> response = sendGet(client,
+                "/slots?duration=PT1H&from=2024-06-17T09:30&count=2", null);
+        List<LocalDateTime> slots = gson.fromJson(response.body(), new TypeToken<List<LocalDateTime>>() {
+        }.getType());
+        HttpResponse<String> missing = sendGet(client, "/slots?from=2024-06-17T09:30", null);
+        HttpResponse<String> invalid = sendGet(client, "/slots?duration=an-hour", null);
+        HttpResponse<String> zero = sendGet(client, "/slots?duration=PT0S&from=2024-06-17T09:30&count=3", null);
+
+        //then
+        assertEquals(200, response.statusCode());
+        assertEquals(List.of(LocalDateTime.of(2024, 6, 17, 11, 0)), slots, "Wrong free slots");
+        assertEquals(400, missing.statusCode());
+        assertEquals(400, invalid.statusCode());
+        assertEquals(400, zero.statusCode(), "Zero duration should be rejected");
+    }
+
+    @Test
+    @DisplayName("Should place the task in a free slot when a POST /tasks request asks for autoPlace")
+    public void shouldCreateTaskInFreeSlot_POSTTasksRequestWithAutoPlace() throws IOException, InterruptedException {
+        //given
+        manager.createTask(new Task("busy", "description", Status.NEW,
+                LocalDateTime.of(2024, 6, 17, 10, 0), Duration.ofMinutes(60)));
+        String taskJson = gson.toJson(new Task("placed", "description", Status.NEW,
+                LocalDateTime.of(2024, 6, 17, 10, 30), Duration.ofMinutes(30)));
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:8080/tasks?autoPlace=true&from=2024-06-17T10:00"))
+                .POST(HttpRequest.BodyPublishers.ofString(taskJson))
+                .build();
+
+        //when
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        Task placed = gson.fromJson(response.body(), Task.class);
+
+        //then
+        assertEquals(201, response.statusCode());
+        assertEquals(LocalDateTime.of(2024, 6, 17, 11, 0), placed.getStartDateTime(),
+                "Task should start in the first free slot");
+        assertEquals(2, manager.getPrioritizedTasks().size(), "Placed task should be scheduled");
+    }
+
+    @Test
+    @DisplayName("Should return ranked matches when a GET /search request arrives")
+    public void shouldSearchTasks_GETSearchRequestArrives() throws IOException, InterruptedException {
+        //given
+        manager.createTask(new Task("Weekly sync", "Prepare the release notes", Status.NEW));
+        Task release = manager.createTask(new Task("Release notes", "Draft for the team", Status.NEW));
+        manager.createTask(new Task("Groceries", "Milk", Status.NEW));
+        HttpClient client = HttpClient.newHttpClient();
+
+        //when
+        HttpResponse<String> response = sendGet(client, "/search?q=release%20notes&limit=1", null);
+        List<Task> found = gson.fromJson(response.body(), new TypeToken<List<Task>>() {
+        }.getType());
+        HttpResponse<String> missing = sendGet(client, "/search", null);
+
+        //then
+        assertEquals(200, response.statusCode());
+        assertEquals(List.of(release.getId()), found.stream().map(Task::getId).toList(), "Wrong search results");
+        assertEquals(400, missing.statusCode());
+    }
+
+    @Test
+    @DisplayName("Should stop the worker threads of the bounded pool when the server stops")
+    public void shouldStopPoolThreads_serverStops() throws IOException, InterruptedException {
+        //given
+        ServerSettings settings = new ServerSettings();
+        settings.setPort(8082);
+        settings.setExecutorMode(ExecutorMode.BOUNDED_POOL);
+        HttpTaskServer poolServer = new HttpTaskServer(new InMemoryTaskManager(new InMemoryHistoryManager()),
+                settings);
+        poolServer.start();
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder().uri(URI.create("http://localhost:8082/tasks")).GET().build();
+        int status = client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode();
+        List<Thread> workers = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("http-worker-8082-"))
+                .toList();
+
+        //when
+        poolServer.stop();
+        for (Thread worker : workers) {
+            worker.join(5_000);
+        }
+
+        //then
+        assertEquals(200, status, "Request was not served");
+        assertFalse(workers.isEmpty(), "Request was not served by the pool");
+        assertTrue(workers.stream().noneMatch(Thread::isAlive), "Pool threads would keep the JVM running");
+    }
+}
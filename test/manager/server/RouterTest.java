@@ -0,0 +1,54 @@
+package manager.server;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Router")
+class RouterTest {
+
+    Router router;
+
+    @BeforeEach
+    void init() {
+        router = new Router();
+        router.add("GET", "/epics", Endpoint.GET_ENTITIES);
+        router.add("GET", "/epics/{id}", Endpoint.GET_ENTITY_BY_ID);
+        router.add("GET", "/epics/{id}/subtasks", Endpoint.GET_EPICS_SUBTASKS);
+        router.add("DELETE", "/epics/{id}", Endpoint.DELETE_ENTITY_BY_ID);
+    }
+
+    @Test
+    @DisplayName("Should match the endpoint and take the id from the path")
+    void match_returnEndpointAndId() {
+        //when
+        Route list = router.match("GET", "/epics");
+        Route byId = router.match("GET", "/epics/42");
+        Route subtasks = router.match("GET", "/epics/7/subtasks/");
+        Route delete = router.match("DELETE", "/epics/2147483647");
+
+        //then
+        assertEquals(Endpoint.GET_ENTITIES, list.getEndpoint(), "List endpoint was not matched");
+        assertNull(list.getId(), "List endpoint should have no id");
+        assertEquals(Endpoint.GET_ENTITY_BY_ID, byId.getEndpoint(), "Entity endpoint was not matched");
+        assertEquals(42, byId.getId(), "Id was not parsed");
+        assertEquals(Endpoint.GET_EPICS_SUBTASKS, subtasks.getEndpoint(), "Trailing slash should be ignored");
+        assertEquals(7, subtasks.getId(), "Id was not parsed");
+        assertEquals(Integer.MAX_VALUE, delete.getId(), "Largest id was not parsed");
+    }
+
+    @Test
+    @DisplayName("Should not match unknown methods, paths and malformed ids")
+    void match_returnUnknown() {
+        //then
+        assertEquals(Endpoint.UNKNOWN, router.match("POST", "/epics").getEndpoint(), "Unknown method matched");
+        assertEquals(Endpoint.UNKNOWN, router.match("GET", "/epicsx").getEndpoint(), "Longer segment matched");
+        assertEquals(Endpoint.UNKNOWN, router.match("GET", "/epics/abc").getEndpoint(), "Non-numeric id matched");
+        assertEquals(Endpoint.UNKNOWN, router.match("GET", "/epics/2147483648").getEndpoint(),
+                "Overflowing id matched");
+        assertEquals(Endpoint.UNKNOWN, router.match("GET", "/epics/1/tasks").getEndpoint(), "Unknown suffix matched");
+        assertEquals(Endpoint.UNKNOWN, router.match("GET", "/epics//").getEndpoint(), "Empty id matched");
+    }
+}
@@ -1,7 +1,9 @@
 package manager.task;
 
+import converter.TaskConverter;
+import exception.ManagerIOException;
 import exception.NotFoundException;
-import manager.Managers;
+import exception.ValidationException;
 import model.Epic;
 import model.Status;
 import model.SubTask;
@@ -9,26 +11,41 @@ import model.Task;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DisplayName("File Backed Task Manager")
 class FileBackedTaskManagerTest extends InMemoryTaskManagerTest {
 
-    File fileForRecovery = new File("resources/task.csv");
+    @TempDir
+    Path directory;
+    File fileForRecovery;
 
     @BeforeEach
     void init() {
-        this.manager = Managers.getDefaults();
-        manager.deleteAllEpics();
-        manager.deleteAllTasks();
-        manager.deleteAllSubTasks();
+        fileForRecovery = directory.resolve("task.csv").toFile();
+        this.manager = FileBackedTaskManager.loadFromFile(fileForRecovery);
     }
 
     @Test
@@ -402,4 +419,563 @@ class FileBackedTaskManagerTest extends InMemoryTaskManagerTest {
         //then
         assertEquals(0, epicList.size(), "Epics were not deleted");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should restore the manager from the journal in journal mode")
+    void loadFromFile_replaysJournal_inJournalMode() throws IOException {
+        //given
+        File file = directory.resolve("task.csv").toFile();
+        FileBackedTaskManager journaled = FileBackedTaskManager.loadFromFile(file, PersistenceMode.JOURNAL);
+        Task task = journaled.createTask(new Task("name1", "description1", Status.NEW,
+                LocalDateTime.of(2024, 6, 18, 13, 17), Duration.ofMinutes(40)));
+        Epic epic = journaled.createEpic(new Epic("name2", "description2"));
+        SubTask subTask1 = journaled.createSubTask(new SubTask("name3", Status.NEW, "description3",
+                epic.getId(), LocalDateTime.of(2024, 6, 19, 14, 30), Duration.ofMinutes(60)));
+        SubTask subTask2 = journaled.createSubTask(new SubTask("name4", Status.DONE, "description4",
+                epic.getId(), LocalDateTime.of(2024, 6, 20, 14, 30), Duration.ofMinutes(60)));
+        journaled.updateSubTask(new SubTask(subTask1.getId(), "name3-2", Status.DONE, "description3-2",
+                epic.getId(), LocalDateTime.of(2024, 6, 19, 15, 30), Duration.ofMinutes(30)));
+        journaled.deleteTaskById(task.getId());
+        journaled.close();
+
+        //when
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file, PersistenceMode.JOURNAL);
+        Epic epicActual = restored.getEpicById(epic.getId());
+        SubTask subTaskActual = restored.getSubTaskById(subTask1.getId());
+
+        //then
+        assertFalse(file.exists(), "Snapshot should not be written in journal mode");
+        assertEquals(0, restored.getTasksList().size(), "Deleted task was restored");
+        assertEquals("name3-2", subTaskActual.getName(), "Subtask update was not restored");
+        assertEquals(Status.DONE, epicActual.getStatus(), "Epic status was not restored");
+        assertEquals(LocalDateTime.of(2024, 6, 19, 15, 30), epicActual.getStartDateTime(),
+                "Epic startDateTime was not restored");
+        assertEquals(List.of(subTask1.getId(), subTask2.getId()), epicActual.getSubTasksId(),
+                "Subtasks' IDs do not match");
+        assertEquals(2, restored.getPrioritizedTasks().size(), "Prioritized tasks were not restored");
+        assertEquals(5, restored.createTask(new Task("name5", "description5", Status.NEW)).getId(),
+                "The counter was not restored");
+    }
+
+    @Test
+    @DisplayName("Should ignore a partially written last journal record")
+    void loadFromFile_ignoresTornJournalTail() throws IOException {
+        //given
+        File file = directory.resolve("task.csv").toFile();
+        FileBackedTaskManager journaled = FileBackedTaskManager.loadFromFile(file, PersistenceMode.JOURNAL);
+        Task task = journaled.createTask(new Task("name1", "description1", Status.NEW));
+        Path journal = Path.of(file.getPath() + ".log");
+        Files.writeString(journal, "DELETE,", StandardOpenOption.APPEND);
+        journaled.close();
+
+        //when
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file, PersistenceMode.JOURNAL);
+        restored.createTask(new Task("name2", "description2", Status.NEW));
+        FileBackedTaskManager restoredAgain = FileBackedTaskManager.loadFromFile(file, PersistenceMode.JOURNAL);
+
+        //then
+        assertEquals(task.getName(), restored.getTaskById(task.getId()).getName(), "Task was not restored");
+        assertEquals(2, restoredAgain.getTasksList().size(), "Journal was not repaired");
+    }
+
+    @Test
+    @DisplayName("Should fold the journal into the snapshot when saving in snapshot mode")
+    void save_foldsJournalIntoSnapshot() throws IOException {
+        //given
+        File file = directory.resolve("task.csv").toFile();
+        FileBackedTaskManager journaled = FileBackedTaskManager.loadFromFile(file, PersistenceMode.JOURNAL);
+        journaled.createTask(new Task("name1", "description1", Status.NEW));
+        journaled.close();
+
+        //when
+        FileBackedTaskManager snapshotted = FileBackedTaskManager.loadFromFile(file);
+        snapshotted.createTask(new Task("name2", "description2", Status.NEW));
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file);
+
+        //then
+        assertFalse(new File(file.getPath() + ".log").exists(), "Journal was not removed");
+        assertEquals(2, restored.getTasksList().size(), "Tasks were not restored");
+    }
+
+    @Test
+    @DisplayName("Should compact the journal into a snapshot in the background once the record threshold is reached")
+    void append_compactsJournal_whenRecordThresholdIsReached() throws IOException {
+        //given
+        File file = directory.resolve("task.csv").toFile();
+        StorageSettings settings = new StorageSettings();
+        settings.setMode(PersistenceMode.JOURNAL);
+        settings.setMaxJournalRecords(3);
+        FileBackedTaskManager journaled = FileBackedTaskManager.loadFromFile(file, settings);
+
+        //when
+        journaled.createTask(new Task("name1", "description1", Status.NEW));
+        journaled.createTask(new Task("name2", "description2", Status.NEW));
+        journaled.createTask(new Task("name3", "description3", Status.NEW));
+        journaled.awaitCompaction();
+        journaled.createTask(new Task("name4", "description4", Status.NEW));
+
+        StorageMetrics metrics = journaled.getStorageMetrics();
+        journaled.close();
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file, settings);
+
+        //then
+        assertEquals(1, metrics.getCompactions(), "Journal was not compacted");
+        assertEquals(1, metrics.getJournalRecords(), "Journal was not truncated");
+        assertFalse(new File(file.getPath() + ".log.old").exists(), "Compacted journal was not removed");
+        assertEquals(5, Files.readAllLines(file.toPath()).size(), "Snapshot does not contain compacted records");
+        assertEquals(4, restored.getTasksList().size(), "Tasks were not restored");
+    }
+
+    @Test
+    @DisplayName("Should replay a journal whose compaction was interrupted")
+    void loadFromFile_replaysInterruptedCompaction() throws IOException {
+        //given
+        File file = directory.resolve("task.csv").toFile();
+        FileBackedTaskManager journaled = FileBackedTaskManager.loadFromFile(file, PersistenceMode.JOURNAL);
+        Epic epic = journaled.createEpic(new Epic("name1", "description1"));
+        journaled.createSubTask(new SubTask("name2", Status.DONE, "description2", epic.getId(), null, null));
+        journaled.compact();
+        journaled.deleteEpicById(epic.getId());
+        journaled.createTask(new Task("name3", "description3", Status.NEW));
+        Files.move(Path.of(file.getPath() + ".log"), Path.of(file.getPath() + ".log.old"));
+        journaled.close();
+
+        //when
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file, PersistenceMode.JOURNAL);
+        restored.compact();
+        restored.close();
+        FileBackedTaskManager restoredAgain = FileBackedTaskManager.loadFromFile(file, PersistenceMode.JOURNAL);
+
+        //then
+        assertEquals(0, restored.getEpicList().size(), "Epic was restored");
+        assertEquals(0, restored.getSubTasksList().size(), "Subtask was restored");
+        assertEquals(1, restored.getTasksList().size(), "Task was not restored");
+        assertFalse(new File(file.getPath() + ".log.old").exists(), "Compacted journal was not removed");
+        assertEquals(1, restoredAgain.getTasksList().size(), "Task was not restored after compaction");
+        assertEquals(0, restoredAgain.getEpicList().size(), "Epic was restored after compaction");
+    }
+
+    @Test
+    @DisplayName("Should sync every journal record with the SYNC_EACH policy")
+    void append_syncsEachRecord_withSyncEachPolicy() throws IOException {
+        //given
+        File file = directory.resolve("task.csv").toFile();
+        StorageSettings settings = new StorageSettings();
+        settings.setMode(PersistenceMode.JOURNAL);
+        settings.setDurability(DurabilityPolicy.SYNC_EACH);
+        FileBackedTaskManager journaled = FileBackedTaskManager.loadFromFile(file, settings);
+
+        //when
+        journaled.createTask(new Task("name1", "description1", Status.NEW));
+        journaled.createTask(new Task("name2", "description2", Status.NEW));
+        StorageMetrics metrics = journaled.getStorageMetrics();
+        journaled.close();
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file, settings);
+
+        //then
+        assertEquals(2, metrics.getMutations(), "Mutations were not counted");
+        assertEquals(2, metrics.getSyncs(), "Records were not synced");
+        assertEquals(1.0, metrics.getWriteAmplification(), "Journal wrote more than the records");
+        assertEquals(2, restored.getTasksList().size(), "Tasks were not restored");
+    }
+
+    @Test
+    @DisplayName("Should persist journal records committed in batches")
+    void append_persistsRecords_withSyncBatchPolicy() throws IOException {
+        //given
+        File file = directory.resolve("task.csv").toFile();
+        StorageSettings settings = new StorageSettings();
+        settings.setMode(PersistenceMode.JOURNAL);
+        settings.setDurability(DurabilityPolicy.SYNC_BATCH);
+        settings.setGroupCommitWindow(Duration.ofMillis(1));
+        FileBackedTaskManager journaled = FileBackedTaskManager.loadFromFile(file, settings);
+
+        //when
+        Epic epic = journaled.createEpic(new Epic("name1", "description1"));
+        journaled.createSubTask(new SubTask("name2", Status.DONE, "description2", epic.getId(), null, null));
+        journaled.createTask(new Task("name3", "description3", Status.NEW));
+        StorageMetrics metrics = journaled.getStorageMetrics();
+        journaled.close();
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file, settings);
+
+        //then
+        assertEquals(3, metrics.getJournalRecords(), "Records were not journaled");
+        assertEquals(Status.DONE, restored.getEpicList().getFirst().getStatus(), "Epic was not restored");
+        assertEquals(1, restored.getSubTasksList().size(), "Subtask was not restored");
+        assertEquals(1, restored.getTasksList().size(), "Task was not restored");
+    }
+
+    @Test
+    @DisplayName("Should report higher write amplification for snapshots than for the journal")
+    void getStorageMetrics_reportsWriteAmplification() throws IOException {
+        //given
+        FileBackedTaskManager snapshotted = FileBackedTaskManager.loadFromFile(
+                directory.resolve("snapshot.csv").toFile(), PersistenceMode.SNAPSHOT);
+        FileBackedTaskManager journaled = FileBackedTaskManager.loadFromFile(
+                directory.resolve("journal.csv").toFile(), PersistenceMode.JOURNAL);
+
+        //when
+        for (int i = 0; i < 10; i++) {
+            snapshotted.createTask(new Task("name" + i, "description" + i, Status.NEW));
+            journaled.createTask(new Task("name" + i, "description" + i, Status.NEW));
+        }
+        StorageMetrics snapshotMetrics = snapshotted.getStorageMetrics();
+        StorageMetrics journalMetrics = journaled.getStorageMetrics();
+
+        //then
+        assertTrue(snapshotMetrics.getLogicalBytes() > 0, "Logical bytes were not counted for snapshots");
+        assertTrue(snapshotMetrics.getWriteAmplification() > journalMetrics.getWriteAmplification(),
+                "Snapshots should write more bytes per mutation");
+        assertFalse(journalMetrics.getP99MutationLatency().isNegative(), "Latency was not recorded");
+    }
+
+    @Test
+    @DisplayName("Should write the snapshot atomically with a validated footer")
+    void save_writesSnapshotWithFooter() throws IOException {
+        //given
+        File file = directory.resolve("task.csv").toFile();
+        FileBackedTaskManager snapshotted = FileBackedTaskManager.loadFromFile(file);
+
+        //when
+        snapshotted.createTask(new Task("name1", "description1", Status.NEW));
+        snapshotted.createTask(new Task("name2", "description2", Status.NEW));
+        List<String> lines = Files.readAllLines(file.toPath());
+
+        //then
+        assertTrue(lines.getLast().startsWith("#records=2,crc32="), "Snapshot footer was not written");
+        assertFalse(new File(file.getPath() + ".tmp").exists(), "Temp snapshot was not moved");
+        assertTrue(new File(file.getPath() + ".bak").exists(), "Previous snapshot was not kept");
+        assertEquals(2, FileBackedTaskManager.loadFromFile(file).getTasksList().size(), "Tasks were not restored");
+    }
+
+    @Test
+    @DisplayName("Should fall back to the previous snapshot when the current one is corrupted")
+    void loadFromFile_fallsBackToBackup_whenSnapshotIsCorrupted() throws IOException {
+        //given
+        File file = directory.resolve("task.csv").toFile();
+        FileBackedTaskManager snapshotted = FileBackedTaskManager.loadFromFile(file);
+        snapshotted.createTask(new Task("name1", "description1", Status.NEW));
+        snapshotted.createTask(new Task("name2", "description2", Status.NEW));
+        List<String> lines = Files.readAllLines(file.toPath());
+        lines.set(1, lines.get(1).replace("name1", "name9"));
+        Files.write(file.toPath(), lines);
+
+        //when
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file);
+
+        //then
+        assertEquals(1, restored.getTasksList().size(), "Previous snapshot was not restored");
+        assertEquals("name1", restored.getTasksList().getFirst().getName(), "Corrupted record was restored");
+        assertTrue(restored.getStorageMetrics().isRecoveredFromBackup(), "Fallback to the backup was not reported");
+        assertFalse(snapshotted.getStorageMetrics().isRecoveredFromBackup(), "Normal load was reported as a fallback");
+    }
+
+    @Test
+    @DisplayName("Should fall back to the previous snapshot when a legacy snapshot ends with a torn line")
+    void loadFromFile_fallsBackToBackup_whenLegacySnapshotIsTorn() throws IOException {
+        //given
+        File file = directory.resolve("task.csv").toFile();
+        Files.writeString(directory.resolve("task.csv.bak"),
+                "id,type,name,status,description,epicId,startDateTime,duration\n" +
+                "1,TASK,name1,NEW,description1,null,null,null\n");
+        Files.writeString(file.toPath(),
+                "id,type,name,status,description,epicId,startDateTime,duration\n" +
+                "1,TASK,name1,NEW,description1,null,null,null\n" +
+                "2,TASK,name2,NEW,descr");
+
+        //when
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file);
+
+        //then
+        assertEquals(1, restored.getTasksList().size(), "Previous snapshot was not restored");
+    }
+
+    @Test
+    @DisplayName("Should throw ManagerIOException when the snapshot is corrupted and there is no backup")
+    void loadFromFile_throwsManagerIOException_whenSnapshotIsCorruptedWithoutBackup() throws IOException {
+        //given
+        File file = directory.resolve("task.csv").toFile();
+        Files.writeString(file.toPath(),
+                "id,type,name,status,description,epicId,startDateTime,duration\n" +
+                "1,TASK,name1,NEW,description1,null,null,null\n" +
+                "#records=2,crc32=0\n");
+
+        //when
+        //then
+        assertThrows(ManagerIOException.class, () -> FileBackedTaskManager.loadFromFile(file),
+                "Corrupted snapshot was loaded");
+    }
+
+    @Test
+    @DisplayName("Should restore the manager from a binary snapshot")
+    void loadFromFile_restoresManager_fromBinarySnapshot() throws IOException {
+        //given
+        File file = directory.resolve("task.bin").toFile();
+        StorageSettings settings = new StorageSettings();
+        settings.setSnapshotFormat(SnapshotFormat.BINARY);
+        FileBackedTaskManager binary = FileBackedTaskManager.loadFromFile(file, settings);
+        Epic epic = binary.createEpic(new Epic("name1", "description1"));
+        binary.createSubTask(new SubTask("name2", Status.DONE, "description2", epic.getId(),
+                LocalDateTime.of(2024, 6, 20, 12, 25), Duration.ofMinutes(30)));
+        binary.createTask(new Task("name3", "description3", Status.NEW));
+
+        //when
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file);
+
+        //then
+        assertFalse(Files.readString(file.toPath(), StandardCharsets.ISO_8859_1)
+                .startsWith("id,"), "Snapshot was written as CSV");
+        assertEquals(binary.getTasksList(), restored.getTasksList(), "Tasks were not restored");
+        assertEquals(binary.getSubTasksList(), restored.getSubTasksList(), "Subtasks were not restored");
+        assertEquals(Status.DONE, restored.getEpicById(epic.getId()).getStatus(), "Epic was not restored");
+        assertEquals(Duration.ofMinutes(30), restored.getEpicById(epic.getId()).getDuration(),
+                "Epic duration was not restored");
+    }
+
+    @Test
+    @DisplayName("Should convert a snapshot from CSV to binary and back")
+    void convert_roundTripsSnapshotBetweenFormats() throws IOException {
+        //given
+        File csv = directory.resolve("task.csv").toFile();
+        File binary = directory.resolve("task.bin").toFile();
+        File csvAgain = directory.resolve("task-again.csv").toFile();
+        FileBackedTaskManager snapshotted = FileBackedTaskManager.loadFromFile(csv);
+        Epic epic = snapshotted.createEpic(new Epic("name1", "description1"));
+        snapshotted.createSubTask(new SubTask("name2", Status.NEW, "description2", epic.getId(), null, null));
+        snapshotted.createTask(new Task("name3", "description3", Status.IN_PROGRESS,
+                LocalDateTime.of(2024, 6, 20, 12, 25), Duration.ofHours(1)));
+
+        //when
+        long converted = SnapshotConverter.convert(csv, binary, SnapshotFormat.BINARY);
+        SnapshotConverter.convert(binary, csvAgain, SnapshotFormat.CSV);
+
+        //then
+        assertEquals(3, converted, "Wrong number of converted records");
+        assertTrue(binary.length() < csv.length(), "Binary snapshot is not smaller");
+        assertEquals(Files.readAllLines(csv.toPath()), Files.readAllLines(csvAgain.toPath()),
+                "Snapshot changed after a round trip");
+    }
+
+    @Test
+    @DisplayName("Should restore names and descriptions containing commas and line breaks")
+    void loadFromFile_restoresTextWithSeparators() throws IOException {
+        //given
+        File snapshotFile = directory.resolve("snapshot.csv").toFile();
+        File journalFile = directory.resolve("journal.csv").toFile();
+        FileBackedTaskManager snapshotted = FileBackedTaskManager.loadFromFile(snapshotFile);
+        FileBackedTaskManager journaled = FileBackedTaskManager.loadFromFile(journalFile, PersistenceMode.JOURNAL);
+
+        //when
+        snapshotted.createTask(new Task("name, one", "first line\nsecond, line", Status.NEW));
+        journaled.createTask(new Task("name, one", "first line\nsecond, line", Status.NEW));
+        Task fromSnapshot = FileBackedTaskManager.loadFromFile(snapshotFile).getTaskById(1);
+        Task fromJournal = FileBackedTaskManager.loadFromFile(journalFile, PersistenceMode.JOURNAL).getTaskById(1);
+
+        //then
+        assertEquals("name, one", fromSnapshot.getName(), "Name was not restored from the snapshot");
+        assertEquals("first line\nsecond, line", fromSnapshot.getDescription(),
+                "Description was not restored from the snapshot");
+        assertEquals("name, one", fromJournal.getName(), "Name was not restored from the journal");
+        assertEquals("first line\nsecond, line", fromJournal.getDescription(),
+                "Description was not restored from the journal");
+    }
+
+    @Test
+    @DisplayName("Should journal every mutation made concurrently with group commit")
+    void concurrentMutations_areJournaled_withSyncBatchPolicy() throws Exception {
+        //given
+        File file = directory.resolve("task.csv").toFile();
+        StorageSettings settings = new StorageSettings();
+        settings.setMode(PersistenceMode.JOURNAL);
+        settings.setDurability(DurabilityPolicy.SYNC_BATCH);
+        settings.setGroupCommitWindow(Duration.ofMillis(2));
+        settings.setMaxJournalRecords(100);
+        FileBackedTaskManager journaled = FileBackedTaskManager.loadFromFile(file, settings);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> results = new ArrayList<>();
+
+        //when
+        for (int t = 0; t < 8; t++) {
+            results.add(executor.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    journaled.createTask(new Task("name", "description", Status.NEW));
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        journaled.compact();
+        StorageMetrics metrics = journaled.getStorageMetrics();
+        journaled.close();
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file, settings);
+
+        //then
+        assertEquals(400, metrics.getMutations(), "Mutations were lost");
+        assertEquals(400, restored.getTasksList().size(), "Tasks were not restored");
+        assertEquals(400, restored.getTasksList().stream().map(Task::getId).distinct().count(),
+                "Task ids are not unique");
+    }
+
+    @Test
+    @DisplayName("Should replay a batch from the journal")
+    void applyBatch_isRestoredFromJournal() throws IOException {
+        //given
+        File file = directory.resolve("task.csv").toFile();
+        FileBackedTaskManager journaled = FileBackedTaskManager.loadFromFile(file, PersistenceMode.JOURNAL);
+        Epic epic = journaled.createEpic(new Epic("epic", "description"));
+        List<BatchOperation> operations = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            operations.add(BatchOperation.create(new SubTask("subtask-" + i, Status.DONE, "description",
+                    epic.getId(), LocalDateTime.of(2024, 6, 18, 10 + i, 0), Duration.ofMinutes(30))));
+        }
+
+        //when
+        journaled.applyBatch(operations);
+        journaled.close();
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file, PersistenceMode.JOURNAL);
+
+        //then
+        assertEquals(3, restored.getSubTasksList().size(), "Batch was not restored");
+        assertEquals(Status.DONE, restored.getEpicById(epic.getId()).getStatus(), "Epic was not recalculated");
+        assertEquals(2, journaled.getStorageMetrics().getMutations(), "Batch should be persisted once");
+    }
+
+    @Test
+    @DisplayName("Should drop a batch whose records were not all written")
+    void loadFromFile_ignoresTornBatch() throws IOException {
+        //given
+        File file = directory.resolve("task.csv").toFile();
+        FileBackedTaskManager journaled = FileBackedTaskManager.loadFromFile(file, PersistenceMode.JOURNAL);
+        journaled.createTask(new Task("name1", "description1", Status.NEW));
+        Path journal = Path.of(file.getPath() + ".log");
+        Files.writeString(journal, "BATCH,2\nPUT,2,TASK,name2,NEW,description2,null,null,null\n",
+                StandardOpenOption.APPEND);
+        journaled.close();
+
+        //when
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file, PersistenceMode.JOURNAL);
+        List<Task> restoredTasks = restored.getTasksList();
+        restored.createTask(new Task("name3", "description3", Status.NEW));
+        FileBackedTaskManager restoredAgain = FileBackedTaskManager.loadFromFile(file, PersistenceMode.JOURNAL);
+
+        //then
+        assertEquals(1, restoredTasks.size(), "Incomplete batch was applied");
+        assertEquals(2, restoredAgain.getTasksList().size(), "Journal was not repaired");
+    }
+
+    @Test
+    @DisplayName("Should build the compacted snapshot from the rotated journal while writers keep appending")
+    void compaction_keepsLaterMutationsInJournal() throws IOException {
+        //given
+        File file = directory.resolve("task.csv").toFile();
+        StorageSettings settings = new StorageSettings();
+        settings.setMode(PersistenceMode.JOURNAL);
+        settings.setMaxJournalRecords(3);
+        FileBackedTaskManager journaled = FileBackedTaskManager.loadFromFile(file, settings);
+        Epic epic = journaled.createEpic(new Epic("name1", "description1"));
+        journaled.createSubTask(new SubTask("name2", Status.DONE, "description2", epic.getId(), null, null));
+
+        //when
+        Task task = journaled.createTask(new Task("name3", "description3", Status.NEW));
+        journaled.deleteTaskById(task.getId());
+        journaled.createTask(new Task("name4", "description4", Status.NEW));
+        journaled.awaitCompaction();
+        journaled.close();
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file, settings);
+
+        //then
+        assertEquals(5, Files.readAllLines(file.toPath()).size(), "Snapshot does not hold the rotated records");
+        assertEquals(Status.DONE, restored.getEpicList().get(0).getStatus(), "Epic status was not restored");
+        assertEquals(1, restored.getTasksList().size(), "Journaled mutations were not restored");
+        assertEquals("name4", restored.getTasksList().get(0).getName(), "Wrong task was restored");
+    }
+
+    @Test
+    @DisplayName("Should record a failed compaction and keep its journal for the next attempt")
+    void compact_recordsFailure_andRetries() throws IOException {
+        //given
+        File file = directory.resolve("task.csv").toFile();
+        FileBackedTaskManager journaled = FileBackedTaskManager.loadFromFile(file, PersistenceMode.JOURNAL);
+        journaled.createTask(new Task("name1", "description1", Status.NEW));
+        journaled.createTask(new Task("name2", "description2", Status.NEW));
+        Path temp = Files.createDirectory(Path.of(file.getPath() + ".tmp"));
+
+        //when
+        assertThrows(ManagerIOException.class, journaled::compact, "Failed compaction was not reported");
+        StorageMetrics failed = journaled.getStorageMetrics();
+        Files.delete(temp);
+        journaled.compact();
+        StorageMetrics retried = journaled.getStorageMetrics();
+        journaled.close();
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file, PersistenceMode.JOURNAL);
+
+        //then
+        assertEquals(1, failed.getFailedCompactions(), "Failure was not counted");
+        assertNotNull(failed.getLastCompactionError(), "Failure was not recorded");
+        assertEquals(2, failed.getJournalRecords(), "Journal records of the failed compaction were hidden");
+        assertEquals(1, retried.getCompactions(), "Compaction was not retried");
+        assertNull(retried.getLastCompactionError(), "Error was not cleared by the retry");
+        assertEquals(0, retried.getJournalRecords(), "Journal was not compacted");
+        assertEquals(2, restored.getTasksList().size(), "Tasks were not restored");
+    }
+
+    @Test
+    @DisplayName("Should skip journal records already included in the snapshot")
+    void loadFromFile_skipsJournalRecordsCoveredBySnapshot() throws IOException {
+        //given
+        File file = directory.resolve("task.csv").toFile();
+        FileBackedTaskManager journaled = FileBackedTaskManager.loadFromFile(file, PersistenceMode.JOURNAL);
+        LocalDateTime start = LocalDateTime.of(2024, 6, 20, 10, 0);
+        Task meeting = journaled.createTask(new Task("name1", "description1", Status.NEW, start,
+                Duration.ofHours(1)));
+        Task marker = journaled.createTask(new Task("name2", "description2", Status.NEW, start, Duration.ZERO));
+        journaled.compact();
+        journaled.createTask(new Task("name3", "description3", Status.NEW));
+        Task stale = new Task(meeting.getId(), "stale", Status.NEW, "description1", start.plusHours(3),
+                Duration.ofHours(1));
+        Files.writeString(Path.of(file.getPath() + ".log.old"), "1,PUT," + TaskConverter.toString(stale)
+                + System.lineSeparator() + "2,DELETE," + marker.getId() + System.lineSeparator());
+        journaled.close();
+
+        //when
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file, PersistenceMode.JOURNAL);
+
+        //then
+        assertEquals("name1", restored.getTaskById(meeting.getId()).getName(), "Covered record was replayed");
+        assertEquals(3, restored.getTasksList().size(), "Covered delete was replayed");
+        assertEquals(2, restored.getPrioritizedTasks().size(), "Schedule was changed by covered records");
+        assertThrows(ValidationException.class, () -> restored.createTask(new Task("name4", "description4",
+                Status.NEW, start.plusMinutes(30), Duration.ofMinutes(10))), "Overlap was not detected");
+    }
+
+    @Test
+    @DisplayName("Should write the queued records and stop the journal committer on close")
+    void close_stopsCommitter_withSyncBatchPolicy() throws IOException {
+        //given
+        File file = directory.resolve("task.csv").toFile();
+        StorageSettings settings = new StorageSettings();
+        settings.setMode(PersistenceMode.JOURNAL);
+        settings.setDurability(DurabilityPolicy.SYNC_BATCH);
+        long committersBefore = countThreads("journal-committer");
+        FileBackedTaskManager journaled = FileBackedTaskManager.loadFromFile(file, settings);
+        journaled.createTask(new Task("name1", "description1", Status.NEW));
+        long committersRunning = countThreads("journal-committer");
+
+        //when
+        journaled.close();
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file, settings);
+
+        //then
+        assertEquals(committersBefore + 1, committersRunning, "Committer was not started");
+        assertEquals(committersBefore, countThreads("journal-committer"), "Committer was not stopped");
+        assertEquals(1, restored.getTasksList().size(), "Journaled task was not restored");
+    }
+
+    private static long countThreads(String name) {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals(name) && thread.isAlive())
+                .count();
+    }
+}
@@ -7,6 +7,7 @@ import model.Epic;
 import model.Status;
 import model.SubTask;
 import model.Task;
+import model.TaskType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,7 +15,16 @@ import org.junit.jupiter.api.Test;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -26,10 +36,7 @@ class InMemoryTaskManagerTest {
 
     @BeforeEach
     void init() {
-        manager = Managers.getDefaults();
-        manager.deleteAllEpics();
-        manager.deleteAllTasks();
-        manager.deleteAllSubTasks();
+        manager = new InMemoryTaskManager(Managers.getDefaultHistory());
     }
 
     @Test
@@ -1642,4 +1649,580 @@ class InMemoryTaskManagerTest {
         assertEquals(2, list.get(1).getId(), "Task is not in the correct position");
         assertEquals(3, list.getLast().getId(), "Task is not in the correct position");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should return all scheduled tasks that overlap the given one in start order")
+    void getTimeConflicts_returnAllOverlappingTasks() {
+        //given
+        Epic epic = manager.createEpic(new Epic("name", "description"));
+        SubTask subTask = manager.createSubTask(new SubTask("Subtask's name", Status.NEW, "description",
+                epic.getId(), LocalDateTime.of(2024, 6, 19, 13, 0), Duration.ofMinutes(30)));
+        Task task1 = manager.createTask(new Task("Task's name-1", "description-1", Status.NEW,
+                LocalDateTime.of(2024, 6, 19, 12, 0), Duration.ofMinutes(60)));
+        Task task2 = manager.createTask(new Task("Task's name-2", "description-2", Status.NEW,
+                LocalDateTime.of(2024, 6, 19, 14, 0), Duration.ofMinutes(60)));
+        manager.createTask(new Task("Task's name-3", "description-3", Status.NEW,
+                LocalDateTime.of(2024, 6, 19, 16, 0), Duration.ofMinutes(60)));
+        Task probe = new Task("Probe", "description", Status.NEW,
+                LocalDateTime.of(2024, 6, 19, 12, 30), Duration.ofMinutes(120));
+
+        //when
+        List<Task> conflicts = manager.getTimeConflicts(probe);
+
+        //then
+        assertEquals(3, conflicts.size(), "Incorrect number of conflicts");
+        assertEquals(task1.getId(), conflicts.get(0).getId(), "Conflict is not in the correct position");
+        assertEquals(subTask.getId(), conflicts.get(1).getId(), "Conflict is not in the correct position");
+        assertEquals(task2.getId(), conflicts.get(2).getId(), "Conflict is not in the correct position");
+    }
+
+    @Test
+    @DisplayName("Should not report a task as conflicting with itself or with boundary neighbours")
+    void getTimeConflicts_ignoreSameTaskAndBoundaryValues() {
+        //given
+        Task task1 = manager.createTask(new Task("Task's name-1", "description-1", Status.NEW,
+                LocalDateTime.of(2024, 6, 19, 12, 0), Duration.ofMinutes(60)));
+        manager.createTask(new Task("Task's name-2", "description-2", Status.NEW,
+                LocalDateTime.of(2024, 6, 19, 13, 0), Duration.ofMinutes(60)));
+        manager.createTask(new Task("Task's name-3", "description-3", Status.NEW,
+                LocalDateTime.of(2024, 6, 19, 11, 0), Duration.ofMinutes(60)));
+        Task probe = new Task(task1.getId(), "Probe", Status.NEW, "description",
+                LocalDateTime.of(2024, 6, 19, 12, 0), Duration.ofMinutes(60));
+
+        //when
+        List<Task> conflicts = manager.getTimeConflicts(probe);
+
+        //then
+        assertTrue(conflicts.isEmpty(), "Conflicts were found");
+    }
+
+    @Test
+    @DisplayName("Should return no conflicts for a task without start time")
+    void getTimeConflicts_returnEmptyList_ifTaskDoesNotHaveStartTime() {
+        //given
+        manager.createTask(new Task("Task's name", "description", Status.NEW,
+                LocalDateTime.of(2024, 6, 19, 12, 0), Duration.ofMinutes(60)));
+
+        //when
+        List<Task> conflicts = manager.getTimeConflicts(new Task("Probe", "description", Status.NEW, null, null));
+
+        //then
+        assertTrue(conflicts.isEmpty(), "Conflicts were found");
+    }
+
+    @Test
+    @DisplayName("Should free the time slots of subtasks of the deleted epic")
+    void deleteEpicById_deleteEpicsSubTasksFromPrioritizedTasks() {
+        //given
+        Epic epic = manager.createEpic(new Epic("name", "description"));
+        manager.createSubTask(new SubTask("Subtask's name", Status.IN_PROGRESS, "description",
+                epic.getId(), LocalDateTime.of(2024, 6, 19, 14, 17), Duration.ofMinutes(60)));
+
+        //when
+        manager.deleteEpicById(epic.getId());
+
+        //then
+        assertEquals(0, manager.getPrioritizedTasks().size(), "Subtask was not deleted");
+        assertDoesNotThrow(() -> manager.createTask(new Task("Task's name", "description", Status.NEW,
+                LocalDateTime.of(2024, 6, 19, 14, 17), Duration.ofMinutes(60))), "Time slot was not freed");
+    }
+
+    @Test
+    @DisplayName("Should recalculate the epic's status and time bounds when its boundary subtask is deleted")
+    void deleteSubTaskById_recalculateEpicData() {
+        //given
+        Epic epic = manager.createEpic(new Epic("name", "description"));
+        SubTask subTask1 = manager.createSubTask(new SubTask("Subtask's name-1", Status.DONE, "description-1",
+                epic.getId(), LocalDateTime.of(2024, 6, 19, 12, 0), Duration.ofMinutes(30)));
+        manager.createSubTask(new SubTask("Subtask's name-2", Status.NEW, "description-2",
+                epic.getId(), LocalDateTime.of(2024, 6, 19, 14, 0), Duration.ofMinutes(60)));
+        SubTask subTask3 = manager.createSubTask(new SubTask("Subtask's name-3", Status.DONE, "description-3",
+                epic.getId(), LocalDateTime.of(2024, 6, 19, 16, 0), Duration.ofMinutes(45)));
+
+        //when
+        manager.deleteSubTaskById(subTask1.getId());
+        manager.deleteSubTaskById(subTask3.getId());
+
+        //then
+        assertEquals(Status.NEW, epic.getStatus(), "Epic status was not recalculated");
+        assertEquals(LocalDateTime.of(2024, 6, 19, 14, 0), epic.getStartDateTime(),
+                "Epic startDateTime was not recalculated");
+        assertEquals(LocalDateTime.of(2024, 6, 19, 15, 0), epic.getEndDateTime(),
+                "Epic endDateTime was not recalculated");
+        assertEquals(Duration.ofMinutes(60), epic.getDuration(), "Epic duration was not recalculated");
+    }
+
+    @Test
+    @DisplayName("Should keep epics, prioritized tasks and history consistent under concurrent requests")
+    void concurrentRequests_keepManagerConsistent() throws Exception {
+        //given
+        int threads = 8;
+        int operations = 150;
+        List<Epic> sharedEpics = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            sharedEpics.add(manager.createEpic(new Epic("epic" + i, "description" + i)));
+        }
+        LocalDateTime base = LocalDateTime.of(2024, 6, 18, 0, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+
+        //when
+        for (int t = 0; t < threads; t++) {
+            Random random = new Random(t);
+            results.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < operations; i++) {
+                    Epic epic = sharedEpics.get(random.nextInt(sharedEpics.size()));
+                    int id = 1 + random.nextInt(threads * operations);
+                    LocalDateTime slot = base.plusHours(random.nextInt(200));
+                    try {
+                        switch (random.nextInt(7)) {
+                            case 0 -> manager.createTask(new Task("task", "description", Status.NEW, slot,
+                                    Duration.ofMinutes(30)));
+                            case 1 -> manager.createSubTask(new SubTask("subtask", Status.NEW, "description",
+                                    epic.getId(), random.nextBoolean() ? slot : null, Duration.ofMinutes(30)));
+                            case 2 -> manager.updateSubTask(new SubTask(id, "updated", Status.DONE, "description",
+                                    epic.getId(), null, Duration.ofMinutes(15)));
+                            case 3 -> manager.deleteSubTaskById(id);
+                            case 4 -> manager.deleteTaskById(id);
+                            case 5 -> manager.getSubTaskById(id);
+                            default -> manager.getTaskById(id);
+                        }
+                    } catch (NotFoundException | ValidationException expected) {
+                        // concurrent requests race for the same ids and slots
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        //then
+        List<Task> scheduled = new ArrayList<>();
+        for (Task task : manager.getTasksList()) {
+            if (task.getStartDateTime() != null) {
+                scheduled.add(task);
+            }
+        }
+        for (SubTask subTask : manager.getSubTasksList()) {
+            if (subTask.getStartDateTime() != null) {
+                scheduled.add(subTask);
+            }
+        }
+        scheduled.sort(Comparator.comparing(Task::getStartDateTime));
+        List<Task> prioritized = manager.getPrioritizedTasks();
+        assertEquals(scheduled, prioritized, "Prioritized tasks differ from stored tasks");
+        for (int i = 1; i < prioritized.size(); i++) {
+            assertFalse(prioritized.get(i).getStartDateTime().isBefore(prioritized.get(i - 1).getEndDateTime()),
+                    "Prioritized tasks overlap");
+        }
+
+        for (Epic epic : manager.getEpicList()) {
+            List<SubTask> expected = new ArrayList<>();
+            for (SubTask subTask : manager.getSubTasksList()) {
+                if (subTask.getEpicId().equals(epic.getId())) {
+                    expected.add(subTask);
+                }
+            }
+            List<SubTask> linked = manager.getSubTasksByEpic(epic);
+            assertEquals(expected.size(), linked.size(), "Epic subtasks are out of sync");
+            assertTrue(linked.containsAll(expected), "Epic subtasks are out of sync");
+            boolean allDone = !expected.isEmpty() && expected.stream().allMatch(s -> s.getStatus() == Status.DONE);
+            boolean allNew = expected.stream().allMatch(s -> s.getStatus() == Status.NEW);
+            Status status = allNew ? Status.NEW : allDone ? Status.DONE : Status.IN_PROGRESS;
+            assertEquals(status, epic.getStatus(), "Epic status is out of sync");
+        }
+
+        Set<Integer> historyIds = new HashSet<>();
+        for (Task task : manager.getHistory()) {
+            assertTrue(historyIds.add(task.getId()), "History contains duplicates");
+            assertTrue(manager.getTasksList().contains(task) || manager.getSubTasksList().contains(task),
+                    "History contains a deleted task");
+        }
+    }
+
+    @Test
+    @DisplayName("Should list tasks page by page in id order")
+    void getTasksPage_walkAllPagesInIdOrder() {
+        //given
+        List<Integer> expectedIds = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Epic epic = manager.createEpic(new Epic("epic-" + i, "description"));
+            Task task = manager.createTask(new Task("task-" + i, "description", Status.NEW, null, null));
+            expectedIds.add(task.getId());
+            manager.createSubTask(new SubTask("subtask-" + i, Status.NEW, "description", epic.getId(),
+                    null, null));
+        }
+        manager.deleteTaskById(expectedIds.remove(3));
+
+        //when
+        List<Integer> actualIds = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        Integer cursor = null;
+        do {
+            Page<Task> page = manager.getTasksPage(cursor, 4);
+            page.getItems().forEach(task -> actualIds.add(task.getId()));
+            pageSizes.add(page.getItems().size());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        //then
+        assertEquals(expectedIds, actualIds, "Pages do not cover the tasks in id order");
+        assertEquals(List.of(4, 2), pageSizes, "Pages have unexpected sizes");
+        assertEquals(7, manager.getSubTasksPage(null, 10).getItems().size(), "Subtask page is incomplete");
+        assertNull(manager.getEpicsPage(null, 7).getNextCursor(), "Last page should have no cursor");
+        assertTrue(manager.getTasksPage(actualIds.get(5), 4).getItems().isEmpty(),
+                "Page after the last task should be empty");
+    }
+
+    @Test
+    @DisplayName("Should apply a batch of operations and recalculate the affected epic")
+    void applyBatch_appliesAllOperations() {
+        //given
+        Epic epic = manager.createEpic(new Epic("epic", "description"));
+        Task toDelete = manager.createTask(new Task("task", "description", Status.NEW, null, null));
+        SubTask subTask = new SubTask("subtask-1", Status.DONE, "description", epic.getId(),
+                LocalDateTime.of(2024, 6, 18, 13, 0), Duration.ofMinutes(30));
+        SubTask other = new SubTask("subtask-2", Status.NEW, "description", epic.getId(),
+                LocalDateTime.of(2024, 6, 18, 14, 0), Duration.ofMinutes(30));
+
+        //when
+        List<Task> results = manager.applyBatch(List.of(
+                BatchOperation.create(subTask),
+                BatchOperation.create(other),
+                BatchOperation.update(new Epic(epic.getId(), "epic-2", null, "description-2", null, null)),
+                BatchOperation.delete(TaskType.TASK, toDelete.getId())));
+
+        //then
+        assertEquals(4, results.size(), "Every operation should have a result");
+        assertNotNull(results.getFirst().getId(), "Created subtask has no id");
+        assertNull(results.get(3), "Deletion should have no result");
+        assertEquals("epic-2", manager.getEpicById(epic.getId()).getName(), "Epic was not updated");
+        assertEquals(Status.IN_PROGRESS, manager.getEpicById(epic.getId()).getStatus(), "Epic was not recalculated");
+        assertEquals(LocalDateTime.of(2024, 6, 18, 13, 0), manager.getEpicById(epic.getId()).getStartDateTime(),
+                "Epic start was not recalculated");
+        assertTrue(manager.getTasksList().isEmpty(), "Task was not deleted");
+        assertEquals(2, manager.getPrioritizedTasks().size(), "Subtasks were not scheduled");
+    }
+
+    @Test
+    @DisplayName("Should roll back the whole batch when one operation fails")
+    void applyBatch_rollsBackEverything_whenOperationFails() {
+        //given
+        Epic epic = manager.createEpic(new Epic("epic", "description"));
+        SubTask subTask = manager.createSubTask(new SubTask("subtask", Status.NEW, "description", epic.getId(),
+                LocalDateTime.of(2024, 6, 18, 13, 0), Duration.ofMinutes(30)));
+        Task task = manager.createTask(new Task("task", "description", Status.NEW,
+                LocalDateTime.of(2024, 6, 18, 15, 0), Duration.ofMinutes(30)));
+        manager.getTaskById(task.getId());
+        List<BatchOperation> operations = List.of(
+                BatchOperation.update(new SubTask(subTask.getId(), "moved", Status.DONE, "description", epic.getId(),
+                        LocalDateTime.of(2024, 6, 18, 16, 0), Duration.ofMinutes(30))),
+                BatchOperation.delete(TaskType.TASK, task.getId()),
+                BatchOperation.create(new Task("new", "description", Status.NEW,
+                        LocalDateTime.of(2024, 6, 18, 17, 0), Duration.ofMinutes(30))),
+                BatchOperation.delete(TaskType.EPIC, epic.getId()),
+                BatchOperation.create(new Task("conflicting", "description", Status.NEW,
+                        LocalDateTime.of(2024, 6, 18, 17, 10), Duration.ofMinutes(30))));
+
+        //when
+        assertThrows(ValidationException.class, () -> manager.applyBatch(operations),
+                "Conflicting task should fail the batch");
+
+        //then
+        SubTask subTaskActual = manager.getSubTaskById(subTask.getId());
+        assertEquals("subtask", subTaskActual.getName(), "Subtask update was not rolled back");
+        assertEquals(LocalDateTime.of(2024, 6, 18, 13, 0), subTaskActual.getStartDateTime(),
+                "Subtask time was not rolled back");
+        assertEquals(List.of(task), manager.getTasksList(), "Task deletion or creation was not rolled back");
+        assertEquals(List.of(subTask.getId()), manager.getEpicById(epic.getId()).getSubTasksId(),
+                "Epic deletion was not rolled back");
+        assertEquals(Status.NEW, manager.getEpicById(epic.getId()).getStatus(), "Epic status changed");
+        assertEquals(List.of(subTask, task), manager.getPrioritizedTasks(), "Schedule was not rolled back");
+        assertTrue(manager.getHistory().contains(task), "Rolled back deletion removed the task from history");
+        assertEquals(task.getId() + 1, manager.createTask(new Task("next", "description", Status.NEW)).getId(),
+                "Ids of rolled back creations should be reused");
+    }
+
+    @Test
+    @DisplayName("Should keep the status index up to date as tasks, subtasks and epics change")
+    void getByStatus_followsStatusChanges() {
+        //given
+        Task task = manager.createTask(new Task("task", "description", Status.NEW, null, null));
+        manager.createTask(new Task("other", "description", Status.DONE, null, null));
+        Epic epic = manager.createEpic(new Epic("epic", "description"));
+        SubTask subTask = manager.createSubTask(new SubTask("subtask", Status.NEW, "description", epic.getId(),
+                null, null));
+
+        //when
+        manager.updateTask(new Task(task.getId(), "task", Status.IN_PROGRESS, "description", null, null));
+        manager.updateSubTask(new SubTask(subTask.getId(), "subtask", Status.DONE, "description", epic.getId(),
+                null, null));
+
+        //then
+        assertEquals(List.of(task.getId()), manager.getTasksByStatus(Status.IN_PROGRESS).stream()
+                .map(Task::getId).toList(), "Updated task is not indexed by its new status");
+        assertTrue(manager.getTasksByStatus(Status.NEW).isEmpty(), "Updated task is still indexed by its old status");
+        assertEquals(List.of(subTask), manager.getSubTasksByStatus(Status.DONE), "Subtask was not reindexed");
+        assertEquals(List.of(epic), manager.getEpicsByStatus(Status.DONE), "Recalculated epic was not reindexed");
+        assertTrue(manager.getEpicsByStatus(Status.NEW).isEmpty(), "Epic is still indexed by its old status");
+
+        manager.deleteEpicById(epic.getId());
+        assertTrue(manager.getSubTasksByStatus(Status.DONE).isEmpty(), "Deleted subtask is still indexed");
+        assertTrue(manager.getEpicsByStatus(Status.DONE).isEmpty(), "Deleted epic is still indexed");
+        assertEquals(1, manager.getTasksPage(Status.DONE, null, 10).getItems().size(),
+                "Filtered page has a wrong size");
+    }
+
+    @Test
+    @DisplayName("Should return only the scheduled tasks intersecting the window")
+    void getPrioritizedTasks_returnWindow() {
+        //given
+        Task before = manager.createTask(new Task("before", "description", Status.NEW,
+                LocalDateTime.of(2024, 6, 17, 10, 0), Duration.ofMinutes(60)));
+        Task reachingIn = manager.createTask(new Task("reaching in", "description", Status.NEW,
+                LocalDateTime.of(2024, 6, 17, 23, 30), Duration.ofMinutes(60)));
+        Epic epic = manager.createEpic(new Epic("epic", "description"));
+        SubTask inside = manager.createSubTask(new SubTask("inside", Status.NEW, "description", epic.getId(),
+                LocalDateTime.of(2024, 6, 20, 12, 0), Duration.ofMinutes(30)));
+        Task atEnd = manager.createTask(new Task("at end", "description", Status.NEW,
+                LocalDateTime.of(2024, 6, 25, 0, 0), Duration.ofMinutes(30)));
+        LocalDateTime from = LocalDateTime.of(2024, 6, 18, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 6, 25, 0, 0);
+
+        //when
+        List<Task> window = manager.getPrioritizedTasks(from, to);
+        List<Task> visited = new ArrayList<>();
+        manager.forEachPrioritizedTask(from, null, visited::add);
+
+        //then
+        assertEquals(List.of(reachingIn, inside), window, "Window contains wrong tasks");
+        assertEquals(List.of(reachingIn, inside, atEnd), visited, "Open-ended window contains wrong tasks");
+        assertEquals(List.of(before, reachingIn, inside, atEnd), manager.getPrioritizedTasks(null, null),
+                "Unbounded window should contain all scheduled tasks");
+    }
+
+    @Test
+    @DisplayName("Should return the earliest start in each gap long enough for the duration")
+    void findFreeSlots_returnEarliestFittingGaps() {
+        //given
+        manager.createTask(new Task("nine", "description", Status.NEW,
+                LocalDateTime.of(2024, 6, 17, 9, 0), Duration.ofMinutes(60)));
+        Task half = manager.createTask(new Task("half past ten", "description", Status.NEW,
+                LocalDateTime.of(2024, 6, 17, 10, 30), Duration.ofMinutes(60)));
+        manager.createTask(new Task("noon", "description", Status.NEW,
+                LocalDateTime.of(2024, 6, 17, 12, 0), Duration.ofMinutes(60)));
+        LocalDateTime from = LocalDateTime.of(2024, 6, 17, 9, 30);
+
+        //when
+        List<LocalDateTime> slots = manager.findFreeSlots(Duration.ofMinutes(60), from, null, 3);
+        LocalDateTime bounded = manager.findFreeSlot(Duration.ofMinutes(60), from,
+                LocalDateTime.of(2024, 6, 17, 13, 30));
+        LocalDateTime shortSlot = manager.findFreeSlot(Duration.ofMinutes(30), from, null);
+        manager.deleteTaskById(half.getId());
+        LocalDateTime merged = manager.findFreeSlot(Duration.ofMinutes(60), from, null);
+
+        //then
+        assertEquals(List.of(LocalDateTime.of(2024, 6, 17, 13, 0)), slots,
+                "Gaps shorter than the duration should be skipped");
+        assertNull(bounded, "Slot should end inside the window");
+        assertEquals(LocalDateTime.of(2024, 6, 17, 10, 0), shortSlot, "Earliest short slot was not found");
+        assertEquals(LocalDateTime.of(2024, 6, 17, 10, 0), merged, "Gaps around a deleted task should merge");
+    }
+
+    @Test
+    @DisplayName("Should return one candidate per gap in time order")
+    void findFreeSlots_returnCandidatesInOrder() {
+        //given
+        manager.createTask(new Task("first", "description", Status.NEW,
+                LocalDateTime.of(2024, 6, 17, 10, 0), Duration.ofMinutes(60)));
+        Epic epic = manager.createEpic(new Epic("epic", "description"));
+        manager.createSubTask(new SubTask("second", Status.NEW, "description", epic.getId(),
+                LocalDateTime.of(2024, 6, 17, 12, 0), Duration.ofMinutes(60)));
+        LocalDateTime from = LocalDateTime.of(2024, 6, 17, 8, 0);
+
+        //when
+        List<LocalDateTime> slots = manager.findFreeSlots(Duration.ofMinutes(60), from, null, 5);
+
+        //then
+        assertEquals(List.of(LocalDateTime.of(2024, 6, 17, 8, 0), LocalDateTime.of(2024, 6, 17, 11, 0),
+                LocalDateTime.of(2024, 6, 17, 13, 0)), slots, "Wrong candidate slots");
+        assertThrows(ValidationException.class,
+                () -> manager.findFreeSlots(Duration.ofMinutes(60), from, from.minusHours(1), 1),
+                "Reversed window should be rejected");
+    }
+
+    @Test
+    @DisplayName("Should throw ValidationException when the slot duration is zero")
+    void findFreeSlots_throwsValidationException_whenDurationIsZero() {
+        //given
+        manager.createTask(new Task("first", "description", Status.NEW,
+                LocalDateTime.of(2024, 6, 17, 10, 0), Duration.ofMinutes(60)));
+        LocalDateTime from = LocalDateTime.of(2024, 6, 17, 8, 0);
+
+        //when
+        //then
+        assertThrows(ValidationException.class, () -> manager.findFreeSlots(Duration.ZERO, from, null, 3),
+                "Zero duration should be rejected");
+    }
+
+    @Test
+    @DisplayName("Should create the task in the earliest free slot instead of failing on the conflict")
+    void createTaskInFreeSlot_placeAfterConflict() {
+        //given
+        manager.createTask(new Task("busy", "description", Status.NEW,
+                LocalDateTime.of(2024, 6, 17, 10, 0), Duration.ofMinutes(60)));
+        Epic epic = manager.createEpic(new Epic("epic", "description"));
+        LocalDateTime from = LocalDateTime.of(2024, 6, 17, 10, 0);
+
+        //when
+        Task task = manager.createTaskInFreeSlot(new Task("placed", "description", Status.NEW,
+                null, Duration.ofMinutes(30)), from, null);
+        SubTask subTask = manager.createSubTaskInFreeSlot(new SubTask("placed", Status.NEW, "description",
+                epic.getId(), null, Duration.ofMinutes(30)), from, null);
+
+        //then
+        assertEquals(LocalDateTime.of(2024, 6, 17, 11, 0), task.getStartDateTime(), "Task was placed wrongly");
+        assertEquals(LocalDateTime.of(2024, 6, 17, 11, 30), subTask.getStartDateTime(),
+                "Subtask was placed wrongly");
+        assertEquals(3, manager.getPrioritizedTasks().size(), "Placed tasks should be scheduled");
+        assertThrows(ValidationException.class, () -> manager.createTaskInFreeSlot(new Task("late", "description",
+                        Status.NEW, null, Duration.ofMinutes(30)), from, LocalDateTime.of(2024, 6, 17, 12, 0)),
+                "Window without a free slot should be rejected");
+    }
+
+    @Test
+    @DisplayName("Should find tasks containing every query term, name matches first")
+    void search_returnRankedMatches() {
+        //given
+        Task inDescription = manager.createTask(new Task("Weekly sync", "Prepare the release notes",
+                Status.NEW));
+        Task inName = manager.createTask(new Task("Release notes", "Draft for the team", Status.NEW));
+        Epic epic = manager.createEpic(new Epic("Release 2.0", "Everything for the next version"));
+        manager.createTask(new Task("Notes", "Meeting notes", Status.NEW));
+
+        //when
+        List<Task> both = manager.search("RELEASE notes", 10);
+        List<Task> prefix = manager.search("rel*", 10);
+        List<Task> limited = manager.search("rel*", 1);
+
+        //then
+        assertEquals(List.of(inName, inDescription), both, "Wrong matches or ranking");
+        assertEquals(3, prefix.size(), "Prefix should match every release");
+        assertTrue(prefix.contains(epic), "Epics should be searchable");
+        assertEquals(1, limited.size(), "Limit was ignored");
+        assertTrue(manager.search("  ", 10).isEmpty(), "Empty query should match nothing");
+        assertTrue(manager.search("release missing", 10).isEmpty(), "All terms should be required");
+    }
+
+    @Test
+    @DisplayName("Should keep the search index in step with updates and deletions")
+    void search_followChanges() {
+        //given
+        Task task = manager.createTask(new Task("Fix login", "description", Status.NEW));
+        Epic epic = manager.createEpic(new Epic("Auth", "description"));
+        SubTask subTask = manager.createSubTask(new SubTask("Login form", Status.NEW, "description",
+                epic.getId(), null, null));
+
+        //when
+        manager.updateTask(new Task(task.getId(), "Fix logout", Status.NEW, "description", null, null));
+        manager.updateEpic(new Epic(epic.getId(), "Authentication", Status.NEW, "description", null, null));
+        manager.deleteSubTaskById(subTask.getId());
+
+        //then
+        assertTrue(manager.search("login", 10).isEmpty(), "Old text should not be found");
+        assertEquals(List.of(task), manager.search("logout", 10), "Updated task was not found");
+        assertEquals(List.of(epic), manager.search("authentication", 10), "Updated epic was not found");
+        manager.deleteAllTasks();
+        assertTrue(manager.search("logout", 10).isEmpty(), "Deleted task should not be found");
+    }
+
+    @Test
+    @DisplayName("Should restore the order of an epic's subtasks when a batch deleting one of them is rolled back")
+    void applyBatch_restoresSubTaskOrder_whenRolledBack() {
+        //given
+        Epic epic = manager.createEpic(new Epic("epic", "description"));
+        SubTask first = manager.createSubTask(new SubTask("first", Status.NEW, "description", epic.getId(), null, null));
+        SubTask second = manager.createSubTask(new SubTask("second", Status.NEW, "description", epic.getId(), null, null));
+        SubTask third = manager.createSubTask(new SubTask("third", Status.NEW, "description", epic.getId(), null, null));
+        List<BatchOperation> operations = List.of(
+                BatchOperation.delete(TaskType.SUBTASK, second.getId()),
+                BatchOperation.create(new SubTask("fourth", Status.NEW, "description", epic.getId(), null, null)),
+                BatchOperation.delete(TaskType.SUBTASK, first.getId()),
+                BatchOperation.delete(TaskType.TASK, 100));
+
+        //when
+        assertThrows(NotFoundException.class, () -> manager.applyBatch(operations),
+                "Missing task should fail the batch");
+
+        //then
+        assertEquals(List.of(first.getId(), second.getId(), third.getId()),
+                manager.getEpicById(epic.getId()).getSubTasksId(), "Subtask order was not restored");
+        assertEquals(List.of(first, second, third), manager.getSubTasksByEpic(epic), "Subtasks were not restored");
+    }
+
+    @Test
+    @DisplayName("Should keep a zero-duration task and a task starting at the same instant apart in the schedule")
+    void schedule_keepsTasksSharingStart() {
+        //given
+        LocalDateTime start = LocalDateTime.of(2024, 6, 19, 12, 0);
+        Task meeting = manager.createTask(new Task("meeting", "description", Status.NEW, start, Duration.ofHours(1)));
+        Task marker = manager.createTask(new Task("marker", "description", Status.NEW, start, Duration.ZERO));
+        Task overlapping = new Task("overlapping", "description", Status.NEW, start.plusMinutes(30),
+                Duration.ofHours(1));
+
+        //when
+        List<Task> scheduled = manager.getPrioritizedTasks();
+        manager.deleteTaskById(marker.getId());
+
+        //then
+        assertEquals(List.of(marker, meeting), scheduled, "Task sharing a start was dropped");
+        assertEquals(List.of(meeting), manager.getPrioritizedTasks(), "Wrong task was unscheduled");
+        assertEquals(List.of(meeting), manager.getTimeConflicts(overlapping), "Remaining task no longer conflicts");
+        assertThrows(ValidationException.class, () -> manager.createTask(overlapping),
+                "Task overlapping the remaining one was accepted");
+    }
+
+    @Test
+    @DisplayName("Should keep one gap per task when a zero-duration task shares its start with another task")
+    void findFreeSlots_keepGapsOfTasksSharingStart() {
+        //given
+        LocalDateTime day = LocalDateTime.of(2024, 6, 17, 0, 0);
+        manager.createTask(new Task("first", "description", Status.NEW, day.withHour(9), Duration.ofHours(1)));
+        Task marker = manager.createTask(new Task("marker", "description", Status.NEW, day.withHour(12),
+                Duration.ZERO));
+        manager.createTask(new Task("meeting", "description", Status.NEW, day.withHour(12), Duration.ofHours(1)));
+        manager.createTask(new Task("last", "description", Status.NEW, day.withHour(14), Duration.ofHours(1)));
+
+        //when
+        List<LocalDateTime> slots = manager.findFreeSlots(Duration.ofHours(2), day.withHour(9), null, 2);
+        manager.deleteTaskById(marker.getId());
+        List<LocalDateTime> slotsAfterRemoval = manager.findFreeSlots(Duration.ofHours(2), day.withHour(9), null, 2);
+        Task placed = manager.createTaskInFreeSlot(new Task("placed", "description", Status.NEW, null,
+                Duration.ofHours(3)), day.withHour(9), null);
+
+        //then
+        assertEquals(List.of(day.withHour(10), day.withHour(15)), slots, "Gap before the shared start was lost");
+        assertEquals(List.of(day.withHour(10), day.withHour(15)), slotsAfterRemoval,
+                "Gaps around the remaining task are wrong");
+        assertEquals(day.withHour(15), placed.getStartDateTime(), "Task was placed over the meeting");
+    }
+
+    @Test
+    @DisplayName("Should reject a search limit that is not positive")
+    void search_throwsValidationException_whenLimitIsNotPositive() {
+        //given
+        manager.createTask(new Task("Release notes", "Draft for the team", Status.NEW));
+
+        //when
+        //then
+        assertThrows(ValidationException.class, () -> manager.search("release", 0), "Zero limit was accepted");
+        assertThrows(ValidationException.class, () -> manager.search("release", -1),
+                "Negative limit was accepted");
+    }
+}
@@ -0,0 +1,67 @@
+package manager.task;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("IntMap")
+class IntMapTest {
+
+    @Test
+    @DisplayName("Should behave like a HashMap under random puts and removals")
+    void putAndRemove_matchHashMap() {
+        //given
+        IntMap<String> map = new IntMap<>();
+        IntIntMap counts = new IntIntMap();
+        HashMap<Integer, String> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        //when
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(2_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key), "Removal returned a wrong value");
+                counts.remove(key);
+            } else {
+                String value = "v" + i;
+                assertEquals(expected.put(key, value), map.put(key, value), "Put returned a wrong value");
+                counts.put(key, i + 1);
+            }
+        }
+
+        //then
+        assertEquals(expected.size(), map.size(), "Sizes differ");
+        assertEquals(expected.size(), counts.size(), "Int map sizes differ");
+        for (int key = -1_000; key < 1_000; key++) {
+            assertEquals(expected.get(key), map.get(key), "Lookup differs for key " + key);
+            assertEquals(expected.containsKey(key), counts.get(key) != 0, "Int lookup differs for key " + key);
+        }
+        Map<Integer, String> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited, "Iteration visited wrong entries");
+    }
+
+    @Test
+    @DisplayName("Should keep colliding keys reachable after a removal in the middle of a probe run")
+    void remove_keepProbeRunReachable() {
+        //given
+        IntMap<Integer> map = new IntMap<>();
+        for (int key = 0; key < 6; key++) {
+            map.put(key * 8, key);
+        }
+
+        //when
+        map.remove(16);
+
+        //then
+        assertNull(map.get(16), "Removed key is still present");
+        for (int key : new int[]{0, 1, 3, 4, 5}) {
+            assertEquals(key, map.get(key * 8), "Key " + key * 8 + " was lost");
+        }
+    }
+}
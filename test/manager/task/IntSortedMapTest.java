@@ -0,0 +1,96 @@
+package manager.task;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("IntSortedMap")
+class IntSortedMapTest {
+
+    @Test
+    @DisplayName("Should keep the same order as a TreeMap across block splits and removals")
+    void addAndRemove_matchTreeSet() {
+        //given
+        IntSortedMap<Integer> map = new IntSortedMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(7);
+
+        //when
+        for (int i = 0; i < 50_000; i++) {
+            int value = random.nextInt(20_000);
+            if (random.nextInt(4) == 0) {
+                assertEquals(expected.remove(value) != null, map.remove(value), "Removal result differs");
+            } else {
+                assertEquals(expected.put(value, i) == null, map.put(value, i), "Put result differs");
+            }
+        }
+
+        //then
+        assertEquals(expected.size(), map.size(), "Sizes differ");
+        assertEquals(new ArrayList<>(expected.values()), toList(map.values(null)), "Order differs");
+        assertEquals(new ArrayList<>(expected.tailMap(10_000, false).values()), toList(map.values(10_000)),
+                "Iteration after a key differs");
+        assertTrue(map.containsKey(expected.firstKey()), "Smallest key was not found");
+    }
+
+    @Test
+    @DisplayName("Should iterate keys appended in ascending order")
+    void put_appendAscending() {
+        //given
+        IntSortedMap<Integer> map = new IntSortedMap<>();
+
+        //when
+        for (int key = 1; key <= 2_000; key++) {
+            map.put(key, key);
+        }
+        map.put(0, 0);
+        map.put(1_999, -1_999);
+
+        //then
+        assertEquals(List.of(1_998, -1_999, 2_000), toList(map.values(1_997)), "Tail was not iterated");
+        assertEquals(0, map.values(null).next(), "Smaller key was not put first");
+        assertFalse(map.values(2_000).hasNext(), "Nothing should follow the largest key");
+    }
+
+    @Test
+    @DisplayName("Should merge sparse blocks after heavy deletes")
+    void remove_mergesSparseBlocks() {
+        //given
+        IntSortedMap<Integer> map = new IntSortedMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int key = 0; key < 20_000; key++) {
+            map.put(key, key);
+            expected.put(key, key);
+        }
+        int fullBlocks = map.blockCount();
+        Random random = new Random(24);
+
+        //when
+        for (int key = 0; key < 20_000; key++) {
+            if (key % 16 != 0 || random.nextInt(8) == 0) {
+                map.remove(key);
+                expected.remove(key);
+            }
+        }
+
+        //then
+        assertEquals(new ArrayList<>(expected.values()), toList(map.values(null)), "Order differs");
+        assertEquals(new ArrayList<>(expected.tailMap(10_000, false).values()), toList(map.values(10_000)),
+                "Iteration after a key differs");
+        assertTrue(map.blockCount() <= expected.size() / 128 + 1,
+                "Sparse blocks were kept: " + map.blockCount() + " of " + fullBlocks);
+    }
+
+    private static List<Integer> toList(Iterator<Integer> iterator) {
+        List<Integer> values = new ArrayList<>();
+        iterator.forEachRemaining(values::add);
+        return values;
+    }
+}
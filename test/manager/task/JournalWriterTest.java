@@ -0,0 +1,63 @@
+package manager.task;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Journal Writer")
+class JournalWriterTest {
+
+    @Test
+    @DisplayName("Should commit records queued within the window with a single sync")
+    void append_groupsRecordsIntoOneSync_withSyncBatchPolicy() throws IOException {
+        //given
+        File file = Files.createTempDirectory("kanban").resolve("task.csv.log").toFile();
+        AtomicLong writtenBytes = new AtomicLong();
+        AtomicLong syncs = new AtomicLong();
+        JournalWriter writer = new JournalWriter(file, DurabilityPolicy.SYNC_BATCH, Duration.ofMillis(200),
+                writtenBytes, syncs);
+
+        //when
+        List<CompletableFuture<Void>> commits = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            commits.add(writer.append(("record" + i + "\n").getBytes(StandardCharsets.UTF_8)));
+        }
+        CompletableFuture.allOf(commits.toArray(new CompletableFuture<?>[0])).join();
+        writer.close();
+
+        //then
+        assertTrue(syncs.get() < 10, "Records were not grouped");
+        assertEquals(10, Files.readAllLines(file.toPath()).size(), "Records were not written");
+        assertEquals(file.length(), writtenBytes.get(), "Written bytes were not counted");
+    }
+
+    @Test
+    @DisplayName("Should not sync records with the OS_BUFFERED policy")
+    void append_doesNotSync_withOsBufferedPolicy() throws IOException {
+        //given
+        File file = Files.createTempDirectory("kanban").resolve("task.csv.log").toFile();
+        AtomicLong syncs = new AtomicLong();
+        JournalWriter writer = new JournalWriter(file, DurabilityPolicy.OS_BUFFERED, Duration.ZERO,
+                new AtomicLong(), syncs);
+
+        //when
+        writer.append("record\n".getBytes(StandardCharsets.UTF_8)).join();
+        writer.close();
+
+        //then
+        assertEquals(0, syncs.get(), "Records were synced");
+        assertEquals(List.of("record"), Files.readAllLines(file.toPath()), "Record was not written");
+    }
+}
@@ -0,0 +1,142 @@
+package manager.task;
+
+import converter.TaskConverter;
+import model.Epic;
+import model.Status;
+import model.SubTask;
+import model.Task;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Snapshot File")
+class SnapshotFileTest {
+
+    private static final int RECORDS = 30_000;
+
+    private static File writeLargeSnapshot() throws IOException {
+        File file = Files.createTempDirectory("kanban").resolve("task.csv").toFile();
+        List<Task> tasks = new ArrayList<>();
+        List<Epic> epics = new ArrayList<>();
+        List<SubTask> subTasks = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2024, 6, 20, 12, 0);
+        for (int id = 1; id <= RECORDS; id++) {
+            if (id % 3 == 0) {
+                tasks.add(new Task(id, "task name-" + id, Status.NEW, "description-" + id,
+                        start.plusMinutes(id * 2L), Duration.ofMinutes(1)));
+            } else if (id % 3 == 1) {
+                epics.add(new Epic(id, "epic name-" + id, Status.NEW, "description-" + id, null, null));
+            } else {
+                subTasks.add(new SubTask(id, "subtask name-" + id, Status.DONE, "description-" + id, id - 1,
+                        null, null));
+            }
+        }
+        new SnapshotFile(file, SnapshotFormat.CSV).write(tasks, epics, subTasks, 0);
+        return file;
+    }
+
+    @Test
+    @DisplayName("Should read a large snapshot in parallel chunks keeping every record")
+    void read_parsesLargeSnapshotInChunks() throws IOException {
+        //given
+        File file = writeLargeSnapshot();
+        List<String> lines = Files.readAllLines(file.toPath());
+
+        //when
+        List<Task> records = SnapshotFile.read(file).records;
+
+        //then
+        assertTrue(file.length() > 1 << 20, "Snapshot is too small to be memory-mapped");
+        assertEquals(RECORDS, records.size(), "Records were lost");
+        for (int i = 0; i < records.size(); i++) {
+            Task record = records.get(i);
+            String line = record instanceof SubTask subTask
+                    ? TaskConverter.toString(subTask)
+                    : TaskConverter.toString(record);
+            assertEquals(lines.get(i + 1), line, "Records were read out of order");
+        }
+    }
+
+    @Test
+    @DisplayName("Should restore epic aggregates after loading a large snapshot")
+    void loadFromFile_restoresEpics_fromLargeSnapshot() throws IOException {
+        //given
+        File file = writeLargeSnapshot();
+
+        //when
+        FileBackedTaskManager restored = FileBackedTaskManager.loadFromFile(file);
+
+        //then
+        assertEquals(RECORDS / 3, restored.getEpicList().size(), "Epics were not restored");
+        assertEquals(Status.DONE, restored.getEpicById(1).getStatus(), "Epic status was not calculated");
+        assertEquals(List.of(2), restored.getEpicById(1).getSubTasksId(), "Subtasks were not linked");
+    }
+
+    @Test
+    @DisplayName("Should reject a large snapshot whose content does not match the footer")
+    void read_throwsIOException_whenLargeSnapshotIsCorrupted() throws IOException {
+        //given
+        File file = writeLargeSnapshot();
+        List<String> lines = Files.readAllLines(file.toPath());
+        lines.set(RECORDS / 2, lines.get(RECORDS / 2).replace("name", "nome"));
+        Files.write(file.toPath(), lines);
+
+        //when
+        //then
+        assertThrows(IOException.class, () -> SnapshotFile.read(file), "Corrupted snapshot was accepted");
+    }
+
+    @Test
+    @DisplayName("Should keep the sequence of the last included journal record in both formats")
+    void read_returnsJournalSequence() throws IOException {
+        //given
+        Path directory = Files.createTempDirectory("kanban");
+        File csv = directory.resolve("task.csv").toFile();
+        File binary = directory.resolve("task.bin").toFile();
+        List<Task> tasks = List.of(new Task(1, "name1", Status.NEW, "description1", null, null));
+
+        //when
+        new SnapshotFile(csv, SnapshotFormat.CSV).write(tasks, List.of(), List.of(), 42);
+        new SnapshotFile(binary, SnapshotFormat.BINARY).write(tasks, List.of(), List.of(), 42);
+        SnapshotFile.Content fromCsv = SnapshotFile.read(csv);
+        SnapshotFile.Content fromBinary = SnapshotFile.read(binary);
+
+        //then
+        assertEquals(42, fromCsv.journalSequence, "Journal sequence was not kept in the CSV footer");
+        assertEquals(1, fromCsv.records.size(), "CSV records were lost");
+        assertEquals(42, fromBinary.journalSequence, "Journal sequence was not kept in the binary footer");
+        assertEquals(1, fromBinary.records.size(), "Binary records were lost");
+    }
+
+    @Test
+    @DisplayName("Should skip blank lines and decode non-ASCII text in a large snapshot")
+    void read_skipsBlankLines_inLargeSnapshot() throws IOException {
+        //given
+        File file = writeLargeSnapshot();
+        List<String> lines = new ArrayList<>(Files.readAllLines(file.toPath()));
+        lines.remove(lines.size() - 1);
+        lines.set(RECORDS / 2, lines.get(RECORDS / 2).replace("name", "задача"));
+        lines.add(RECORDS / 3, "");
+        lines.add("");
+        Files.write(file.toPath(), lines);
+
+        //when
+        List<Task> records = SnapshotFile.read(file).records;
+
+        //then
+        assertEquals(RECORDS, records.size(), "Blank lines were not skipped");
+        assertTrue(records.get(RECORDS / 2 - 1).getName().contains("задача"), "Non-ASCII text was not decoded");
+    }
+}
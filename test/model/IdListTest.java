@@ -0,0 +1,96 @@
+package model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("IdList")
+class IdListTest {
+
+    @Test
+    @DisplayName("Should add, insert and remove ids like a list")
+    void mutate_behaveLikeList() {
+        //given
+        IdList ids = new IdList();
+
+        //when
+        for (int id = 1; id <= 10; id++) {
+            ids.add(id);
+        }
+        ids.remove(Integer.valueOf(5));
+        ids.remove(0);
+        ids.add(2, 42);
+
+        //then
+        assertEquals(List.of(2, 3, 42, 4, 6, 7, 8, 9, 10), ids, "Ids differ");
+        assertEquals(2, ids.indexOf(42), "Id was not found");
+        assertFalse(ids.remove(Integer.valueOf(100)), "Missing id should not be removed");
+        assertThrows(IndexOutOfBoundsException.class, () -> ids.get(9), "Index past the end should be rejected");
+    }
+
+    @Test
+    @DisplayName("Should keep insertion order through random appends, removals and positional updates")
+    void randomOperations_matchArrayList() {
+        //given
+        IdList ids = new IdList();
+        List<Integer> expected = new ArrayList<>();
+        Random random = new Random(25);
+
+        //when
+        for (int step = 0; step < 50_000; step++) {
+            int id = random.nextInt(2_000);
+            int operation = random.nextInt(10);
+            if (operation < 5) {
+                if (expected.contains(id)) {
+                    assertThrows(IllegalArgumentException.class, () -> ids.add(id), "Duplicate " + id + " was appended");
+                } else {
+                    assertTrue(ids.add(id), "Append result differs for " + id);
+                    expected.add(id);
+                }
+            } else if (operation < 8) {
+                assertEquals(expected.remove(Integer.valueOf(id)), ids.remove(Integer.valueOf(id)),
+                        "Removal result differs for " + id);
+            } else if (operation == 8 && !expected.isEmpty()) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), ids.remove(index), "Removed id differs at " + index);
+            } else if (!expected.contains(id)) {
+                int index = random.nextInt(expected.size() + 1);
+                expected.add(index, id);
+                ids.add(index, id);
+            }
+            assertEquals(expected.indexOf(id), ids.indexOf(id), "Index differs for " + id);
+        }
+
+        //then
+        assertEquals(expected, new ArrayList<>(ids), "Ids differ");
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), ids.get(i), "Id differs at " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Should skip removed ids when iterating and reject duplicates")
+    void removeWhileIterating_skipsHoles() {
+        //given
+        IdList ids = new IdList();
+        for (int id = 1; id <= 100; id++) {
+            ids.add(id);
+        }
+
+        //when
+        ids.removeIf(id -> id % 3 != 0);
+        ids.remove(Integer.valueOf(99));
+
+        //then
+        assertEquals(32, ids.size(), "Wrong number of ids left");
+        assertEquals(List.of(3, 6, 9), ids.subList(0, 3), "Order was not preserved");
+        assertEquals(96, ids.getInt(31), "Last id differs");
+        assertThrows(IllegalArgumentException.class, () -> ids.add(3), "Duplicate id should be rejected");
+        assertThrows(IllegalArgumentException.class, () -> ids.add(0, 6), "Duplicate id should be rejected");
+    }
+}